@@ -0,0 +1,34 @@
+package com.example.demo.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Entry point of benchmarks.jar. Accepts the usual JMH command line and always writes a JSON
+ * result file named after the commit being measured, e.g. results/jmh-3f2a1c9.json.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+
+        String commit = System.getProperty("bench.commit", System.getenv().getOrDefault("BENCH_COMMIT", "local"));
+        File resultsDir = new File(System.getProperty("bench.results.dir", "results"));
+        resultsDir.mkdirs();
+        String resultFile = new File(resultsDir, "jmh-" + commit + ".json").getPath();
+
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+
+        new Runner(options).run();
+        System.out.println("📊 Benchmark results written to " + resultFile);
+    }
+}
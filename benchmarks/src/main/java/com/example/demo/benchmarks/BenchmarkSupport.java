@@ -0,0 +1,200 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.diagnostics.EventLogger;
+import com.example.demo.model.Product;
+import com.example.demo.repository.ProductChangeLogRepository;
+import com.example.demo.repository.ProductFieldSet;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.repository.StockLocationRepository;
+import com.example.demo.repository.WarehouseRepository;
+import com.example.demo.service.EmailService;
+import com.example.demo.service.ProductCache;
+import com.example.demo.service.ProductChangeBus;
+import com.example.demo.service.ProductChangeLog;
+import com.example.demo.service.ProductKeyIndex;
+import com.example.demo.service.StockLocationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Wiring helpers so the benchmarks can build services without a Spring context or a database
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {}
+
+    // Stand-in for @Value injection
+    static void setField(Object target, String name, Object value) {
+        Class<?> type = target.getClass();
+        while (type != null) {
+            try {
+                Field field = type.getDeclaredField(name);
+                field.setAccessible(true);
+                field.set(target, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                type = type.getSuperclass();
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new IllegalArgumentException("No field " + name + " on " + target.getClass());
+    }
+
+    static Method privateMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            Method method = type.getDeclaredMethod(name, parameterTypes);
+            method.setAccessible(true);
+            return method;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    static List<Product> catalog(int size) {
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Product product = new Product("Product " + i, "M-" + (i % 97), 10.0 + (i % 500), 50000, "ACTIVE");
+            product.setId((long) i + 1);
+            products.add(product);
+        }
+        return products;
+    }
+
+    // ProductRepository backed by maps; only the methods the benchmarked paths call are implemented
+    static ProductRepository inMemoryProducts(List<Product> initial) {
+        Map<Long, Product> byId = new ConcurrentHashMap<>();
+        Map<String, Product> byNaturalKey = new ConcurrentHashMap<>();
+        AtomicLong ids = new AtomicLong();
+        for (Product product : initial) {
+            byId.put(product.getId(), product);
+            byNaturalKey.put(product.getProductName() + "|" + product.getModel(), product);
+            ids.accumulateAndGet(product.getId(), Math::max);
+        }
+
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "save": {
+                            Product product = (Product) args[0];
+                            if (product.getId() == null) product.setId(ids.incrementAndGet());
+                            byId.put(product.getId(), product);
+                            byNaturalKey.put(product.getProductName() + "|" + product.getModel(), product);
+                            return product;
+                        }
+                        case "findById":
+                            return Optional.ofNullable(byId.get((Long) args[0]));
+                        case "existsById":
+                            return byId.containsKey((Long) args[0]);
+                        case "findAll":
+                            return new ArrayList<>(byId.values());
+                        case "findAllNaturalKeys": {
+                            List<Object[]> rows = new ArrayList<>(byId.size());
+                            for (Product product : byId.values()) {
+                                rows.add(new Object[]{product.getId(), product.getProductName(), product.getModel()});
+                            }
+                            return rows;
+                        }
+                        case "findAllProjected": {
+                            ProductFieldSet fields = (ProductFieldSet) args[0];
+                            List<Map<String, Object>> rows = new ArrayList<>(byId.size());
+                            for (Product product : byId.values()) rows.add(fields.toRow(product));
+                            return rows;
+                        }
+                        case "count":
+                            return (long) byId.size();
+                        case "findByProductNameAndModel":
+                            return Optional.ofNullable(byNaturalKey.get(args[0] + "|" + args[1]));
+                        case "existsByProductName":
+                            return byId.values().stream().anyMatch(p -> p.getProductName().equals(args[0]));
+                        case "toString":
+                            return "InMemoryProductRepository";
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    // Repository whose writes are accepted and dropped (ledger, journal)
+    @SuppressWarnings("unchecked")
+    static <T> T discardingRepository(Class<T> repositoryType) {
+        return (T) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "save":
+                        case "saveAll":
+                            return args[0];
+                        case "toString":
+                            return "Discarding" + repositoryType.getSimpleName();
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            if (method.getReturnType() == Optional.class) return Optional.empty();
+                            if (method.getReturnType() == boolean.class) return false;
+                            if (List.class.isAssignableFrom(method.getReturnType())) return List.of();
+                            return null;
+                    }
+                });
+    }
+
+    // No product has warehouse rows, so orders take the single-row stock path
+    static StockLocationService singleLocationStock() {
+        return new StockLocationService(discardingRepository(StockLocationRepository.class),
+                discardingRepository(WarehouseRepository.class), null, null, null, null,
+                new SimpleMeterRegistry(), "nearest", "MAIN");
+    }
+
+    // Natural-key index loaded from the in-memory catalog, as it is at application startup
+    static ProductKeyIndex loadedKeyIndex(ProductRepository productRepository) {
+        ProductKeyIndex keyIndex = new ProductKeyIndex(productRepository, new SimpleMeterRegistry());
+        keyIndex.load();
+        return keyIndex;
+    }
+
+    // Real bus with nobody subscribed: publish() is on the measured path but reaches no one
+    static ProductChangeBus unwatchedChangeBus(ProductKeyIndex keyIndex) {
+        ProductChangeLog changeLog = new ProductChangeLog(discardingRepository(ProductChangeLogRepository.class));
+        setField(changeLog, "batchSize", 500);
+        ProductCache productCache = new ProductCache(null, new SimpleMeterRegistry(), 50000, 5000, 500);
+        return new ProductChangeBus(changeLog, productCache, keyIndex, new SimpleMeterRegistry(), 256, 1000, 1800000);
+    }
+
+    // Real ring buffer and writer thread; rendered lines go nowhere so JMH output stays readable
+    static EventLogger discardingEventLogger() {
+        return new EventLogger(65536, Map.of(), Writer.nullWriter());
+    }
+
+    // EmailService that renders nothing and never touches SMTP
+    static class NoopEmailService extends EmailService {
+        NoopEmailService() {
+            super(new JavaMailSenderImpl(), new SimpleMeterRegistry());
+        }
+
+        @Override
+        public void sendLowStockAlert(Product product) {}
+
+        @Override
+        public void sendLowStockDigest(List<Product> products) {}
+
+        @Override
+        public void sendNewProductNotification(Product product) {}
+
+        @Override
+        public void sendStockReplenishedNotification(Product product, int addedQuantity) {}
+
+        @Override
+        public void sendOrderConfirmation(String customerEmail, String customerName, Map<String, Object> orderDetails) {}
+    }
+}
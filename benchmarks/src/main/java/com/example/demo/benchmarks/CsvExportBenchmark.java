@@ -0,0 +1,44 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.controller.ProductController;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.service.GoogleSheetsService;
+import com.example.demo.service.ProductKeyIndex;
+import com.example.demo.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+// Row formatting cost of /api/products/staff/export-csv
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvExportBenchmark {
+
+    @Param({"1000", "100000"})
+    public int catalogSize;
+
+    private ProductController controller;
+
+    @Setup
+    public void setUp() {
+        ProductRepository productRepository = BenchmarkSupport.inMemoryProducts(BenchmarkSupport.catalog(catalogSize));
+        ProductKeyIndex keyIndex = BenchmarkSupport.loadedKeyIndex(productRepository);
+        ProductService productService = new ProductService(productRepository,
+                new BenchmarkSupport.NoopEmailService(), new GoogleSheetsService(new SimpleMeterRegistry()), null,
+                BenchmarkSupport.singleLocationStock(), null, null, BenchmarkSupport.unwatchedChangeBus(keyIndex),
+                keyIndex, new SimpleMeterRegistry(), BenchmarkSupport.discardingEventLogger());
+        controller = new ProductController(productService, new GoogleSheetsService(new SimpleMeterRegistry()),
+                null, null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> exportCsv() {
+        return controller.exportProductsAsCsv();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.model.Product;
+import com.example.demo.service.EmailService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// HTML template rendering in EmailService, without SMTP
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    @Param({"1", "20"})
+    public int cartSize;
+
+    private EmailService emailService;
+    private Method lowStockTemplate;
+    private Method orderConfirmationTemplate;
+    private Product product;
+    private Map<String, Object> orderDetails;
+
+    @Setup
+    public void setUp() {
+        emailService = new BenchmarkSupport.NoopEmailService();
+        BenchmarkSupport.setField(emailService, "stockThreshold", 10);
+        BenchmarkSupport.setField(emailService, "appName", "Inventory Management System");
+        BenchmarkSupport.setField(emailService, "appUrl", "http://localhost:3000");
+
+        lowStockTemplate = BenchmarkSupport.privateMethod(EmailService.class, "buildLowStockEmailContent", Product.class);
+        orderConfirmationTemplate = BenchmarkSupport.privateMethod(EmailService.class,
+                "buildOrderConfirmationEmailContent", String.class, Map.class);
+
+        product = new Product("Laptop Computer", "XPS 13", 999.99, 4, "ACTIVE");
+        product.setId(1L);
+
+        Map<String, Object> items = new LinkedHashMap<>();
+        double total = 0;
+        for (int i = 0; i < cartSize; i++) {
+            double unitPrice = 10.0 + i;
+            items.put("Product " + i, Map.of("quantity", 2, "unitPrice", unitPrice, "total", unitPrice * 2));
+            total += unitPrice * 2;
+        }
+        orderDetails = new LinkedHashMap<>();
+        orderDetails.put("items", items);
+        orderDetails.put("totalAmount", total);
+        orderDetails.put("totalItems", cartSize * 2);
+    }
+
+    @Benchmark
+    public Object lowStockAlert() throws Exception {
+        return lowStockTemplate.invoke(emailService, product);
+    }
+
+    @Benchmark
+    public Object orderConfirmation() throws Exception {
+        return orderConfirmationTemplate.invoke(emailService, "user@example.com", orderDetails);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.config.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        BenchmarkSupport.setField(jwtUtil, "secret",
+                "mySecretKeyForJWTTokenGenerationWithMinimum256BitsSizeRequiredForSecurity");
+        BenchmarkSupport.setField(jwtUtil, "jwtExpiration", 86400000L);
+        token = jwtUtil.generateToken("staff@example.com", "STAFF", 42L);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("staff@example.com", "STAFF", 42L);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    // The filter parses the same token three times per request: username, role, then validate
+    @Benchmark
+    public boolean parseAsFilterDoes() {
+        String username = jwtUtil.extractUsername(token);
+        String role = jwtUtil.extractRole(token);
+        return role != null && jwtUtil.validateToken(token, username);
+    }
+}
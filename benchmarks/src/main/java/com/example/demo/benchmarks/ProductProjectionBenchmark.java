@@ -0,0 +1,59 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.controller.ProductController;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.service.GoogleSheetsService;
+import com.example.demo.service.ProductKeyIndex;
+import com.example.demo.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// /api/products/public/all with and without fields=: row shaping plus JSON serialization, and the
+// payload size printed once per trial. Rows come from memory, so the column reads saved on the
+// MySQL side come on top of what this measures.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductProjectionBenchmark {
+
+    @Param({"1000", "100000"})
+    public int catalogSize;
+
+    // "all" = no fields parameter (full entity)
+    @Param({"all", "productName,model,unitStockQuantity"})
+    public String fields;
+
+    private ProductController controller;
+    private ObjectMapper objectMapper;
+    private String fieldsParam;
+
+    @Setup
+    public void setUp() throws Exception {
+        ProductRepository productRepository = BenchmarkSupport.inMemoryProducts(BenchmarkSupport.catalog(catalogSize));
+        ProductKeyIndex keyIndex = BenchmarkSupport.loadedKeyIndex(productRepository);
+        ProductService productService = new ProductService(productRepository,
+                new BenchmarkSupport.NoopEmailService(), new GoogleSheetsService(new SimpleMeterRegistry()), null,
+                BenchmarkSupport.singleLocationStock(), null, null, BenchmarkSupport.unwatchedChangeBus(keyIndex),
+                keyIndex, new SimpleMeterRegistry(), BenchmarkSupport.discardingEventLogger());
+        controller = new ProductController(productService, new GoogleSheetsService(new SimpleMeterRegistry()),
+                null, null, null, null, null, null, null);
+        // Same modules Spring Boot registers on the application's mapper (JavaTimeModule for the dates)
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        fieldsParam = "all".equals(fields) ? null : fields;
+
+        System.out.println("📦 /public/all payload for " + catalogSize + " products, fields=" + fields + ": " +
+                publicAll().length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] publicAll() throws Exception {
+        return objectMapper.writeValueAsBytes(controller.getAllPublicProducts(fieldsParam).getBody());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.model.Product;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.repository.StockMovementRepository;
+import com.example.demo.repository.StockSnapshotRepository;
+import com.example.demo.service.GoogleSheetsService;
+import com.example.demo.service.ProductKeyIndex;
+import com.example.demo.service.ProductService;
+import com.example.demo.service.StockLedgerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// processOrder against an in-memory store: lookup, stock check, save, ledger append, low-stock check
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    @Param({"1000"})
+    public int catalogSize;
+
+    private ProductService productService;
+    private List<Product> catalog;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        catalog = BenchmarkSupport.catalog(catalogSize);
+        ProductRepository productRepository = BenchmarkSupport.inMemoryProducts(catalog);
+        ProductKeyIndex keyIndex = BenchmarkSupport.loadedKeyIndex(productRepository);
+
+        StockLedgerService ledger = new StockLedgerService(
+                BenchmarkSupport.discardingRepository(StockMovementRepository.class),
+                BenchmarkSupport.discardingRepository(StockSnapshotRepository.class));
+        BenchmarkSupport.setField(ledger, "batchSize", 500);
+
+        productService = new ProductService(productRepository, new BenchmarkSupport.NoopEmailService(),
+                new GoogleSheetsService(new SimpleMeterRegistry()), ledger, BenchmarkSupport.singleLocationStock(),
+                null, null, BenchmarkSupport.unwatchedChangeBus(keyIndex), keyIndex, new SimpleMeterRegistry(),
+                BenchmarkSupport.discardingEventLogger());
+        BenchmarkSupport.setField(productService, "stockThreshold", 10);
+    }
+
+    @Benchmark
+    public Product processOrder() {
+        Product product = catalog.get(ThreadLocalRandom.current().nextInt(catalog.size()));
+        if (product.getUnitStockQuantity() < 100) {
+            product.setUnitStockQuantity(50000);
+        }
+        return productService.processOrder(product.getProductName(), product.getModel(), 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Product processOrderContended() {
+        return processOrder();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executors for @Async side effects (Sheets exports, notification mail).
+ * With spring.threads.virtual.enabled=true Tomcat, the @Scheduled scheduler and the default
+ * async executor all run on virtual threads; mail stays on a small platform pool either way.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    public static final String MAIL_EXECUTOR = "mailTaskExecutor";
+
+    // Default for plain @Async; declared here because a second executor bean would otherwise make the choice ambiguous
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(Environment environment,
+                                                     ThreadPoolTaskExecutorBuilder poolBuilder,
+                                                     SimpleAsyncTaskExecutorBuilder virtualBuilder) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return virtualBuilder.virtualThreads(true).threadNamePrefix("async-").build();
+        }
+        return poolBuilder.threadNamePrefix("async-").build();
+    }
+
+    // Jakarta Mail connects and authenticates inside synchronized methods, which would pin a
+    // virtual thread's carrier for the whole SMTP round trip, so mail never leaves platform threads
+    @Bean(name = MAIL_EXECUTOR)
+    public ThreadPoolTaskExecutor mailTaskExecutor(ThreadPoolTaskExecutorBuilder poolBuilder,
+                                                   @Value("${mail.async.pool-size:4}") int poolSize,
+                                                   @Value("${mail.async.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = poolBuilder
+                .corePoolSize(poolSize)
+                .maxPoolSize(poolSize)
+                .queueCapacity(queueCapacity)
+                .threadNamePrefix("mail-")
+                .awaitTermination(true)
+                .build();
+        // A full queue slows the caller down instead of dropping the notification
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.config;
 
+import com.example.demo.diagnostics.InventoryEvents;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -68,11 +69,24 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        InventoryEvents.JwtParse event = new InventoryEvents.JwtParse();
+        event.begin();
+        Claims claims = null;
+        try {
+            claims = Jwts.parserBuilder()
+                    .setSigningKey(getSigningKey())
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+            return claims;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.subject = claims != null ? claims.getSubject() : null;
+                event.valid = claims != null;
+                event.commit();
+            }
+        }
     }
 
     private Boolean isTokenExpired(String token) {
@@ -0,0 +1,43 @@
+package com.example.demo.config;
+
+import com.example.demo.diagnostics.EventLogger;
+import com.example.demo.service.ProductImportService;
+import com.example.demo.service.ProductService;
+import com.example.demo.service.StockLedgerService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Gauges over in-memory state; counters and timers are registered by the services that own them
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder inventoryGauges(ProductService productService,
+                                       StockLedgerService stockLedgerService,
+                                       ProductImportService productImportService,
+                                       EventLogger eventLogger) {
+        return registry -> {
+            Gauge.builder("inventory.low_stock.alerted_products", productService, ProductService::getAlertedProductCount)
+                    .description("Products currently marked as alerted (no repeat low stock email)")
+                    .register(registry);
+            Gauge.builder("inventory.queue.depth", stockLedgerService, StockLedgerService::getPendingCount)
+                    .tag("queue", "stock_ledger")
+                    .description("Stock movements waiting to be written")
+                    .register(registry);
+            Gauge.builder("inventory.queue.depth", productImportService, ProductImportService::getQueuedJobCount)
+                    .tag("queue", "product_import")
+                    .description("Bulk import jobs waiting for the import thread")
+                    .register(registry);
+            Gauge.builder("inventory.queue.depth", eventLogger, EventLogger::getPendingCount)
+                    .tag("queue", "event_log")
+                    .description("Log events waiting for the writer thread")
+                    .register(registry);
+            FunctionCounter.builder("inventory.event_log.dropped", eventLogger, EventLogger::getDroppedCount)
+                    .description("Log events dropped because the ring buffer was full")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.config;
+
+import com.example.demo.diagnostics.QueryProfiler;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.Repository;
+
+// Wires QueryProfiler into Hibernate (statement and entity-load hooks) and around every repository
+@Configuration
+public class QueryProfilingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryProfilerHooks(QueryProfiler queryProfiler) {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryProfiler);
+            properties.put(AvailableSettings.INTERCEPTOR, queryProfiler);
+        };
+    }
+
+    // Static so it is registered before the repositories are created; the profiler is resolved on first call
+    @Bean
+    public static BeanPostProcessor repositoryProfilingPostProcessor(ObjectProvider<QueryProfiler> queryProfiler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Spring Data repositories are proxies already; put the timer outermost on the chain
+                if (bean instanceof Repository<?, ?> && bean instanceof Advised advised && !advised.isFrozen()) {
+                    String repository = repositoryName(advised);
+                    advised.addAdvice(0, (MethodInterceptor) invocation -> queryProfiler.getObject().profile(
+                            repository + "." + invocation.getMethod().getName(),
+                            invocation.getArguments(),
+                            invocation::proceed));
+                }
+                return bean;
+            }
+        };
+    }
+
+    // The application's interface (ProductRepository), not JpaRepository or the proxy class
+    private static String repositoryName(Advised advised) {
+        for (Class<?> type : advised.getProxiedInterfaces()) {
+            if (Repository.class.isAssignableFrom(type) && !type.getName().startsWith("org.springframework.")) {
+                return type.getSimpleName();
+            }
+        }
+        return "Repository";
+    }
+}
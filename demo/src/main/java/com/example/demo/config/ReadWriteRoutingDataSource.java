@@ -0,0 +1,89 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions opened by application code (@Transactional(readOnly = true) on a
+ * service method) to the replica and everything else to the primary. Must sit behind a
+ * LazyConnectionDataSourceProxy so the connection is only chosen once the transaction's read-only
+ * flag is known.
+ *
+ * Spring Data's own CRUD methods open read-only transactions too (findById, findAll), but those
+ * run as often inside write paths, such as checkout reading the row it is about to update, so only
+ * transactions named after application classes are eligible. A user who committed a write
+ * within the read-your-writes window keeps reading from the primary.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private static final String FRAMEWORK_PREFIX = "org.springframework.";
+
+    private final WriteWatermark watermark;
+    private final Counter replicaReads;
+    private final Counter pinnedReads;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica,
+                                      WriteWatermark watermark, MeterRegistry meterRegistry) {
+        this.watermark = watermark;
+        this.replicaReads = Counter.builder("inventory.db.routed_reads")
+                .tag("target", "replica")
+                .description("Read-only transactions by the database they were sent to")
+                .register(meterRegistry);
+        this.pinnedReads = Counter.builder("inventory.db.routed_reads")
+                .tag("target", "primary_after_write")
+                .register(meterRegistry);
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Target.PRIMARY;
+        }
+        String session = currentSession();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            markOnCommit(session);
+            return Target.PRIMARY;
+        }
+        String transactionName = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (transactionName == null || transactionName.startsWith(FRAMEWORK_PREFIX)) {
+            return Target.PRIMARY;
+        }
+        if (watermark.isPinned(session)) {
+            pinnedReads.increment();
+            return Target.PRIMARY;
+        }
+        replicaReads.increment();
+        return Target.REPLICA;
+    }
+
+    // The window starts when the write becomes visible on the primary, not when it began
+    private void markOnCommit(String session) {
+        if (session == null || !TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                watermark.markWrite(session);
+            }
+        });
+    }
+
+    private static String currentSession() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) return null;
+        return authentication.getName();
+    }
+}
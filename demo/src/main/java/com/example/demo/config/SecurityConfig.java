@@ -1,5 +1,7 @@
 package com.example.demo.config;
 
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,6 +13,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -25,6 +28,10 @@ public class SecurityConfig {
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final JwtRequestFilter jwtRequestFilter;
 
+    // Actuator's own port (management.server.port); -1 when it shares the application port
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     public SecurityConfig(JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint,
                           JwtRequestFilter jwtRequestFilter) {
         this.jwtAuthenticationEntryPoint = jwtAuthenticationEntryPoint;
@@ -47,11 +54,22 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(authz -> authz
+                        // Completion dispatch of streaming responses (/api/products/stream); the request
+                        // itself was authorized on the way in and the JWT filter does not re-run here
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Public endpoints - no authentication required
                         .requestMatchers("/api/auth/login").permitAll()
                         .requestMatchers("/api/auth/register/**").permitAll()
                         .requestMatchers("/api/auth/check-email").permitAll()
 
+                        // Health checks are public. The Prometheus scrape is open only on the management
+                        // port, which binds to a private address; everything else under /actuator,
+                        // metrics on the application port included, is admin only
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers(prometheusScrapeOnManagementPort()).permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+
                         // Product endpoints - different access levels
                         .requestMatchers("/api/products/public/**").permitAll()
                         .requestMatchers("/api/products/user/**").hasAnyRole("USER", "STAFF", "ADMIN")
@@ -59,6 +77,9 @@ public class SecurityConfig {
                         .requestMatchers("/api/products/admin/**").hasRole("ADMIN")
                         .requestMatchers("/api/products/**").hasAnyRole("USER", "STAFF", "ADMIN")
 
+                        // Warehouse stock - staff and admins (creating warehouses is admin only, see @PreAuthorize)
+                        .requestMatchers("/api/warehouses/**").hasAnyRole("STAFF", "ADMIN")
+
                         // Admin endpoints - only for admins
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
 
@@ -83,6 +104,11 @@ public class SecurityConfig {
         return http.build();
     }
 
+    private RequestMatcher prometheusScrapeOnManagementPort() {
+        return request -> managementPort > 0 && request.getLocalPort() == managementPort
+                && "/actuator/prometheus".equals(request.getRequestURI());
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -22,7 +22,8 @@ public class StaffSecurity {
         }
 
         String currentUsername = authentication.getName();
-        Staff currentStaff = staffService.findByEmail(currentUsername);
+        // Uncached: an email moved to another account elsewhere must stop matching this profile
+        Staff currentStaff = staffService.findByEmailUncached(currentUsername).orElse(null);
 
         return currentStaff != null && currentStaff.getId().equals(staffId);
     }
@@ -0,0 +1,57 @@
+package com.example.demo.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * When each session (the authenticated user) last wrote to the primary. For a short window after
+ * that, the user's read-only transactions stay on the primary too, so an edit never seems to vanish
+ * because the replica has not replayed it yet. Held in memory per instance; entries expire with
+ * the window.
+ */
+public class WriteWatermark {
+
+    // Above this many live sessions, expired entries are swept on the next write
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public WriteWatermark(long windowMs) {
+        this(windowMs, System::nanoTime);
+    }
+
+    public WriteWatermark(long windowMs, LongSupplier nanoClock) {
+        if (windowMs < 0) {
+            throw new IllegalArgumentException("Read-your-writes window must not be negative");
+        }
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.nanoClock = nanoClock;
+    }
+
+    public void markWrite(String session) {
+        if (session == null || windowNanos == 0) return;
+        long now = nanoClock.getAsLong();
+        lastWrites.put(session, now);
+        if (lastWrites.size() > SWEEP_THRESHOLD) {
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt >= windowNanos);
+        }
+    }
+
+    // True while the session's last write is younger than the window
+    public boolean isPinned(String session) {
+        if (session == null) return false;
+        Long writtenAt = lastWrites.get(session);
+        if (writtenAt == null) return false;
+        if (nanoClock.getAsLong() - writtenAt < windowNanos) return true;
+        lastWrites.remove(session, writtenAt);
+        return false;
+    }
+
+    public int size() {
+        return lastWrites.size();
+    }
+}
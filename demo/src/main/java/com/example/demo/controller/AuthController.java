@@ -1,6 +1,7 @@
 package com.example.demo.controller;
 
 import com.example.demo.config.JwtUtil;
+import com.example.demo.diagnostics.EventLogger;
 import com.example.demo.model.*;
 import com.example.demo.service.AdminService;
 import com.example.demo.service.StaffService;
@@ -24,13 +25,15 @@ public class AuthController {
     private final StaffService staffService;
     private final AdminService adminService;
     private final JwtUtil jwtUtil;
+    private final EventLogger eventLogger;
 
     public AuthController(UserService userService, StaffService staffService,
-                          AdminService adminService, JwtUtil jwtUtil) {
+                          AdminService adminService, JwtUtil jwtUtil, EventLogger eventLogger) {
         this.userService = userService;
         this.staffService = staffService;
         this.adminService = adminService;
         this.jwtUtil = jwtUtil;
+        this.eventLogger = eventLogger;
     }
 
     // LOGIN endpoint - Auto-detect user type
@@ -38,8 +41,7 @@ public class AuthController {
     public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest,
                                    BindingResult bindingResult) {
         try {
-            System.out.println("=== LOGIN REQUEST ===");
-            System.out.println("Email: " + loginRequest.getEmail());
+            eventLogger.info("login_attempt", "email", EventLogger.maskEmail(loginRequest.getEmail()));
 
             // Check for validation errors
             if (bindingResult.hasErrors()) {
@@ -72,14 +74,14 @@ public class AuthController {
                     .body(new LoginResponse(false, "Invalid email or password", null, null, null, null));
 
         } catch (Exception e) {
-            System.out.println("Login error: " + e.getMessage());
+            eventLogger.error("login_failed", "email", EventLogger.maskEmail(loginRequest.getEmail()), "error", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new LoginResponse(false, "Login failed: " + e.getMessage(), null, null, null, null));
         }
     }
 
     private ResponseEntity<?> tryAdminLogin(String email, String password) {
-        Optional<Admin> adminOptional = adminService.findByEmail(email);
+        Optional<Admin> adminOptional = adminService.findByEmailUncached(email);
         if (adminOptional.isPresent()) {
             Admin admin = adminOptional.get();
             if (!"ACTIVE".equalsIgnoreCase(admin.getStatus())) {
@@ -96,7 +98,7 @@ public class AuthController {
     }
 
     private ResponseEntity<?> tryStaffLogin(String email, String password) {
-        Optional<Staff> staffOptional = staffService.getStaffByEmail(email);
+        Optional<Staff> staffOptional = staffService.findByEmailUncached(email);
         if (staffOptional.isPresent()) {
             Staff staff = staffOptional.get();
             if (!"ACTIVE".equalsIgnoreCase(staff.getStatus())) {
@@ -113,7 +115,7 @@ public class AuthController {
     }
 
     private ResponseEntity<?> tryUserLogin(String email, String password) {
-        Optional<User> userOptional = userService.findByEmail(email);
+        Optional<User> userOptional = userService.findByEmailUncached(email);
         if (userOptional.isPresent()) {
             User user = userOptional.get();
             if (!"ACTIVE".equalsIgnoreCase(user.getStatus())) {
@@ -134,8 +136,8 @@ public class AuthController {
     public ResponseEntity<?> registerUser(@Valid @RequestBody UserRequest userRequest,
                                           BindingResult bindingResult) {
         try {
-            System.out.println("=== USER REGISTRATION REQUEST ===");
-            System.out.println("User Data: " + userRequest.toString());
+            eventLogger.info("registration_attempt", "accountType", "USER",
+                    "email", EventLogger.maskEmail(userRequest.getEmail()));
 
             if (bindingResult.hasErrors()) {
                 return createValidationErrorResponse(bindingResult);
@@ -174,8 +176,8 @@ public class AuthController {
     public ResponseEntity<?> registerStaff(@Valid @RequestBody StaffRequest staffRequest,
                                            BindingResult bindingResult) {
         try {
-            System.out.println("=== STAFF REGISTRATION REQUEST ===");
-            System.out.println("Staff Data: " + staffRequest.toString());
+            eventLogger.info("registration_attempt", "accountType", "STAFF",
+                    "email", EventLogger.maskEmail(staffRequest.getEmail()));
 
             if (bindingResult.hasErrors()) {
                 return createValidationErrorResponse(bindingResult);
@@ -0,0 +1,122 @@
+package com.example.demo.controller;
+
+import com.example.demo.diagnostics.QueryProfiler;
+import com.example.demo.service.FlightRecordingService;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+// Admin control of the continuous Flight Recorder recording (open the download in JDK Mission Control)
+// and the per-repository-method query profile
+@RestController
+@RequestMapping("/api/admin/diagnostics")
+public class DiagnosticsController {
+
+    private final FlightRecordingService flightRecordingService;
+    private final QueryProfiler queryProfiler;
+
+    public DiagnosticsController(FlightRecordingService flightRecordingService, QueryProfiler queryProfiler) {
+        this.flightRecordingService = flightRecordingService;
+        this.queryProfiler = queryProfiler;
+    }
+
+    @PostMapping("/recording/start")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> startRecording(@RequestParam(defaultValue = "60") long maxAgeMinutes,
+                                            @RequestParam(defaultValue = "250") long maxSizeMb) {
+        try {
+            return ResponseEntity.ok(flightRecordingService.start(Duration.ofMinutes(maxAgeMinutes), maxSizeMb));
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, "Invalid recording limits", e.getMessage());
+        } catch (IllegalStateException e) {
+            return error(HttpStatus.CONFLICT, "Recording not started", e.getMessage());
+        } catch (Exception e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Recording not started", e.getMessage());
+        }
+    }
+
+    @PostMapping("/recording/stop")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> stopRecording() {
+        try {
+            return ResponseEntity.ok(flightRecordingService.stop());
+        } catch (IllegalStateException e) {
+            return error(HttpStatus.CONFLICT, "Recording not stopped", e.getMessage());
+        }
+    }
+
+    @GetMapping("/recording")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getRecordingStatus() {
+        return ResponseEntity.ok(flightRecordingService.status());
+    }
+
+    @GetMapping("/recording/download")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> downloadRecording() {
+        try {
+            Path file = flightRecordingService.dump();
+            long size = Files.size(file);
+            // The temp file is removed as soon as the response stream is closed
+            InputStream stream = Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+            String fileName = "inventory-" +
+                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".jfr";
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .contentLength(size)
+                    .body(new InputStreamResource(stream));
+        } catch (IllegalStateException e) {
+            return error(HttpStatus.NOT_FOUND, "No recording", e.getMessage());
+        } catch (IOException e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Could not dump recording", e.getMessage());
+        }
+    }
+
+    // Top repository methods by total time, p99 latency ("slowest") or call count ("frequent")
+    @GetMapping("/queries")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getQueryProfile(@RequestParam(defaultValue = "total") String sort,
+                                             @RequestParam(defaultValue = "20") int limit) {
+        try {
+            Map<String, Object> body = new HashMap<>();
+            body.put("sort", sort);
+            body.put("slowQueryThresholdMs", queryProfiler.getSlowThresholdMs());
+            body.put("queries", queryProfiler.top(sort, Math.min(limit, 500)));
+            return ResponseEntity.ok(body);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, "Invalid sort", e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/queries")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> resetQueryProfile() {
+        queryProfiler.reset();
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", "Query profile reset");
+        return ResponseEntity.ok(body);
+    }
+
+    private ResponseEntity<Map<String, Object>> error(HttpStatus status, String error, String message) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", error);
+        body.put("message", message);
+        return ResponseEntity.status(status).body(body);
+    }
+}
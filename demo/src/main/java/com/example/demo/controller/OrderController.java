@@ -1,9 +1,22 @@
 package com.example.demo.controller;
 
+import com.example.demo.diagnostics.EventLogger;
+import com.example.demo.model.Backorder;
+import com.example.demo.model.CustomerOrder;
+import com.example.demo.model.OrderLine;
 import com.example.demo.model.Product;
+import com.example.demo.service.BackorderService;
 import com.example.demo.service.EmailService;
+import com.example.demo.service.InsufficientStockException;
+import com.example.demo.service.OrderService;
 import com.example.demo.service.ProductService;
+import com.example.demo.service.StockAllocator;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -23,18 +36,50 @@ public class OrderController {
 
     private final ProductService productService;
     private final EmailService emailService;
+    private final OrderService orderService;
+    private final BackorderService backorderService;
+    private final MeterRegistry meterRegistry;
+    private final EventLogger eventLogger;
+    private final DistributionSummary cartSize;
 
-    public OrderController(ProductService productService, EmailService emailService) {
+    public OrderController(ProductService productService, EmailService emailService,
+                           OrderService orderService, BackorderService backorderService,
+                           MeterRegistry meterRegistry, EventLogger eventLogger) {
         this.productService = productService;
         this.emailService = emailService;
+        this.orderService = orderService;
+        this.backorderService = backorderService;
+        this.meterRegistry = meterRegistry;
+        this.eventLogger = eventLogger;
+        this.cartSize = DistributionSummary.builder("inventory.checkout.cart_size")
+                .description("Line items per checkout request")
+                .baseUnit("items")
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .register(meterRegistry);
     }
 
     @PostMapping("/checkout")
     @PreAuthorize("hasAnyRole('USER', 'STAFF', 'ADMIN')")
     public ResponseEntity<?> processCheckout(@Valid @RequestBody CheckoutRequest checkoutRequest,
                                              BindingResult bindingResult) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        if (checkoutRequest.getItems() != null) {
+            cartSize.record(checkoutRequest.getItems().size());
+        }
+
+        ResponseEntity<?> response = checkout(checkoutRequest, bindingResult);
+
+        sample.stop(Timer.builder("inventory.checkout.latency")
+                .description("Checkout processing time, including stock updates, journal and confirmation email")
+                .tag("outcome", response.getStatusCode().is2xxSuccessful() ? "success" : "failure")
+                .register(meterRegistry));
+        return response;
+    }
+
+    private ResponseEntity<?> checkout(CheckoutRequest checkoutRequest, BindingResult bindingResult) {
         try {
-            System.out.println("Received checkout request: " + checkoutRequest);
+            eventLogger.info("checkout_received",
+                    "items", checkoutRequest.getItems() == null ? 0 : checkoutRequest.getItems().size());
 
             if (bindingResult.hasErrors()) {
                 Map<String, Object> errorResponse = new HashMap<>();
@@ -66,15 +111,22 @@ public class OrderController {
             int totalItems = 0;
             boolean allItemsProcessed = true;
             List<String> processingErrors = new java.util.ArrayList<>();
+            List<OrderLine> orderLines = new java.util.ArrayList<>();
+            List<Map<String, Object>> backorderedItems = new java.util.ArrayList<>();
+            boolean backorderAllowed = Boolean.TRUE.equals(checkoutRequest.getAllowBackorder()) &&
+                    backorderService.isEnabled();
+            StockAllocator.Point deliveryPoint = checkoutRequest.getDeliveryLatitude() != null &&
+                    checkoutRequest.getDeliveryLongitude() != null
+                    ? new StockAllocator.Point(checkoutRequest.getDeliveryLatitude(), checkoutRequest.getDeliveryLongitude())
+                    : null;
 
             for (OrderItem item : checkoutRequest.getItems()) {
                 try {
-                    System.out.println("Processing item: " + item.getProductName() + ", Quantity: " + item.getQuantity());
-
                     Product updatedProduct = productService.processOrder(
                             item.getProductName(),
                             item.getModel(),
-                            item.getQuantity()
+                            item.getQuantity(),
+                            deliveryPoint
                     );
 
                     if (updatedProduct != null) {
@@ -89,16 +141,33 @@ public class OrderController {
                                 "total", itemTotal,
                                 "remainingStock", updatedProduct.getUnitStockQuantity()
                         ));
-                        System.out.println("Successfully processed: " + item.getProductName());
+                        orderLines.add(new OrderLine(updatedProduct.getId(), updatedProduct.getProductName(),
+                                updatedProduct.getModel(), item.getQuantity(), updatedProduct.getPricePerQuantity()));
                     } else {
                         allItemsProcessed = false;
                         processingErrors.add("Failed to process: " + item.getProductName());
-                        System.out.println("Failed to process: " + item.getProductName());
+                        eventLogger.warn("checkout_item_failed", "product", item.getProductName(),
+                                "model", item.getModel(), "quantity", item.getQuantity());
+                    }
+                } catch (InsufficientStockException e) {
+                    if (backorderAllowed) {
+                        // The whole line waits in the product's queue and is filled on the next replenishment
+                        Backorder backorder = backorderService.place(e.getProductId(), userEmail, item.getQuantity());
+                        backorderedItems.add(Map.of(
+                                "backorderId", backorder.getId(),
+                                "productName", item.getProductName(),
+                                "quantity", item.getQuantity(),
+                                "available", e.getAvailable()
+                        ));
+                    } else {
+                        allItemsProcessed = false;
+                        processingErrors.add("Error processing " + item.getProductName() + ": " + e.getMessage());
                     }
                 } catch (Exception e) {
                     allItemsProcessed = false;
                     processingErrors.add("Error processing " + item.getProductName() + ": " + e.getMessage());
-                    System.out.println("Error processing item: " + e.getMessage());
+                    eventLogger.warn("checkout_item_failed", "product", item.getProductName(),
+                            "model", item.getModel(), "quantity", item.getQuantity(), "error", e.getMessage());
                 }
             }
 
@@ -111,29 +180,45 @@ public class OrderController {
                 return ResponseEntity.badRequest().body(errorResponse);
             }
 
-            // Send confirmation email
-            try {
-                emailService.sendOrderConfirmation(userEmail, userName, orderSummary);
-                System.out.println("Order confirmation email sent to: " + userEmail);
-            } catch (Exception e) {
-                System.out.println("Failed to send email: " + e.getMessage());
-                // Continue even if email fails
+            // Journal the order; stock is already decremented, so a journal failure must not fail the checkout.
+            // Backordered lines are journaled as their own order when they are filled.
+            Long orderId = null;
+            if (!orderLines.isEmpty()) {
+                try {
+                    CustomerOrder order = orderService.recordOrder(userEmail, orderLines);
+                    orderId = order.getId();
+                } catch (Exception e) {
+                    eventLogger.error("order_journal_failed", "user", EventLogger.maskEmail(userEmail), "error", e);
+                }
+
+                // Send confirmation email
+                try {
+                    emailService.sendOrderConfirmation(userEmail, userName, orderSummary);
+                } catch (Exception e) {
+                    eventLogger.warn("order_confirmation_failed", "user", EventLogger.maskEmail(userEmail), "error", e);
+                    // Continue even if email fails
+                }
             }
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("message", "Order processed successfully");
+            response.put("message", backorderedItems.isEmpty() ? "Order processed successfully"
+                    : "Order processed; " + backorderedItems.size() + " item(s) backordered");
+            response.put("orderId", orderId);
             response.put("orderSummary", orderSummary);
+            response.put("backorderedItems", backorderedItems);
             response.put("totalAmount", totalAmount);
             response.put("totalItems", totalItems);
             response.put("timestamp", LocalDateTime.now());
-            response.put("emailSent", true);
+            response.put("emailSent", !orderLines.isEmpty());
 
-            System.out.println("Order completed successfully for user: " + userEmail);
+            eventLogger.info("checkout_completed", "user", EventLogger.maskEmail(userEmail), "orderId", orderId,
+                    "lines", orderLines.size(), "units", totalItems, "totalAmount", totalAmount,
+                    "backordered", backorderedItems.size());
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
-            System.out.println("Order processing error: " + e.getMessage());
+            eventLogger.error("checkout_failed", "error", e);
             e.printStackTrace();
 
             Map<String, Object> errorResponse = new HashMap<>();
@@ -144,12 +229,91 @@ public class OrderController {
         }
     }
 
+    // Order history for the logged-in user, newest first
+    @GetMapping("/my-history")
+    @PreAuthorize("hasAnyRole('USER', 'STAFF', 'ADMIN')")
+    public ResponseEntity<?> getMyOrderHistory(@RequestParam(defaultValue = "0") int page,
+                                               @RequestParam(defaultValue = "20") int size) {
+        try {
+            String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+            Page<CustomerOrder> orders = orderService.getOrderHistory(userEmail, page, size);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("orders", orders.getContent());
+            response.put("page", orders.getNumber());
+            response.put("size", orders.getSize());
+            response.put("totalOrders", orders.getTotalElements());
+            response.put("totalPages", orders.getTotalPages());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", "Failed to load order history");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.internalServerError().body(errorResponse);
+        }
+    }
+
+    // The logged-in user's backorders that are still waiting for stock, oldest first
+    @GetMapping("/backorders")
+    @PreAuthorize("hasAnyRole('USER', 'STAFF', 'ADMIN')")
+    public ResponseEntity<?> getMyBackorders() {
+        try {
+            String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+            List<Backorder> backorders = backorderService.getPendingBackorders(userEmail);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("backorders", backorders);
+            response.put("count", backorders.size());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", "Failed to load backorders");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.internalServerError().body(errorResponse);
+        }
+    }
+
+    @DeleteMapping("/backorders/{id}")
+    @PreAuthorize("hasAnyRole('USER', 'STAFF', 'ADMIN')")
+    public ResponseEntity<?> cancelBackorder(@PathVariable Long id) {
+        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (!backorderService.cancel(id, userEmail)) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", "Backorder not cancellable");
+            errorResponse.put("message", "No pending backorder " + id + " for this account");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Backorder " + id + " cancelled");
+        return ResponseEntity.ok(response);
+    }
+
     // Inner classes for request objects
     public static class CheckoutRequest {
         private List<OrderItem> items;
+        // Optional; lets per-warehouse stock ship from the nearest warehouse
+        private Double deliveryLatitude;
+        private Double deliveryLongitude;
+        // Optional; out-of-stock lines are queued as backorders instead of failing (needs backorder.enabled)
+        private Boolean allowBackorder;
 
         public List<OrderItem> getItems() { return items; }
         public void setItems(List<OrderItem> items) { this.items = items; }
+
+        public Double getDeliveryLatitude() { return deliveryLatitude; }
+        public void setDeliveryLatitude(Double deliveryLatitude) { this.deliveryLatitude = deliveryLatitude; }
+
+        public Double getDeliveryLongitude() { return deliveryLongitude; }
+        public void setDeliveryLongitude(Double deliveryLongitude) { this.deliveryLongitude = deliveryLongitude; }
+
+        public Boolean getAllowBackorder() { return allowBackorder; }
+        public void setAllowBackorder(Boolean allowBackorder) { this.allowBackorder = allowBackorder; }
     }
 
     public static class OrderItem {
@@ -1,16 +1,32 @@
 package com.example.demo.controller;
 
 import com.example.demo.model.Product;
+import com.example.demo.model.ProductImportJob;
 import com.example.demo.model.ProductRequest;
+import com.example.demo.model.StockAdjustment;
+import com.example.demo.model.StockMovement;
+import com.example.demo.service.BackInStockService;
+import com.example.demo.service.BulkAdjustmentService;
+import com.example.demo.service.ProductCache;
+import com.example.demo.service.ProductChangeBus;
+import com.example.demo.service.ProductChangeLog;
 import com.example.demo.service.GoogleSheetsService;
+import com.example.demo.service.ProductConflictException;
+import com.example.demo.service.ProductImportService;
 import com.example.demo.service.ProductService;
+import com.example.demo.service.StockLedgerService;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -23,18 +39,37 @@ public class ProductController {
 
     private final ProductService productService;
     private final GoogleSheetsService googleSheetsService;
-
-    public ProductController(ProductService productService, GoogleSheetsService googleSheetsService) {
+    private final StockLedgerService stockLedgerService;
+    private final ProductImportService productImportService;
+    private final BulkAdjustmentService bulkAdjustmentService;
+    private final BackInStockService backInStockService;
+    private final ProductChangeBus changeBus;
+    private final ProductChangeLog changeLog;
+    private final ProductCache productCache;
+
+    public ProductController(ProductService productService, GoogleSheetsService googleSheetsService,
+                             StockLedgerService stockLedgerService, ProductImportService productImportService,
+                             BulkAdjustmentService bulkAdjustmentService, BackInStockService backInStockService,
+                             ProductChangeBus changeBus, ProductChangeLog changeLog,
+                             ProductCache productCache) {
         this.productService = productService;
         this.googleSheetsService = googleSheetsService;
+        this.stockLedgerService = stockLedgerService;
+        this.productImportService = productImportService;
+        this.bulkAdjustmentService = bulkAdjustmentService;
+        this.backInStockService = backInStockService;
+        this.changeBus = changeBus;
+        this.changeLog = changeLog;
+        this.productCache = productCache;
         System.out.println("ProductController initialized with GoogleSheetsService: " + (googleSheetsService != null));
     }
 
     // PUBLIC ENDPOINTS - No authentication required
+    // Optional fields=productName,model,unitStockQuantity returns only those columns (plus id)
     @GetMapping("/public/all")
     @PreAuthorize("permitAll()")
-    public List<Product> getAllPublicProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<?> getAllPublicProducts(@RequestParam(required = false) String fields) {
+        return listProducts(fields);
     }
 
     @GetMapping("/public/{id}")
@@ -50,8 +85,19 @@ public class ProductController {
     // USER ENDPOINTS - Requires USER, STAFF, or ADMIN role
     @GetMapping
     @PreAuthorize("hasAnyRole('USER', 'STAFF', 'ADMIN')")
-    public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<?> getAllProducts(@RequestParam(required = false) String fields) {
+        return listProducts(fields);
+    }
+
+    private ResponseEntity<?> listProducts(String fields) {
+        try {
+            return ResponseEntity.ok(productService.getAllProducts(fields));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Invalid fields parameter");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
     }
 
     @GetMapping("/{id}")
@@ -64,12 +110,107 @@ public class ProductController {
         return ResponseEntity.notFound().build();
     }
 
+    // Many products in one call (cart, checkout): served from the product cache, misses loaded with
+    // chunked IN queries, results in request order. Ids that do not exist are listed under notFound.
+    @PostMapping("/batch-get")
+    @PreAuthorize("hasAnyRole('USER', 'STAFF', 'ADMIN')")
+    public ResponseEntity<?> batchGetProducts(@RequestBody BatchGetRequest request) {
+        try {
+            List<Long> ids = request.getIds() != null ? request.getIds() : List.of();
+            List<Product> products = productCache.getProducts(ids);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("products", products);
+            response.put("notFound", ProductCache.missingIds(ids, products));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Invalid batch request");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to load products");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+
     @GetMapping("/user/my-products")
     @PreAuthorize("hasAnyRole('USER', 'STAFF', 'ADMIN')")
     public ResponseEntity<String> getUserProducts() {
         return ResponseEntity.ok("User products accessed successfully");
     }
 
+    // Live stock/price deltas for open dashboards: a "reset" event (reload the list once), then
+    // "changes" events carrying arrays of ProductChange. Slow clients are disconnected, not waited for.
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('USER', 'STAFF', 'ADMIN')")
+    public ResponseEntity<?> streamChanges() {
+        try {
+            return ResponseEntity.ok()
+                    .header("X-Accel-Buffering", "no")
+                    .body(changeBus.subscribe());
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Stream unavailable");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(errorResponse);
+        }
+    }
+
+    // Polling delta sync: product states and tombstones after sequence number `since`, oldest first.
+    // Start with since=0 to get the current sequence (resetRequired=true), load the full list, then
+    // keep passing nextSince back; resetRequired again means the cursor fell out of retention.
+    @GetMapping("/changes")
+    @PreAuthorize("hasAnyRole('USER', 'STAFF', 'ADMIN')")
+    public ResponseEntity<?> getChanges(@RequestParam(defaultValue = "0") long since,
+                                        @RequestParam(defaultValue = "500") int limit) {
+        try {
+            Map<String, Object> response = changeLog.getChangesSince(since, limit);
+            response.put("since", since);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to load product changes");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+
+    // Email me once when this out-of-stock product is back
+    @PostMapping("/user/{id}/back-in-stock")
+    @PreAuthorize("hasAnyRole('USER', 'STAFF', 'ADMIN')")
+    public ResponseEntity<?> subscribeBackInStock(@PathVariable Long id) {
+        try {
+            String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+            boolean created = backInStockService.subscribe(id, userEmail) != null;
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", created ? "You will be emailed when this product is back in stock"
+                    : "You are already subscribed to this product");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", "Subscription failed");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
+    @DeleteMapping("/user/{id}/back-in-stock")
+    @PreAuthorize("hasAnyRole('USER', 'STAFF', 'ADMIN')")
+    public ResponseEntity<?> unsubscribeBackInStock(@PathVariable Long id) {
+        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", backInStockService.unsubscribe(id, userEmail));
+        return ResponseEntity.ok(response);
+    }
+
     // ORDER PROCESSING ENDPOINT - Requires USER, STAFF, or ADMIN role
     @PutMapping("/order")
     @PreAuthorize("hasAnyRole('USER', 'STAFF', 'ADMIN')")
@@ -163,12 +304,28 @@ public class ProductController {
                 return ResponseEntity.badRequest().body(errorResponse);
             }
 
+            // Without the version the editor loaded, a stale form would overwrite stock taken since
+            if (productRequest.getVersion() == null) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Validation failed");
+                errorResponse.put("message", "version is required: send the version of the product being edited");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+
             Product product = convertToEntity(productRequest);
+            product.setVersion(productRequest.getVersion());
             Product updatedProduct = productService.updateProduct(id, product);
             if (updatedProduct != null) {
                 return ResponseEntity.ok(updatedProduct);
             }
             return ResponseEntity.notFound().build();
+        } catch (ProductConflictException e) {
+            // Someone else changed the product first; send back what it looks like now so the editor can redo the change
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Product was modified concurrently");
+            errorResponse.put("message", e.getMessage());
+            errorResponse.put("current", e.getCurrent());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
         } catch (Exception e) {
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", "Failed to update product");
@@ -177,6 +334,47 @@ public class ProductController {
         }
     }
 
+    // Bulk stock / price adjustment (cycle counts, price lists) - all entries succeed or none do
+    @PutMapping("/staff/bulk-adjust")
+    @PreAuthorize("hasAnyRole('STAFF', 'ADMIN')")
+    public ResponseEntity<?> bulkAdjust(@Valid @RequestBody List<StockAdjustment> adjustments,
+                                        BindingResult bindingResult) {
+        try {
+            if (bindingResult.hasErrors()) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Validation failed");
+                errorResponse.put("message", "Please check the input data");
+                errorResponse.put("details", bindingResult.getFieldErrors()
+                        .stream()
+                        .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                        .collect(Collectors.toList()));
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+
+            if (adjustments == null || adjustments.isEmpty() || adjustments.size() > BulkAdjustmentService.MAX_ADJUSTMENTS) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Invalid batch size");
+                errorResponse.put("message", "Send between 1 and " + BulkAdjustmentService.MAX_ADJUSTMENTS + " adjustments");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+
+            Map<String, Object> result = bulkAdjustmentService.applyAdjustments(adjustments);
+            result.put("timestamp", LocalDateTime.now());
+            if (Boolean.TRUE.equals(result.get("success"))) {
+                return ResponseEntity.ok(result);
+            }
+            result.put("error", "Bulk adjustment rejected");
+            return ResponseEntity.badRequest().body(result);
+
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", "Bulk adjustment failed");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+
     @GetMapping("/staff/inventory")
     @PreAuthorize("hasAnyRole('STAFF', 'ADMIN')")
     public ResponseEntity<String> getInventory() {
@@ -201,10 +399,54 @@ public class ProductController {
         return ResponseEntity.notFound().build();
     }
 
+    // Streaming CSV / JSON-lines catalog import; runs in the background, poll the job for progress
     @PostMapping("/admin/bulk-upload")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<String> bulkUpload() {
-        return ResponseEntity.ok("Bulk upload completed by admin");
+    public ResponseEntity<?> bulkUpload(@RequestParam("file") MultipartFile file,
+                                        @RequestParam(required = false) String format,
+                                        @RequestParam(defaultValue = "false") boolean upsert) {
+        try {
+            if (file.isEmpty()) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Empty file");
+                errorResponse.put("message", "Upload a CSV or JSON-lines file with at least one product");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+
+            String importFormat = format != null ? format.toLowerCase()
+                    : ProductImportService.detectFormat(file.getOriginalFilename(), file.getContentType());
+            if (!ProductImportService.FORMAT_CSV.equals(importFormat)
+                    && !ProductImportService.FORMAT_JSON_LINES.equals(importFormat)) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Unsupported format");
+                errorResponse.put("message", "Format must be 'csv' or 'jsonl'");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+
+            // Spool to disk so the import outlives the request
+            Path spool = Files.createTempFile("product-import-", "." + importFormat);
+            file.transferTo(spool);
+
+            ProductImportJob job = productImportService.startImport(spool, file.getOriginalFilename(),
+                    importFormat, upsert);
+            return ResponseEntity.accepted().body(job);
+
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Bulk upload failed");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/admin/bulk-upload/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportJob> getBulkUploadStatus(@PathVariable String jobId) {
+        ProductImportJob job = productImportService.getJob(jobId);
+        if (job != null) {
+            return ResponseEntity.ok(job);
+        }
+        return ResponseEntity.notFound().build();
     }
 
     // Manual stock check - Staff only
@@ -278,7 +520,8 @@ public class ProductController {
     @PutMapping("/staff/replenish-stock/{productId}")
     @PreAuthorize("hasAnyRole('STAFF', 'ADMIN')")
     public ResponseEntity<?> replenishStock(@PathVariable Long productId,
-                                            @RequestParam int quantity) {
+                                            @RequestParam int quantity,
+                                            @RequestParam(required = false) String warehouse) {
         try {
             if (quantity <= 0) {
                 Map<String, Object> errorResponse = new HashMap<>();
@@ -287,7 +530,7 @@ public class ProductController {
                 return ResponseEntity.badRequest().body(errorResponse);
             }
 
-            Product updatedProduct = productService.replenishStock(productId, quantity);
+            Product updatedProduct = productService.replenishStock(productId, quantity, warehouse);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -308,6 +551,55 @@ public class ProductController {
         }
     }
 
+    // Stock movements since a point in time (reconciliation feed)
+    @GetMapping("/staff/stock-movements")
+    @PreAuthorize("hasAnyRole('STAFF', 'ADMIN')")
+    public ResponseEntity<?> getStockMovements(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(defaultValue = "1000") int limit) {
+        try {
+            List<StockMovement> movements = productId != null
+                    ? stockLedgerService.getProductMovementsSince(productId, since, limit)
+                    : stockLedgerService.getMovementsSince(since, limit);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("since", since);
+            response.put("count", movements.size());
+            response.put("movements", movements);
+            response.put("pendingWrites", stockLedgerService.getPendingCount());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to load stock movements");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+
+    // Rebuild a product's stock level at a past instant from the ledger
+    @GetMapping("/staff/stock-at/{productId}")
+    @PreAuthorize("hasAnyRole('STAFF', 'ADMIN')")
+    public ResponseEntity<?> getStockAt(@PathVariable Long productId,
+                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        try {
+            Integer stock = stockLedgerService.stockAt(productId, at);
+            if (stock == null) {
+                return ResponseEntity.notFound().build();
+            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("productId", productId);
+            response.put("at", at);
+            response.put("stock", stock);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to rebuild stock level");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+
     // Clear alert history (for testing)
     @PostMapping("/admin/clear-alerts")
     @PreAuthorize("hasRole('ADMIN')")
@@ -415,6 +707,16 @@ public class ProductController {
         }
     }
 
+    // BATCH GET REQUEST INNER CLASS
+    public static class BatchGetRequest {
+        private List<Long> ids;
+
+        public BatchGetRequest() {}
+
+        public List<Long> getIds() { return ids; }
+        public void setIds(List<Long> ids) { this.ids = ids; }
+    }
+
     // ORDER REQUEST INNER CLASS
     public static class OrderRequest {
         private String productName;
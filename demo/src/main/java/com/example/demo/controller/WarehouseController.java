@@ -0,0 +1,197 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.Product;
+import com.example.demo.model.Warehouse;
+import com.example.demo.service.BackorderService;
+import com.example.demo.service.ProductChangeBus;
+import com.example.demo.service.ProductService;
+import com.example.demo.service.StockLocationService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/warehouses")
+public class WarehouseController {
+
+    private final StockLocationService stockLocationService;
+    private final ProductService productService;
+    private final BackorderService backorderService;
+    private final ProductChangeBus changeBus;
+
+    public WarehouseController(StockLocationService stockLocationService, ProductService productService,
+                               BackorderService backorderService, ProductChangeBus changeBus) {
+        this.stockLocationService = stockLocationService;
+        this.productService = productService;
+        this.backorderService = backorderService;
+        this.changeBus = changeBus;
+    }
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('STAFF', 'ADMIN')")
+    public List<Warehouse> getWarehouses() {
+        return stockLocationService.getWarehouses();
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> createWarehouse(@Valid @RequestBody Warehouse warehouse, BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Validation failed");
+            errorResponse.put("message", "Please check the input data");
+            errorResponse.put("details", bindingResult.getFieldErrors()
+                    .stream()
+                    .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                    .collect(Collectors.toList()));
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(stockLocationService.createWarehouse(warehouse));
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to create warehouse");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+        }
+    }
+
+    // Deactivating holds the warehouse's stock back from the product totals; reactivating returns it
+    @PutMapping("/{code}/active")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> setActive(@PathVariable String code, @RequestParam boolean active) {
+        try {
+            List<Product> products = stockLocationService.setWarehouseActive(code, active);
+            // Returned stock feeds waiting backorders
+            if (active && backorderService.drainAll(products.stream().map(Product::getId).toList()) > 0) {
+                products = products.stream().map(product -> productService.getProductById(product.getId())).toList();
+            }
+            productService.evaluateLowStockBatch(products);
+            products.forEach(changeBus::publish);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("warehouse", code);
+            response.put("active", active);
+            response.put("productsAdjusted", products.size());
+            response.put("timestamp", LocalDateTime.now());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", "Warehouse update failed");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
+    // Per-warehouse breakdown; totalAvailable is the product's cached aggregate
+    @GetMapping("/stock/{productId}")
+    @PreAuthorize("hasAnyRole('STAFF', 'ADMIN')")
+    public ResponseEntity<?> getStockByLocation(@PathVariable Long productId) {
+        try {
+            return ResponseEntity.ok(stockLocationService.getStockByLocation(productId));
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Stock lookup failed");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        }
+    }
+
+    // Cycle count for one warehouse: sets its quantity, the product total moves by the difference
+    @PutMapping("/stock/{productId}/{warehouseCode}")
+    @PreAuthorize("hasAnyRole('STAFF', 'ADMIN')")
+    public ResponseEntity<?> setStock(@PathVariable Long productId,
+                                      @PathVariable String warehouseCode,
+                                      @RequestParam int quantity) {
+        try {
+            if (quantity < 0 || quantity > 100000) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Invalid quantity");
+                errorResponse.put("message", "Quantity must be between 0 and 100,000");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+
+            Product product = stockLocationService.setStock(productId, warehouseCode, quantity);
+            // A count that found more stock feeds waiting backorders
+            if (backorderService.drain(productId) > 0) {
+                product = productService.getProductById(productId);
+            }
+            productService.evaluateLowStockBatch(List.of(product));
+            changeBus.publish(product);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("warehouse", warehouseCode);
+            response.put("quantity", quantity);
+            response.put("totalAvailable", product.getUnitStockQuantity());
+            response.put("timestamp", LocalDateTime.now());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", "Stock update failed");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
+    @PostMapping("/transfer")
+    @PreAuthorize("hasAnyRole('STAFF', 'ADMIN')")
+    public ResponseEntity<?> transfer(@RequestBody TransferRequest request) {
+        try {
+            if (request.getProductId() == null || request.getFrom() == null || request.getTo() == null ||
+                    request.getQuantity() == null) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("error", "Invalid transfer");
+                errorResponse.put("message", "productId, from, to and quantity are required");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+
+            Map<String, Object> stock = stockLocationService.transfer(request.getProductId(), request.getFrom(),
+                    request.getTo(), request.getQuantity());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Moved " + request.getQuantity() + " units from " + request.getFrom() +
+                    " to " + request.getTo());
+            response.put("stock", stock);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", "Transfer failed");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
+    public static class TransferRequest {
+        private Long productId;
+        private String from;
+        private String to;
+        private Integer quantity;
+
+        public Long getProductId() { return productId; }
+        public void setProductId(Long productId) { this.productId = productId; }
+
+        public String getFrom() { return from; }
+        public void setFrom(String from) { this.from = from; }
+
+        public String getTo() { return to; }
+        public void setTo(String to) { this.to = to; }
+
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.demo.diagnostics;
+
+import com.example.demo.util.RingBuffer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Structured event log for the request hot paths. Callers pass an event name and key/value
+ * fields; nothing is formatted on the request thread. Events go into a lock-free ring buffer
+ * and one background thread renders them as JSON lines, so request threads never contend on
+ * the stdout lock. A full buffer drops the event and counts it instead of blocking.
+ *
+ * High-volume INFO events can be sampled per event name (event.log.sample-rates);
+ * WARN and ERROR events are always kept. Field values must be immutable (strings, numbers).
+ */
+@Component
+public class EventLogger {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final RingBuffer<LogEvent> buffer;
+    private final Map<String, Double> sampleRates;
+    private final Writer sink;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    @Autowired
+    public EventLogger(@Value("${event.log.buffer-size:65536}") int bufferSize,
+                       @Value("${event.log.sample-rates:}") String sampleRates) {
+        this(bufferSize, parseSampleRates(sampleRates),
+                new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8));
+    }
+
+    public EventLogger(int bufferSize, Map<String, Double> sampleRates, Writer sink) {
+        this.buffer = new RingBuffer<>(bufferSize);
+        this.sampleRates = Map.copyOf(sampleRates);
+        this.sink = new BufferedWriter(sink, 64 * 1024);
+        this.writerThread = new Thread(this::drainLoop, "event-log-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    public void info(String event, Object... fields) {
+        Double rate = sampleRates.get(event);
+        if (rate != null && rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) {
+            return;
+        }
+        publish("INFO", event, rate, fields);
+    }
+
+    public void warn(String event, Object... fields) {
+        publish("WARN", event, null, fields);
+    }
+
+    public void error(String event, Object... fields) {
+        publish("ERROR", event, null, fields);
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    // Log only a hint of the address: "j***@example.com"
+    public static String maskEmail(String email) {
+        if (email == null) return null;
+        int at = email.indexOf('@');
+        if (at <= 0) return "***";
+        return email.charAt(0) + "***" + email.substring(at);
+    }
+
+    private void publish(String level, String event, Double sampleRate, Object[] fields) {
+        LogEvent logEvent = new LogEvent(System.currentTimeMillis(), level, event,
+                Thread.currentThread().getName(), sampleRate, fields);
+        if (!buffer.offer(logEvent)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void drainLoop() {
+        StringBuilder line = new StringBuilder(256);
+        long reportedDrops = 0;
+        while (running || buffer.size() > 0) {
+            LogEvent event = buffer.poll();
+            if (event == null) {
+                try {
+                    long drops = dropped.get();
+                    if (drops != reportedDrops) {
+                        line.setLength(0);
+                        render(new LogEvent(System.currentTimeMillis(), "WARN", "event_log_dropped",
+                                writerThread.getName(), null, new Object[]{"count", drops - reportedDrops}), line);
+                        sink.write(line.toString());
+                        reportedDrops = drops;
+                    }
+                    // Flush once the buffer is empty so bursts go out as one write
+                    sink.flush();
+                } catch (IOException ignored) {
+                    // stdout closed; keep draining so producers never back up
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            line.setLength(0);
+            render(event, line);
+            try {
+                sink.write(line.toString());
+            } catch (IOException ignored) {
+            }
+        }
+        try {
+            sink.flush();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void render(LogEvent event, StringBuilder out) {
+        out.append("{\"ts\":\"").append(Instant.ofEpochMilli(event.timestamp)).append('"');
+        out.append(",\"level\":\"").append(event.level).append('"');
+        out.append(",\"event\":");
+        appendJsonString(out, event.event);
+        out.append(",\"thread\":");
+        appendJsonString(out, event.thread);
+        if (event.sampleRate != null) {
+            out.append(",\"sample_rate\":").append(event.sampleRate);
+        }
+        Object[] fields = event.fields;
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            out.append(',');
+            appendJsonString(out, String.valueOf(fields[i]));
+            out.append(':');
+            Object value = fields[i + 1];
+            if (value == null) {
+                out.append("null");
+            } else if (value instanceof Number || value instanceof Boolean) {
+                out.append(value);
+            } else if (value instanceof Throwable throwable) {
+                appendJsonString(out, throwable.getClass().getSimpleName() + ": " + throwable.getMessage());
+            } else {
+                appendJsonString(out, value.toString());
+            }
+        }
+        out.append("}\n");
+    }
+
+    private static void appendJsonString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    static Map<String, Double> parseSampleRates(String config) {
+        Map<String, Double> rates = new HashMap<>();
+        if (config == null || config.isBlank()) return rates;
+        for (String entry : config.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("event.log.sample-rates entries must look like event:rate, got '" + entry + "'");
+            }
+            double rate = Double.parseDouble(parts[1].trim());
+            if (rate < 0 || rate > 1) {
+                throw new IllegalArgumentException("Sample rate for " + parts[0].trim() + " must be between 0 and 1");
+            }
+            rates.put(parts[0].trim(), rate);
+        }
+        return rates;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record LogEvent(long timestamp, String level, String event, String thread, Double sampleRate,
+                            Object[] fields) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.diagnostics;
+
+import jdk.jfr.*;
+
+/**
+ * Custom Flight Recorder events around the calls that usually explain a slow checkout:
+ * MySQL, SMTP, Google Sheets, BCrypt and JWT parsing. Call sites begin/end the event and
+ * only fill in attributes after shouldCommit(), so with no recording running the cost is a
+ * timestamp read and no allocation once JIT-compiled.
+ */
+public final class InventoryEvents {
+
+    private InventoryEvents() {
+    }
+
+    @Name("com.example.inventory.OrderProcessed")
+    @Label("Order Line Processed")
+    @Category({"Inventory", "Orders"})
+    @Description("ProductService.processOrder: lookup, stock check, decrement and low stock check")
+    @StackTrace(false)
+    public static class OrderProcessed extends Event {
+        @Label("Product Name")
+        public String productName;
+
+        @Label("Model")
+        public String model;
+
+        @Label("Quantity")
+        public int quantity;
+
+        @Label("Stock After")
+        public int stockAfter;
+
+        @Label("User")
+        public String user;
+
+        @Label("Outcome")
+        public String outcome;
+    }
+
+    @Name("com.example.inventory.StockDecrement")
+    @Label("Stock Decrement SQL")
+    @Category({"Inventory", "Database"})
+    @StackTrace(false)
+    public static class StockDecrement extends Event {
+        @Label("Product Id")
+        public long productId;
+
+        @Label("Quantity")
+        public int quantity;
+
+        @Label("Stock After")
+        public int stockAfter;
+    }
+
+    @Name("com.example.inventory.EmailSend")
+    @Label("Email Send")
+    @Category({"Inventory", "Email"})
+    @StackTrace(false)
+    public static class EmailSend extends Event {
+        @Label("Mail Type")
+        public String mailType;
+
+        @Label("Recipients")
+        public String recipients;
+
+        @Label("Success")
+        public boolean success;
+    }
+
+    @Name("com.example.inventory.SheetsCall")
+    @Label("Google Sheets Call")
+    @Category({"Inventory", "Google Sheets"})
+    @StackTrace(false)
+    public static class SheetsCall extends Event {
+        @Label("Operation")
+        public String operation;
+
+        @Label("Product Name")
+        public String productName;
+
+        @Label("Product Count")
+        public int productCount;
+
+        @Label("Success")
+        public boolean success;
+    }
+
+    @Name("com.example.inventory.PasswordVerification")
+    @Label("Password Verification")
+    @Category({"Inventory", "Security"})
+    @Description("BCrypt comparison during login")
+    @StackTrace(false)
+    public static class PasswordVerification extends Event {
+        @Label("Account Type")
+        public String accountType;
+
+        // Masked (a***@example.com): recordings can be downloaded from the diagnostics endpoint
+        @Label("Email")
+        public String email;
+
+        @Label("Matched")
+        public boolean matched;
+    }
+
+    @Name("com.example.inventory.JwtParse")
+    @Label("JWT Parse")
+    @Category({"Inventory", "Security"})
+    @StackTrace(false)
+    public static class JwtParse extends Event {
+        @Label("Subject")
+        public String subject;
+
+        @Label("Valid")
+        public boolean valid;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.demo.diagnostics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs EXPLAIN on the product queries against the live schema at startup. A query is reported
+ * when MySQL has no index it could use for it (type ALL with no possible_keys); a scan chosen
+ * over a usable index, as happens on a small table, is fine. With schema.verify.query-plans=fail
+ * a full scan on a hot query (one the order path or a scheduled job runs) stops startup; other
+ * queries in the catalog are only logged. Databases other than MySQL are skipped, so the H2 test
+ * profile never runs the check: fail mode only guards a startup against a MySQL schema that sets it.
+ *
+ * The catalog is hand-written SQL, not what Hibernate generates, and can drift from it: a finder
+ * whose derived query changes shape keeps its old entry here. QueryPlanVerifierTest only pins the
+ * catalog's names to ProductRepository methods, so a renamed or removed finder breaks the build.
+ */
+@Component
+@Order(1)
+public class QueryPlanVerifier implements ApplicationRunner {
+
+    public enum Mode { OFF, WARN, FAIL }
+
+    record PlannedQuery(String name, boolean hot, String sql, Object... args) { }
+
+    // The SQL Hibernate issues for the ProductRepository finders, with sample parameters. Left out:
+    // findAll-style loads and the natural-key snapshot (scans by design), LIKE '%term%' searches
+    // (no index can serve them), and the total_price / updated_date reports (deliberately unindexed,
+    // see V2__product_finder_indexes.sql).
+    static final List<PlannedQuery> PRODUCT_QUERIES = List.of(
+            new PlannedQuery("existsByProductName", true,
+                    "SELECT p.id FROM products p WHERE p.product_name = ? LIMIT 1", "sample"),
+            new PlannedQuery("findByProductNameAndModel", true,
+                    "SELECT * FROM products p WHERE p.product_name = ? AND p.model = ?", "sample", "sample"),
+            new PlannedQuery("updateStockQuantity(productName, model)", true,
+                    "UPDATE products SET unit_stock_quantity = unit_stock_quantity - ?, updated_date = NOW() " +
+                            "WHERE product_name = ? AND model = ? AND unit_stock_quantity >= ?", 1, "sample", "sample", 1),
+            new PlannedQuery("findByProductNameIn", true,
+                    "SELECT * FROM products p WHERE p.product_name IN (?, ?)", "sample", "other"),
+            new PlannedQuery("findByUnitStockQuantityLessThanEqual", true,
+                    "SELECT * FROM products p WHERE p.unit_stock_quantity <= ?", 10),
+            new PlannedQuery("findActiveLowStockProducts", true,
+                    "SELECT * FROM products p WHERE p.unit_stock_quantity <= ? AND p.status = 'ACTIVE'", 10),
+            new PlannedQuery("findByStatusOrderByProductNameAsc", false,
+                    "SELECT * FROM products p WHERE p.status = ? ORDER BY p.product_name", "ACTIVE"),
+            new PlannedQuery("findByStatusOrderByCreatedDateDesc", false,
+                    "SELECT * FROM products p WHERE p.status = ? ORDER BY p.created_date DESC", "ACTIVE"),
+            new PlannedQuery("countByStatus", false,
+                    "SELECT COUNT(p.id) FROM products p WHERE p.status = ?", "ACTIVE"),
+            new PlannedQuery("findByModel", false,
+                    "SELECT * FROM products p WHERE p.model = ?", "sample"),
+            new PlannedQuery("findByPricePerQuantityBetween", false,
+                    "SELECT * FROM products p WHERE p.price_per_quantity BETWEEN ? AND ?", 1.0, 2.0),
+            new PlannedQuery("findProductsByStatusAndPriceRange", false,
+                    "SELECT * FROM products p WHERE p.status = ? AND p.price_per_quantity BETWEEN ? AND ?", "ACTIVE", 1.0, 2.0),
+            new PlannedQuery("findProductsByStatusAndMinStock", false,
+                    "SELECT * FROM products p WHERE p.status = ? AND p.unit_stock_quantity >= ?", "ACTIVE", 10),
+            new PlannedQuery("findProductsCreatedAfter", false,
+                    "SELECT * FROM products p WHERE p.created_date > ?", "2000-01-01 00:00:00")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Mode mode;
+
+    public QueryPlanVerifier(JdbcTemplate jdbcTemplate,
+                             @Value("${schema.verify.query-plans:warn}") String mode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (mode == Mode.OFF) return;
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (database == null || !(database.contains("MySQL") || database.contains("MariaDB"))) {
+            System.out.println("ℹ Query plan check skipped on " + database);
+            return;
+        }
+        verify(PRODUCT_QUERIES);
+    }
+
+    // Logs every query that cannot use an index; throws in fail mode when any of them is hot
+    void verify(List<PlannedQuery> queries) {
+        List<String> hotFailures = new ArrayList<>();
+        for (PlannedQuery query : queries) {
+            String problem;
+            try {
+                List<String> scanned = fullScans(jdbcTemplate.queryForList("EXPLAIN " + query.sql(), query.args()));
+                problem = scanned.isEmpty() ? null : "full scan of " + String.join(", ", scanned);
+            } catch (Exception e) {
+                problem = "EXPLAIN failed: " + e.getMessage();
+            }
+            if (problem == null) continue;
+
+            System.err.println("⚠ Query plan: " + query.name() + (query.hot() ? " (hot)" : "") + " - " + problem);
+            if (query.hot()) {
+                hotFailures.add(query.name() + " - " + problem);
+            }
+        }
+
+        if (!hotFailures.isEmpty() && mode == Mode.FAIL) {
+            throw new IllegalStateException("Hot queries without a usable index: " + String.join("; ", hotFailures));
+        }
+        System.out.println("✅ Query plans checked: " + queries.size() + " queries, " +
+                hotFailures.size() + " hot full scans");
+    }
+
+    // Tables MySQL would read in full with no candidate index, from the rows of one EXPLAIN
+    static List<String> fullScans(List<Map<String, Object>> planRows) {
+        List<String> tables = new ArrayList<>();
+        for (Map<String, Object> row : planRows) {
+            Object possibleKeys = row.get("possible_keys");
+            boolean noCandidate = possibleKeys == null || possibleKeys.toString().isBlank();
+            if ("ALL".equals(row.get("type")) && noCandidate) {
+                tables.add(String.valueOf(row.get("table")));
+            }
+        }
+        return tables;
+    }
+}
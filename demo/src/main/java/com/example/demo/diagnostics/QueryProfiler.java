@@ -0,0 +1,229 @@
+package com.example.demo.diagnostics;
+
+import com.example.demo.util.LatencyHistogram;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.Interceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Database profile per repository method ("ProductRepository.findByStatus"): calls, latency,
+ * SQL statements, rows returned and entities loaded. Repository calls are timed by an advice on
+ * every Spring Data repository (QueryProfilingConfig); statements and entity loads come from
+ * Hibernate's StatementInspector and Interceptor hooks and are charged to the repository call
+ * running on the same thread. Aggregates are lock-free histograms and adders, so profiling never
+ * makes two requests wait on each other. Calls slower than db.profile.slow-query-ms are logged
+ * with their SQL, literals and bind values redacted.
+ */
+@Component
+public class QueryProfiler implements StatementInspector, Interceptor {
+
+    public static final List<String> SORTS = List.of("total", "slowest", "frequent");
+
+    private static final int MAX_CAPTURED_SQL = 3;
+    private static final int MAX_SQL_LENGTH = 500;
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+    @FunctionalInterface
+    public interface Call {
+        Object proceed() throws Throwable;
+    }
+
+    // Work done by one repository call on this thread; nested calls roll up into the outer one
+    private static final class Frame {
+        final Frame parent;
+        long statements;
+        long entityLoads;
+        final List<String> sql = new ArrayList<>(MAX_CAPTURED_SQL);
+
+        Frame(Frame parent) {
+            this.parent = parent;
+        }
+    }
+
+    static final class QueryStats {
+        final String query;
+        final LatencyHistogram latencyMicros = new LatencyHistogram();
+        final LatencyHistogram rows = new LatencyHistogram();
+        final LongAdder statements = new LongAdder();
+        final LongAdder entityLoads = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        QueryStats(String query) {
+            this.query = query;
+        }
+
+        Map<String, Object> toMap() {
+            long calls = latencyMicros.getCount();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("query", query);
+            map.put("calls", calls);
+            map.put("errors", errors.sum());
+            map.put("totalMs", latencyMicros.getSum() / 1000.0);
+            map.put("meanMs", latencyMicros.getMean() / 1000.0);
+            map.put("p50Ms", latencyMicros.getPercentile(50) / 1000.0);
+            map.put("p95Ms", latencyMicros.getPercentile(95) / 1000.0);
+            map.put("p99Ms", latencyMicros.getPercentile(99) / 1000.0);
+            map.put("maxMs", latencyMicros.getMax() / 1000.0);
+            map.put("statements", statements.sum());
+            map.put("statementsPerCall", calls == 0 ? 0.0 : (double) statements.sum() / calls);
+            map.put("rows", rows.getSum());
+            map.put("rowsP99", rows.getPercentile(99));
+            map.put("entityLoads", entityLoads.sum());
+            return map;
+        }
+    }
+
+    private final Map<String, QueryStats> stats = new ConcurrentHashMap<>();
+    private final ThreadLocal<Frame> current = new ThreadLocal<>();
+    private final EventLogger eventLogger;
+    private final boolean enabled;
+    private final long slowThresholdMicros;
+    private final Counter slowQueries;
+
+    public QueryProfiler(EventLogger eventLogger,
+                         MeterRegistry meterRegistry,
+                         @Value("${db.profile.enabled:true}") boolean enabled,
+                         @Value("${db.profile.slow-query-ms:200}") long slowQueryMs) {
+        this.eventLogger = eventLogger;
+        this.enabled = enabled;
+        this.slowThresholdMicros = slowQueryMs * 1000;
+        this.slowQueries = Counter.builder("inventory.db.slow_queries")
+                .description("Repository calls slower than db.profile.slow-query-ms")
+                .register(meterRegistry);
+    }
+
+    public Object profile(String query, Object[] args, Call call) throws Throwable {
+        if (!enabled) {
+            return call.proceed();
+        }
+        Frame frame = new Frame(current.get());
+        current.set(frame);
+        long start = System.nanoTime();
+        Object result = null;
+        boolean failed = true;
+        try {
+            result = call.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long micros = (System.nanoTime() - start) / 1000;
+            if (frame.parent == null) {
+                current.remove();
+            } else {
+                current.set(frame.parent);
+                frame.parent.statements += frame.statements;
+                frame.parent.entityLoads += frame.entityLoads;
+            }
+            record(query, micros, frame, failed ? -1 : rowsOf(result), failed, args);
+        }
+    }
+
+    private void record(String query, long micros, Frame frame, long rows, boolean failed, Object[] args) {
+        QueryStats queryStats = stats.computeIfAbsent(query, QueryStats::new);
+        queryStats.latencyMicros.record(micros);
+        queryStats.statements.add(frame.statements);
+        queryStats.entityLoads.add(frame.entityLoads);
+        if (rows >= 0) queryStats.rows.record(rows);
+        if (failed) queryStats.errors.increment();
+
+        if (micros >= slowThresholdMicros) {
+            slowQueries.increment();
+            eventLogger.warn("slow_query", "query", query, "ms", micros / 1000, "statements", frame.statements,
+                    "rows", rows, "entityLoads", frame.entityLoads, "args", redactArgs(args),
+                    "sql", redactSql(frame.sql));
+        }
+    }
+
+    // StatementInspector: every statement Hibernate prepares, charged to the running repository call
+    @Override
+    public String inspect(String sql) {
+        Frame frame = current.get();
+        if (frame != null) {
+            frame.statements++;
+            if (frame.sql.size() < MAX_CAPTURED_SQL) frame.sql.add(sql);
+        }
+        return sql;
+    }
+
+    // Interceptor: every entity instance Hibernate hydrates
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        Frame frame = current.get();
+        if (frame != null) frame.entityLoads++;
+        return false;
+    }
+
+    /**
+     * Queries ordered by total time (what dominates database time), p99 latency ("slowest")
+     * or number of calls ("frequent").
+     */
+    public List<Map<String, Object>> top(String sort, int limit) {
+        Comparator<QueryStats> order = switch (sort) {
+            case "total" -> Comparator.comparingLong(s -> s.latencyMicros.getSum());
+            case "slowest" -> Comparator.comparingLong(s -> s.latencyMicros.getPercentile(99));
+            case "frequent" -> Comparator.comparingLong(s -> s.latencyMicros.getCount());
+            default -> throw new IllegalArgumentException("Unknown sort '" + sort + "', expected one of " + SORTS);
+        };
+        return stats.values().stream()
+                .sorted(order.reversed())
+                .limit(Math.max(limit, 1))
+                .map(QueryStats::toMap)
+                .toList();
+    }
+
+    public long getSlowThresholdMs() {
+        return slowThresholdMicros / 1000;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    static long rowsOf(Object result) {
+        if (result == null) return 0;
+        if (result instanceof Collection<?> collection) return collection.size();
+        if (result instanceof Optional<?> optional) return optional.isPresent() ? 1 : 0;
+        if (result instanceof Slice<?> slice) return slice.getNumberOfElements();
+        // Not consumed yet; counting would drain it
+        if (result instanceof Stream<?>) return -1;
+        return 1;
+    }
+
+    // Types only: bind values may be names, emails or prices
+    static String redactArgs(Object[] args) {
+        if (args == null || args.length == 0) return "[]";
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (Object arg : args) {
+            if (arg == null) {
+                joiner.add("null");
+            } else if (arg instanceof Collection<?> collection) {
+                joiner.add(arg.getClass().getSimpleName() + "(" + collection.size() + ")");
+            } else {
+                joiner.add(arg.getClass().getSimpleName());
+            }
+        }
+        return joiner.toString();
+    }
+
+    // Hibernate binds parameters as '?', but JPQL and native queries can still inline literals
+    static String redactSql(List<String> statements) {
+        StringJoiner joiner = new StringJoiner("; ");
+        for (String sql : statements) {
+            String redacted = NUMBER_LITERAL.matcher(STRING_LITERAL.matcher(sql).replaceAll("?")).replaceAll("?");
+            joiner.add(redacted.length() > MAX_SQL_LENGTH ? redacted.substring(0, MAX_SQL_LENGTH) + "..." : redacted);
+        }
+        return joiner.toString();
+    }
+}
@@ -2,6 +2,10 @@
 package com.example.demo.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 
@@ -9,6 +13,9 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "admins")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class Admin {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -20,6 +27,7 @@ public class Admin {
 
     @Email(message = "Email should be valid")
     @NotBlank(message = "Email is required")
+    @NaturalId(mutable = true)
     @Column(unique = true, nullable = false)
     private String email;
 
@@ -0,0 +1,85 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Demand for a product that was out of stock at checkout. Pending rows of one product form a FIFO
+// queue in id order; BackorderService fills them from the head whenever stock is added.
+@Entity
+@Table(name = "backorders", indexes = {
+        // Queue head per product: WHERE product_id = ? AND status = 'PENDING' AND id > ? ORDER BY id
+        @Index(name = "idx_backorders_queue", columnList = "product_id, status, id"),
+        @Index(name = "idx_backorders_user", columnList = "user_email, status")
+})
+public class Backorder {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_FULFILLED = "FULFILLED";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+
+    // IDENTITY on purpose: queue order is id order, so ids must be handed out in insert order
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false, length = 16)
+    private String status = STATUS_PENDING;
+
+    @Column(name = "created_date", nullable = false)
+    private LocalDateTime createdDate;
+
+    @Column(name = "fulfilled_date")
+    private LocalDateTime fulfilledDate;
+
+    // Default constructor
+    public Backorder() {}
+
+    public Backorder(Long productId, String userEmail, Integer quantity) {
+        this.productId = productId;
+        this.userEmail = userEmail;
+        this.quantity = quantity;
+        this.createdDate = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public String getUserEmail() { return userEmail; }
+    public void setUserEmail(String userEmail) { this.userEmail = userEmail; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public LocalDateTime getCreatedDate() { return createdDate; }
+    public void setCreatedDate(LocalDateTime createdDate) { this.createdDate = createdDate; }
+
+    public LocalDateTime getFulfilledDate() { return fulfilledDate; }
+    public void setFulfilledDate(LocalDateTime fulfilledDate) { this.fulfilledDate = fulfilledDate; }
+
+    @Override
+    public String toString() {
+        return "Backorder{" +
+                "id=" + id +
+                ", productId=" + productId +
+                ", quantity=" + quantity +
+                ", status='" + status + '\'' +
+                ", createdDate=" + createdDate +
+                '}';
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "orders", indexes = {
+        // Per-user order history, newest first
+        @Index(name = "idx_orders_user_created", columnList = "user_email, created_date")
+})
+public class CustomerOrder {
+
+    // Pooled sequence ids: Hibernate reserves a block of 50 per round-trip instead of one IDENTITY insert per row
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+
+    @Column(name = "total_amount")
+    private Double totalAmount;
+
+    @Column(name = "total_items")
+    private Integer totalItems;
+
+    private String status = "PLACED";
+
+    @Column(name = "created_date")
+    private LocalDateTime createdDate;
+
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id ASC")
+    @BatchSize(size = 50)
+    private List<OrderLine> lines = new ArrayList<>();
+
+    // Default constructor
+    public CustomerOrder() {}
+
+    public CustomerOrder(String userEmail) {
+        this.userEmail = userEmail;
+        this.createdDate = LocalDateTime.now();
+    }
+
+    // Keeps both sides of the association in sync
+    public void addLine(OrderLine line) {
+        line.setOrder(this);
+        lines.add(line);
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getUserEmail() { return userEmail; }
+    public void setUserEmail(String userEmail) { this.userEmail = userEmail; }
+
+    public Double getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(Double totalAmount) { this.totalAmount = totalAmount; }
+
+    public Integer getTotalItems() { return totalItems; }
+    public void setTotalItems(Integer totalItems) { this.totalItems = totalItems; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public LocalDateTime getCreatedDate() { return createdDate; }
+    public void setCreatedDate(LocalDateTime createdDate) { this.createdDate = createdDate; }
+
+    public List<OrderLine> getLines() { return lines; }
+    public void setLines(List<OrderLine> lines) { this.lines = lines; }
+
+    @Override
+    public String toString() {
+        return "CustomerOrder{" +
+                "id=" + id +
+                ", userEmail='" + userEmail + '\'' +
+                ", totalAmount=" + totalAmount +
+                ", totalItems=" + totalItems +
+                ", status='" + status + '\'' +
+                ", createdDate=" + createdDate +
+                '}';
+    }
+}
@@ -5,7 +5,10 @@ import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+// (product_name, model) is the natural key checkout resolves by; unique so the lookup is one index probe
+@Table(name = "products", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_products_name_model", columnNames = {"product_name", "model"})
+})
 public class Product {
 
     @Id
@@ -49,6 +52,12 @@ public class Product {
     @Column(name = "updated_date")
     private LocalDateTime updatedDate;
 
+    // Optimistic lock: every write checks and bumps it, so a stale read can never overwrite newer stock.
+    // The column default covers rows written by the JDBC import and rows that predate the column.
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     // Default constructor (REQUIRED for JSON parsing)
     public Product() {
     }
@@ -147,6 +156,14 @@ public class Product {
         this.updatedDate = updatedDate;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // toString method for debugging
     @Override
     public String toString() {
@@ -160,6 +177,7 @@ public class Product {
                 ", status='" + status + '\'' +
                 ", createdDate=" + createdDate +
                 ", updatedDate=" + updatedDate +
+                ", version=" + version +
                 '}';
     }
 }
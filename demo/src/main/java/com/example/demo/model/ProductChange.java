@@ -0,0 +1,31 @@
+package com.example.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Compact product delta pushed on /api/products/stream and served by /api/products/changes (which
+// also fills in seq, the change-log position); a deletion carries only the id
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductChange(Long id,
+                            String productName,
+                            String model,
+                            Integer stock,
+                            Double price,
+                            String status,
+                            Long version,
+                            Boolean deleted,
+                            Long seq) {
+
+    public static ProductChange of(Product product) {
+        return new ProductChange(product.getId(), product.getProductName(), product.getModel(),
+                product.getUnitStockQuantity(), product.getPricePerQuantity(), product.getStatus(),
+                product.getVersion(), null, null);
+    }
+
+    public static ProductChange deleted(Long id) {
+        return new ProductChange(id, null, null, null, null, null, null, true, null);
+    }
+
+    public ProductChange withSeq(Long seq) {
+        return new ProductChange(id, productName, model, stock, price, status, version, deleted, seq);
+    }
+}
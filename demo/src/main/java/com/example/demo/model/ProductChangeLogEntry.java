@@ -0,0 +1,93 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Append-only: one row per product mutation, written by ProductChangeLog. The id is the change
+// sequence clients sync from; a deletion is kept as a tombstone row with only the product id.
+@Entity
+@Table(name = "product_change_log", indexes = {
+        @Index(name = "idx_product_change_log_changed", columnList = "changed_date")
+})
+public class ProductChangeLogEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_change_log_seq")
+    @SequenceGenerator(name = "product_change_log_seq", sequenceName = "product_change_log_seq", allocationSize = 100)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "product_name")
+    private String productName;
+
+    private String model;
+
+    private Integer stock;
+
+    private Double price;
+
+    private String status;
+
+    @Column(name = "product_version")
+    private Long productVersion;
+
+    @Column(nullable = false)
+    private boolean deleted;
+
+    @Column(name = "changed_date", nullable = false)
+    private LocalDateTime changedDate;
+
+    // Default constructor
+    public ProductChangeLogEntry() {}
+
+    public ProductChangeLogEntry(ProductChange change) {
+        this.productId = change.id();
+        this.productName = change.productName();
+        this.model = change.model();
+        this.stock = change.stock();
+        this.price = change.price();
+        this.status = change.status();
+        this.productVersion = change.version();
+        this.deleted = Boolean.TRUE.equals(change.deleted());
+        this.changedDate = LocalDateTime.now();
+    }
+
+    public ProductChange toChange() {
+        return deleted
+                ? ProductChange.deleted(productId).withSeq(id)
+                : new ProductChange(productId, productName, model, stock, price, status, productVersion, null, id);
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+
+    public String getModel() { return model; }
+    public void setModel(String model) { this.model = model; }
+
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Long getProductVersion() { return productVersion; }
+    public void setProductVersion(Long productVersion) { this.productVersion = productVersion; }
+
+    public boolean isDeleted() { return deleted; }
+    public void setDeleted(boolean deleted) { this.deleted = deleted; }
+
+    public LocalDateTime getChangedDate() { return changedDate; }
+    public void setChangedDate(LocalDateTime changedDate) { this.changedDate = changedDate; }
+}
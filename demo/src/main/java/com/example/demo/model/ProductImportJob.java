@@ -0,0 +1,84 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Progress of one bulk product import; updated by the import thread, read by the status endpoint
+public class ProductImportJob {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final String jobId;
+    private final String fileName;
+    private final String format;
+    private final boolean upsert;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    private volatile String status = "QUEUED";
+    private volatile LocalDateTime finishedAt;
+    private volatile String failureMessage;
+
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong inserted = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+    public ProductImportJob(String jobId, String fileName, String format, boolean upsert) {
+        this.jobId = jobId;
+        this.fileName = fileName;
+        this.format = format;
+        this.upsert = upsert;
+    }
+
+    public void reject(long rowNumber, String message) {
+        rejected.incrementAndGet();
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add("Row " + rowNumber + ": " + message);
+        }
+    }
+
+    public void markRunning() { this.status = "RUNNING"; }
+
+    public void markCompleted() {
+        this.status = "COMPLETED";
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    public void markFailed(String message) {
+        this.status = "FAILED";
+        this.failureMessage = message;
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    public void addRowsRead(long count) { rowsRead.addAndGet(count); }
+    public void addInserted(long count) { inserted.addAndGet(count); }
+    public void addUpdated(long count) { updated.addAndGet(count); }
+
+    // Getters
+    public String getJobId() { return jobId; }
+    public String getFileName() { return fileName; }
+    public String getFormat() { return format; }
+    public boolean isUpsert() { return upsert; }
+    public String getStatus() { return status; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public String getFailureMessage() { return failureMessage; }
+    public long getRowsRead() { return rowsRead.get(); }
+    public long getInserted() { return inserted.get(); }
+    public long getUpdated() { return updated.get(); }
+    public long getRejected() { return rejected.get(); }
+
+    public List<String> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    public boolean isErrorListTruncated() {
+        return rejected.get() > MAX_REPORTED_ERRORS;
+    }
+}
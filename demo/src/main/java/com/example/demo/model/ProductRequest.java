@@ -29,6 +29,9 @@ public class ProductRequest {
             message = "Status must be ACTIVE, INACTIVE, or DISCONTINUED")
     private String status;
 
+    // Version the editor last saw (required on /staff/update); the update is rejected if the product changed since
+    private Long version;
+
     // Default constructor
     public ProductRequest() {}
 
@@ -83,6 +86,14 @@ public class ProductRequest {
         this.status = status;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "ProductRequest{" +
@@ -91,6 +102,7 @@ public class ProductRequest {
                 ", pricePerQuantity=" + pricePerQuantity +
                 ", unitStockQuantity=" + unitStockQuantity +
                 ", status='" + status + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -1,10 +1,17 @@
 package com.example.demo.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "staff")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class Staff {
 
     @Id
@@ -14,6 +21,7 @@ public class Staff {
     @Column(nullable = false)
     private String name;
 
+    @NaturalId(mutable = true)
     @Column(unique = true, nullable = false)
     private String email;
 
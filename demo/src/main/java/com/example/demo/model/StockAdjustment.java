@@ -0,0 +1,57 @@
+package com.example.demo.model;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+// One entry of a bulk stock/price adjustment: set newStock or apply delta, optionally set newPrice
+public class StockAdjustment {
+
+    @NotNull(message = "Product id is required")
+    private Long id;
+
+    @Min(value = 0, message = "Unit stock quantity cannot be negative")
+    @Max(value = 100000, message = "Unit stock quantity cannot exceed 100,000")
+    private Integer newStock;
+
+    private Integer delta;
+
+    @DecimalMin(value = "0.01", message = "Price must be at least 0.01")
+    @DecimalMax(value = "1000000.00", message = "Price cannot exceed 1,000,000.00")
+    private Double newPrice;
+
+    // Default constructor
+    public StockAdjustment() {}
+
+    public StockAdjustment(Long id, Integer newStock, Integer delta, Double newPrice) {
+        this.id = id;
+        this.newStock = newStock;
+        this.delta = delta;
+        this.newPrice = newPrice;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Integer getNewStock() { return newStock; }
+    public void setNewStock(Integer newStock) { this.newStock = newStock; }
+
+    public Integer getDelta() { return delta; }
+    public void setDelta(Integer delta) { this.delta = delta; }
+
+    public Double getNewPrice() { return newPrice; }
+    public void setNewPrice(Double newPrice) { this.newPrice = newPrice; }
+
+    @Override
+    public String toString() {
+        return "StockAdjustment{" +
+                "id=" + id +
+                ", newStock=" + newStock +
+                ", delta=" + delta +
+                ", newPrice=" + newPrice +
+                '}';
+    }
+}
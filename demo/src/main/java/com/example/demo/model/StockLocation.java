@@ -0,0 +1,67 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Stock of one product in one warehouse. Once a product has any rows here, products.unit_stock_quantity
+// is their sum, maintained in the same transaction as every change (StockLocationService).
+@Entity
+@Table(name = "stock_location",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stock_location_product_warehouse",
+                columnNames = {"product_id", "warehouse_id"}),
+        indexes = @Index(name = "idx_stock_location_warehouse", columnList = "warehouse_id"))
+public class StockLocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "warehouse_id", nullable = false)
+    private Long warehouseId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "updated_date")
+    private LocalDateTime updatedDate;
+
+    // Default constructor
+    public StockLocation() {}
+
+    public StockLocation(Long productId, Long warehouseId, Integer quantity) {
+        this.productId = productId;
+        this.warehouseId = warehouseId;
+        this.quantity = quantity;
+        this.updatedDate = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public Long getWarehouseId() { return warehouseId; }
+    public void setWarehouseId(Long warehouseId) { this.warehouseId = warehouseId; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+    public LocalDateTime getUpdatedDate() { return updatedDate; }
+    public void setUpdatedDate(LocalDateTime updatedDate) { this.updatedDate = updatedDate; }
+
+    @Override
+    public String toString() {
+        return "StockLocation{" +
+                "id=" + id +
+                ", productId=" + productId +
+                ", warehouseId=" + warehouseId +
+                ", quantity=" + quantity +
+                ", updatedDate=" + updatedDate +
+                '}';
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Append-only: rows are inserted by StockLedgerService and never updated
+@Entity
+@Table(name = "stock_movements", indexes = {
+        @Index(name = "idx_stock_movements_product", columnList = "product_id, id"),
+        @Index(name = "idx_stock_movements_created", columnList = "created_date")
+})
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movements_seq")
+    @SequenceGenerator(name = "stock_movements_seq", sequenceName = "stock_movements_seq", allocationSize = 100)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer delta;
+
+    @Column(name = "quantity_after")
+    private Integer quantityAfter;
+
+    @Column(nullable = false, length = 32)
+    private String reason;
+
+    private String actor;
+
+    @Column(name = "created_date", nullable = false)
+    private LocalDateTime createdDate;
+
+    // Default constructor
+    public StockMovement() {}
+
+    public StockMovement(Long productId, Integer delta, Integer quantityAfter, String reason, String actor) {
+        this.productId = productId;
+        this.delta = delta;
+        this.quantityAfter = quantityAfter;
+        this.reason = reason;
+        this.actor = actor;
+        this.createdDate = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public Integer getDelta() { return delta; }
+    public void setDelta(Integer delta) { this.delta = delta; }
+
+    public Integer getQuantityAfter() { return quantityAfter; }
+    public void setQuantityAfter(Integer quantityAfter) { this.quantityAfter = quantityAfter; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public String getActor() { return actor; }
+    public void setActor(String actor) { this.actor = actor; }
+
+    public LocalDateTime getCreatedDate() { return createdDate; }
+    public void setCreatedDate(LocalDateTime createdDate) { this.createdDate = createdDate; }
+
+    @Override
+    public String toString() {
+        return "StockMovement{" +
+                "id=" + id +
+                ", productId=" + productId +
+                ", delta=" + delta +
+                ", quantityAfter=" + quantityAfter +
+                ", reason='" + reason + '\'' +
+                ", actor='" + actor + '\'' +
+                ", createdDate=" + createdDate +
+                '}';
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// One user waiting for one product to come back in stock. One-shot: the row is deleted once the
+// back-in-stock email has gone out (BackInStockService).
+@Entity
+@Table(name = "stock_subscriptions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stock_subscriptions_product_user",
+                columnNames = {"product_id", "user_email"}),
+        // Fan-out pages through a product's subscribers by id
+        indexes = @Index(name = "idx_stock_subscriptions_product", columnList = "product_id, id"))
+public class StockSubscription {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+
+    @Column(name = "created_date", nullable = false)
+    private LocalDateTime createdDate;
+
+    // Default constructor
+    public StockSubscription() {}
+
+    public StockSubscription(Long productId, String userEmail) {
+        this.productId = productId;
+        this.userEmail = userEmail;
+        this.createdDate = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public String getUserEmail() { return userEmail; }
+    public void setUserEmail(String userEmail) { this.userEmail = userEmail; }
+
+    public LocalDateTime getCreatedDate() { return createdDate; }
+    public void setCreatedDate(LocalDateTime createdDate) { this.createdDate = createdDate; }
+
+    @Override
+    public String toString() {
+        return "StockSubscription{" +
+                "id=" + id +
+                ", productId=" + productId +
+                ", createdDate=" + createdDate +
+                '}';
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Admin;
+
+import java.util.Optional;
+
+// Custom fragment of AdminRepository: email lookups served from the second-level cache, and one that bypasses it
+public interface AdminNaturalIdQueries {
+
+    Optional<Admin> findByEmail(String email);
+
+    // Reads the row, never the cache: for login and authorization checks, which must see a status,
+    // password or email change committed by another instance
+    Optional<Admin> findByEmailUncached(String email);
+}
@@ -0,0 +1,38 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Admin;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+// Picked up by Spring Data by name; replaces the derived findByEmail query in AdminRepository
+public class AdminNaturalIdQueriesImpl implements AdminNaturalIdQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // SUPPORTS only keeps the session open for the lookup; a cache hit never takes a connection
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<Admin> findByEmail(String email) {
+        if (email == null) return Optional.empty();
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Admin.class).loadOptional(email);
+    }
+
+    // A query always goes to the database; REFRESH overwrites the cached entry with the row it read
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<Admin> findByEmailUncached(String email) {
+        if (email == null) return Optional.empty();
+        return entityManager.createQuery("SELECT a FROM Admin a WHERE a.email = :email", Admin.class)
+                .setParameter("email", email)
+                .setHint("jakarta.persistence.cache.storeMode", CacheStoreMode.REFRESH)
+                .getResultStream()
+                .findFirst();
+    }
+}
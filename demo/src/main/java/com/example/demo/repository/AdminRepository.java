@@ -2,12 +2,18 @@ package com.example.demo.repository;
 
 import com.example.demo.model.Admin;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AdminRepository extends JpaRepository<Admin, Long> {
-    Optional<Admin> findByEmail(String email);
+public interface AdminRepository extends JpaRepository<Admin, Long>, AdminNaturalIdQueries {
+    // findByEmail(String) comes from AdminNaturalIdQueries (cached natural-id lookup)
     boolean existsByEmail(String email);
     Optional<Admin> findByEmailAndStatus(String email, String status);
+
+    // Email-only projection used to warm the email existence filter
+    @Query("SELECT a.email FROM Admin a")
+    List<String> findAllEmails();
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Backorder;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BackorderRepository extends JpaRepository<Backorder, Long> {
+
+    boolean existsByProductIdAndStatus(Long productId, String status);
+
+    List<Backorder> findByUserEmailAndStatusOrderByIdAsc(String userEmail, String status);
+
+    // Next slice of a product's queue after afterId (keyset, served by idx_backorders_queue).
+    // Locked so a concurrent cancel cannot flip a row the drain is about to fill.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Backorder b WHERE b.productId = :productId AND b.status = 'PENDING' " +
+            "AND b.id > :afterId ORDER BY b.id")
+    List<Backorder> lockPendingAfter(@Param("productId") Long productId,
+                                     @Param("afterId") Long afterId,
+                                     Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Backorder b SET b.status = 'FULFILLED', b.fulfilledDate = :now " +
+            "WHERE b.id IN :ids AND b.status = 'PENDING'")
+    int markFulfilled(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Backorder b SET b.status = 'CANCELLED' " +
+            "WHERE b.id = :id AND b.userEmail = :userEmail AND b.status = 'PENDING'")
+    int cancel(@Param("id") Long id, @Param("userEmail") String userEmail);
+
+    // Products among the named ones that have someone waiting (bulk import drains only these)
+    @Query("SELECT DISTINCT b.productId FROM Backorder b WHERE b.status = 'PENDING' AND b.productId IN " +
+            "(SELECT p.id FROM Product p WHERE p.productName IN :names)")
+    List<Long> findPendingProductIdsByProductNames(@Param("names") Collection<String> names);
+
+    @Query("SELECT DISTINCT b.productId FROM Backorder b WHERE b.status = 'PENDING' AND b.productId IN :productIds")
+    List<Long> findPendingProductIds(@Param("productIds") Collection<Long> productIds);
+}
@@ -0,0 +1,16 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.CustomerOrder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderRepository extends JpaRepository<CustomerOrder, Long> {
+
+    // Served by idx_orders_user_created
+    Page<CustomerOrder> findByUserEmailOrderByCreatedDateDesc(String userEmail, Pageable pageable);
+
+    long countByUserEmail(String userEmail);
+}
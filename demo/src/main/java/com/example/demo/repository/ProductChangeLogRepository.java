@@ -0,0 +1,32 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.ProductChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductChangeLogRepository extends JpaRepository<ProductChangeLogEntry, Long> {
+
+    // Delta-sync page: primary-key range scan from the client's cursor
+    List<ProductChangeLogEntry> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    @Query("SELECT MIN(e.id) FROM ProductChangeLogEntry e")
+    Long findMinId();
+
+    @Query("SELECT MAX(e.id) FROM ProductChangeLogEntry e")
+    Long findMaxId();
+
+    // Retention; the newest row is always kept so the current sequence survives an idle period
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ProductChangeLogEntry e WHERE e.changedDate < :cutoff AND e.id < :keepFromId")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff, @Param("keepFromId") Long keepFromId);
+}
@@ -0,0 +1,99 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Product;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A validated subset of Product's JSON fields (the fields= request parameter) and the JPQL that
+ * selects only those columns. Field sets are canonicalized to declaration order and cached, so
+ * each combination builds its query string once and Hibernate's query plan cache sees one
+ * statement per combination rather than one per spelling. The id is always included.
+ */
+public final class ProductFieldSet {
+
+    // JSON name -> accessor; JSON names are the entity attribute names
+    private static final Map<String, Function<Product, Object>> FIELDS = new LinkedHashMap<>();
+
+    static {
+        FIELDS.put("id", Product::getId);
+        FIELDS.put("productName", Product::getProductName);
+        FIELDS.put("model", Product::getModel);
+        FIELDS.put("pricePerQuantity", Product::getPricePerQuantity);
+        FIELDS.put("unitStockQuantity", Product::getUnitStockQuantity);
+        FIELDS.put("totalPrice", Product::getTotalPrice);
+        FIELDS.put("status", Product::getStatus);
+        FIELDS.put("createdDate", Product::getCreatedDate);
+        FIELDS.put("updatedDate", Product::getUpdatedDate);
+        FIELDS.put("version", Product::getVersion);
+    }
+
+    // At most 2^9 canonical combinations, so the cache is bounded by construction
+    private static final Map<String, ProductFieldSet> CACHE = new ConcurrentHashMap<>();
+
+    private final List<String> names;
+    private final String selectAllJpql;
+
+    private ProductFieldSet(List<String> names) {
+        this.names = List.copyOf(names);
+        StringBuilder select = new StringBuilder("SELECT ");
+        for (int i = 0; i < names.size(); i++) {
+            if (i > 0) select.append(", ");
+            select.append("p.").append(names.get(i));
+        }
+        this.selectAllJpql = select.append(" FROM Product p").toString();
+    }
+
+    /**
+     * Parses a comma-separated field list. Blank means "no projection" and returns null so callers
+     * fall back to the full entity. Unknown names are rejected rather than silently dropped.
+     */
+    public static ProductFieldSet parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> requested = new HashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) continue;
+            if (!FIELDS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown product field '" + name + "'. Allowed: " +
+                        String.join(", ", FIELDS.keySet()));
+            }
+            requested.add(name);
+        }
+        List<String> canonical = new ArrayList<>();
+        for (String name : FIELDS.keySet()) {
+            if (name.equals("id") || requested.contains(name)) canonical.add(name);
+        }
+        return CACHE.computeIfAbsent(String.join(",", canonical), key -> new ProductFieldSet(canonical));
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    public String getSelectAllJpql() {
+        return selectAllJpql;
+    }
+
+    // Shapes one result row (columns in getNames() order) into a JSON object
+    public Map<String, Object> toRow(Object[] values) {
+        Map<String, Object> row = new LinkedHashMap<>(names.size() * 2);
+        for (int i = 0; i < names.size(); i++) {
+            row.put(names.get(i), values[i]);
+        }
+        return row;
+    }
+
+    // Same shape from an already loaded entity
+    public Map<String, Object> toRow(Product product) {
+        Map<String, Object> row = new LinkedHashMap<>(names.size() * 2);
+        for (String name : names) {
+            row.put(name, FIELDS.get(name).apply(product));
+        }
+        return row;
+    }
+}
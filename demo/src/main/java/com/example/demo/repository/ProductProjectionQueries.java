@@ -0,0 +1,10 @@
+package com.example.demo.repository;
+
+import java.util.List;
+import java.util.Map;
+
+// Custom fragment of ProductRepository: list queries that read only the requested columns
+public interface ProductProjectionQueries {
+
+    List<Map<String, Object>> findAllProjected(ProductFieldSet fields);
+}
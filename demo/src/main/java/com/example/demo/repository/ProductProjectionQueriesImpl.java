@@ -0,0 +1,26 @@
+package com.example.demo.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Picked up by Spring Data by name and mixed into ProductRepository
+public class ProductProjectionQueriesImpl implements ProductProjectionQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findAllProjected(ProductFieldSet fields) {
+        // Scalar rows: no entities are instantiated, tracked for dirty checking, or hydrated
+        List<Object[]> rows = entityManager.createQuery(fields.getSelectAllJpql(), Object[].class).getResultList();
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(fields.toRow(row));
+        }
+        return result;
+    }
+}
@@ -8,11 +8,12 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductProjectionQueries {
 
     // Find product by product name (exact match)
     Optional<Product> findByProductName(String productName);
@@ -180,6 +181,17 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Optional<Integer> findStockQuantityByProductNameAndModel(@Param("productName") String productName,
                                                              @Param("model") String model);
 
+    // Name-only projection used by the bulk importer's duplicate check
+    @Query("SELECT p.productName FROM Product p")
+    List<String> findAllProductNames();
+
+    // (id, productName, model) for every product; loads ProductKeyIndex
+    @Query("SELECT p.id, p.productName, p.model FROM Product p")
+    List<Object[]> findAllNaturalKeys();
+
+    // Reload a committed import chunk for the change log
+    List<Product> findByProductNameIn(Collection<String> productNames);
+
     // Existing methods
 
     // Query for finding products with stock below threshold and specific status
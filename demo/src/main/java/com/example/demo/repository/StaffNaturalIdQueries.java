@@ -0,0 +1,15 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Staff;
+
+import java.util.Optional;
+
+// Custom fragment of StaffRepository: email lookups served from the second-level cache, and one that bypasses it
+public interface StaffNaturalIdQueries {
+
+    Optional<Staff> findByEmail(String email);
+
+    // Reads the row, never the cache: for login and authorization checks, which must see a status,
+    // password or email change committed by another instance
+    Optional<Staff> findByEmailUncached(String email);
+}
@@ -0,0 +1,38 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Staff;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+// Picked up by Spring Data by name; replaces the derived findByEmail query in StaffRepository
+public class StaffNaturalIdQueriesImpl implements StaffNaturalIdQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // SUPPORTS only keeps the session open for the lookup; a cache hit never takes a connection
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<Staff> findByEmail(String email) {
+        if (email == null) return Optional.empty();
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Staff.class).loadOptional(email);
+    }
+
+    // A query always goes to the database; REFRESH overwrites the cached entry with the row it read
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<Staff> findByEmailUncached(String email) {
+        if (email == null) return Optional.empty();
+        return entityManager.createQuery("SELECT s FROM Staff s WHERE s.email = :email", Staff.class)
+                .setParameter("email", email)
+                .setHint("jakarta.persistence.cache.storeMode", CacheStoreMode.REFRESH)
+                .getResultStream()
+                .findFirst();
+    }
+}
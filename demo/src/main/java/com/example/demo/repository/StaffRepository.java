@@ -9,10 +9,9 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface StaffRepository extends JpaRepository<Staff, Long> {
+public interface StaffRepository extends JpaRepository<Staff, Long>, StaffNaturalIdQueries {
 
-    // Custom method to find staff by email
-    Optional<Staff> findByEmail(String email);
+    // findByEmail(String) comes from StaffNaturalIdQueries (cached natural-id lookup)
 
     // Check if email exists
     boolean existsByEmail(String email);
@@ -35,4 +34,8 @@ public interface StaffRepository extends JpaRepository<Staff, Long> {
 
     @Query("SELECT s FROM Staff s WHERE LOWER(s.name) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(s.email) LIKE LOWER(CONCAT('%', :query, '%'))")
     List<Staff> findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(@Param("query") String nameQuery, @Param("query") String emailQuery);
+
+    // Email-only projection used to warm the email existence filter
+    @Query("SELECT s.email FROM Staff s")
+    List<String> findAllEmails();
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.StockLocation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockLocationRepository extends JpaRepository<StockLocation, Long> {
+
+    boolean existsByProductId(Long productId);
+
+    List<StockLocation> findByProductIdOrderByWarehouseIdAsc(Long productId);
+
+    // Every writer locks a product's rows in warehouse order first, so concurrent allocations,
+    // transfers and adjustments of one product serialize without deadlocking
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StockLocation s WHERE s.productId = :productId ORDER BY s.warehouseId")
+    List<StockLocation> lockByProductId(@Param("productId") Long productId);
+
+    // Deleting a product leaves its rows behind; only products that still exist are returned
+    @Query("SELECT DISTINCT s.productId FROM StockLocation s WHERE s.warehouseId = :warehouseId " +
+            "AND EXISTS (SELECT 1 FROM Product p WHERE p.id = s.productId) ORDER BY s.productId")
+    List<Long> findProductIdsByWarehouseId(@Param("warehouseId") Long warehouseId);
+
+    @Query("SELECT DISTINCT s.productId FROM StockLocation s WHERE s.productId IN :productIds")
+    List<Long> findLocatedProductIds(@Param("productIds") Collection<Long> productIds);
+
+    @Query("SELECT DISTINCT p.productName FROM Product p WHERE EXISTS " +
+            "(SELECT 1 FROM StockLocation s WHERE s.productId = p.id)")
+    List<String> findLocatedProductNames();
+}
@@ -0,0 +1,40 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.StockMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    // Reconciliation feed: everything since a point in time, in ledger order
+    List<StockMovement> findByCreatedDateGreaterThanEqualOrderByIdAsc(LocalDateTime since, Pageable pageable);
+
+    List<StockMovement> findByProductIdAndCreatedDateGreaterThanEqualOrderByIdAsc(Long productId,
+                                                                                 LocalDateTime since,
+                                                                                 Pageable pageable);
+
+    // Tail after a snapshot, bounded by the point in time being rebuilt
+    @Query("SELECT COALESCE(SUM(m.delta), 0) FROM StockMovement m " +
+            "WHERE m.productId = :productId AND m.id > :afterId AND m.createdDate <= :at")
+    Long sumDeltasAfter(@Param("productId") Long productId,
+                        @Param("afterId") Long afterId,
+                        @Param("at") LocalDateTime at);
+
+    Optional<StockMovement> findFirstByProductIdOrderByIdAsc(Long productId);
+
+    @Query("SELECT MAX(m.id) FROM StockMovement m")
+    Long findMaxId();
+
+    // Last movement per product in (fromId, toId] - its quantityAfter becomes the snapshot
+    @Query("SELECT m FROM StockMovement m WHERE m.id IN (" +
+            "SELECT MAX(m2.id) FROM StockMovement m2 WHERE m2.id > :fromId AND m2.id <= :toId GROUP BY m2.productId)")
+    List<StockMovement> findLastMovementPerProduct(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
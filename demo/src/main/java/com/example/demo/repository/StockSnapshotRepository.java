@@ -0,0 +1,20 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    // Served by idx_stock_snapshots_product_taken
+    Optional<StockSnapshot> findFirstByProductIdAndTakenAtLessThanEqualOrderByTakenAtDesc(Long productId,
+                                                                                         LocalDateTime at);
+
+    @Query("SELECT MAX(s.lastMovementId) FROM StockSnapshot s")
+    Long findMaxCompactedMovementId();
+}
@@ -0,0 +1,28 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.StockSubscription;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface StockSubscriptionRepository extends JpaRepository<StockSubscription, Long> {
+
+    boolean existsByProductIdAndUserEmail(Long productId, String userEmail);
+
+    long countByProductId(Long productId);
+
+    // Keyset page of a product's subscribers (idx_stock_subscriptions_product); no OFFSET scans on big lists
+    List<StockSubscription> findByProductIdAndIdGreaterThanOrderByIdAsc(Long productId, Long afterId, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StockSubscription s WHERE s.productId = :productId AND s.userEmail = :userEmail")
+    int deleteByProductIdAndUserEmail(@Param("productId") Long productId, @Param("userEmail") String userEmail);
+}
@@ -2,12 +2,18 @@ package com.example.demo.repository;
 
 import com.example.demo.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdQueries {
+    // findByEmail(String) comes from UserNaturalIdQueries (cached natural-id lookup)
     boolean existsByEmail(String email);
     Optional<User> findByEmailAndStatus(String email, String status);
+
+    // Email-only projection used to warm the email existence filter
+    @Query("SELECT u.email FROM User u")
+    List<String> findAllEmails();
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Warehouse;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WarehouseRepository extends JpaRepository<Warehouse, Long> {
+
+    Optional<Warehouse> findByCode(String code);
+
+    boolean existsByCode(String code);
+
+    List<Warehouse> findAllByOrderByCodeAsc();
+}
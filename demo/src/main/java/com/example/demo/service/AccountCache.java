@@ -0,0 +1,92 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Admin;
+import com.example.demo.model.Staff;
+import com.example.demo.model.User;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheableDataStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Eviction and hit ratios for the Hibernate second-level cache of Admin, Staff and User (see
+ * ehcache.xml). Hibernate already rewrites a cached entry when this instance updates the entity;
+ * the services still evict after every update and delete so that anything that bypassed the
+ * entity (a bulk JPQL update, a changed email leaving a stale natural id) is reloaded on the next
+ * lookup rather than served until the TTL.
+ *
+ * Eviction only reaches this instance. Decisions that must see another instance's change at once
+ * (login status and password, deleted accounts, profile ownership) therefore use the repositories'
+ * findByEmailUncached; the cache serves profile reads, which may lag by up to the 30 second TTL.
+ */
+@Service
+public class AccountCache {
+
+    public static final String ENTITY = "entity";
+    public static final String NATURAL_ID = "natural_id";
+
+    private static final List<Class<?>> ACCOUNT_TYPES = List.of(Admin.class, Staff.class, User.class);
+
+    private final SessionFactory sessionFactory;
+
+    public AccountCache(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        for (Class<?> type : ACCOUNT_TYPES) {
+            register(meterRegistry, type, ENTITY);
+            register(meterRegistry, type, NATURAL_ID);
+        }
+    }
+
+    public void evict(Class<?> type, Long id) {
+        org.hibernate.Cache cache = sessionFactory.getCache();
+        if (id != null) {
+            cache.evictEntityData(type, id);
+        }
+        // Natural ids are keyed by email, which the caller may just have changed: drop the region
+        cache.evictNaturalIdData(type);
+    }
+
+    // Hits over lookups since startup, or NaN before the first lookup
+    public double getHitRatio(Class<?> type, String region) {
+        CacheableDataStatistics statistics = statistics(type, region);
+        long hits = statistics.getCacheHitCount();
+        long lookups = hits + statistics.getCacheMissCount();
+        return lookups == 0 ? Double.NaN : (double) hits / lookups;
+    }
+
+    private CacheableDataStatistics statistics(Class<?> type, String region) {
+        Statistics statistics = sessionFactory.getStatistics();
+        return NATURAL_ID.equals(region)
+                ? statistics.getNaturalIdStatistics(type.getName())
+                : statistics.getEntityStatistics(type.getName());
+    }
+
+    private void register(MeterRegistry meterRegistry, Class<?> type, String region) {
+        String entity = type.getSimpleName().toLowerCase(Locale.ROOT);
+        Gauge.builder("inventory.account.cache.hit_ratio", this, cache -> cache.getHitRatio(type, region))
+                .tag("entity", entity)
+                .tag("region", region)
+                .description("Second-level cache hits over lookups for account entities")
+                .register(meterRegistry);
+        FunctionCounter.builder("inventory.account.cache", this,
+                        cache -> cache.statistics(type, region).getCacheHitCount())
+                .tag("entity", entity)
+                .tag("region", region)
+                .tag("result", "hit")
+                .description("Second-level cache lookups for account entities")
+                .register(meterRegistry);
+        FunctionCounter.builder("inventory.account.cache", this,
+                        cache -> cache.statistics(type, region).getCacheMissCount())
+                .tag("entity", entity)
+                .tag("region", region)
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+}
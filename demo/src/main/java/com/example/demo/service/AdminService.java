@@ -1,5 +1,7 @@
 package com.example.demo.service;
 
+import com.example.demo.diagnostics.EventLogger;
+import com.example.demo.diagnostics.InventoryEvents;
 import com.example.demo.model.Admin;
 import com.example.demo.repository.AdminRepository;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -13,10 +15,15 @@ public class AdminService {
 
     private final AdminRepository adminRepository;
     private final PasswordEncoder passwordEncoder;
+    private final EmailExistenceService emailExistenceService;
+    private final AccountCache accountCache;
 
-    public AdminService(AdminRepository adminRepository, PasswordEncoder passwordEncoder) {
+    public AdminService(AdminRepository adminRepository, PasswordEncoder passwordEncoder,
+                        EmailExistenceService emailExistenceService, AccountCache accountCache) {
         this.adminRepository = adminRepository;
         this.passwordEncoder = passwordEncoder;
+        this.emailExistenceService = emailExistenceService;
+        this.accountCache = accountCache;
     }
     // AdminService.java
     public boolean isAnyAdminExists() {
@@ -39,7 +46,9 @@ public class AdminService {
         // Encode password
         admin.setPassword(passwordEncoder.encode(admin.getPassword()));
 
-        return adminRepository.save(admin);
+        Admin savedAdmin = adminRepository.save(admin);
+        emailExistenceService.recordAdminEmail(savedAdmin.getEmail());
+        return savedAdmin;
     }
 
     public Admin updateAdmin(Long id, Admin adminDetails) {
@@ -51,6 +60,7 @@ public class AdminService {
                         throw new RuntimeException("Email already exists: " + adminDetails.getEmail());
                     }
 
+                    String oldEmail = admin.getEmail();
                     admin.setName(adminDetails.getName());
                     admin.setEmail(adminDetails.getEmail());
 
@@ -64,30 +74,53 @@ public class AdminService {
                     admin.setRightsPrivileges(adminDetails.getRightsPrivileges());
                     admin.setStatus(adminDetails.getStatus());
 
-
-                    return adminRepository.save(admin);
+                    Admin savedAdmin = adminRepository.save(admin);
+                    accountCache.evict(Admin.class, savedAdmin.getId());
+                    if (!oldEmail.equals(savedAdmin.getEmail())) {
+                        emailExistenceService.forgetAdminEmail(oldEmail);
+                        emailExistenceService.recordAdminEmail(savedAdmin.getEmail());
+                    }
+                    return savedAdmin;
                 })
                 .orElse(null);
     }
 
     public boolean deleteAdmin(Long id) {
-        if (adminRepository.existsById(id)) {
+        Optional<Admin> admin = adminRepository.findById(id);
+        if (admin.isPresent()) {
             adminRepository.deleteById(id);
+            accountCache.evict(Admin.class, id);
+            emailExistenceService.forgetAdminEmail(admin.get().getEmail());
             return true;
         }
         return false;
     }
 
     public boolean isEmailExists(String email) {
-        return adminRepository.existsByEmail(email);
+        return emailExistenceService.adminEmailExists(email);
     }
 
     public Optional<Admin> findByEmail(String email) {
         return adminRepository.findByEmail(email);
     }
 
+    // Login reads status from the row, not the per-instance cache (see AccountCache)
+    public Optional<Admin> findByEmailUncached(String email) {
+        return adminRepository.findByEmailUncached(email);
+    }
+
     public boolean verifyAdminCredentials(String email, String password) {
-        Optional<Admin> admin = adminRepository.findByEmail(email);
-        return admin.map(a -> passwordEncoder.matches(password, a.getPassword())).orElse(false);
+        Optional<Admin> admin = adminRepository.findByEmailUncached(email);
+        InventoryEvents.PasswordVerification event = new InventoryEvents.PasswordVerification();
+        event.begin();
+        boolean matched = admin.map(a -> passwordEncoder.matches(password, a.getPassword())).orElse(false);
+        event.end();
+        if (event.shouldCommit()) {
+            event.accountType = "ADMIN";
+            event.email = EventLogger.maskEmail(email);
+            event.matched = matched;
+            event.commit();
+        }
+        return matched;
     }
 }
\ No newline at end of file
@@ -0,0 +1,231 @@
+package com.example.demo.service;
+
+import com.example.demo.diagnostics.EventLogger;
+import com.example.demo.model.Product;
+import com.example.demo.model.StockSubscription;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.repository.StockSubscriptionRepository;
+import com.example.demo.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Tell me when it's back" subscriptions. When a product's stock goes from zero to positive the
+ * stock writer calls onBackInStock(), which only queues the product and returns. A background
+ * thread then pages through the subscribers by id and mails them in batches through a token
+ * bucket, so even a six-figure subscriber list neither holds up the replenish request nor floods
+ * the SMTP relay. Subscriptions are deleted as their batch is accepted by the relay; if the
+ * product sells out again mid-way, the rest keep waiting for the next restock.
+ */
+@Service
+public class BackInStockService {
+
+    private final StockSubscriptionRepository subscriptionRepository;
+    private final ProductRepository productRepository;
+    private final EmailService emailService;
+    private final EventLogger eventLogger;
+    private final TokenBucket mailRate;
+    private final int pageSize;
+    private final int batchSize;
+
+    private final Counter fanOutsStarted;
+    private final Counter fanOutsCoalesced;
+    private final Counter notificationsSent;
+    private final Counter notificationsFailed;
+
+    // Products with a fan-out queued or running; another restock of the same product joins that run
+    private final Set<Long> pendingProducts = ConcurrentHashMap.newKeySet();
+    // Restocks that joined a run after it started. The run may already have stopped as sold out, so
+    // it is followed by one more; that costs a page read when the first run had mailed everyone.
+    private final Set<Long> restockedDuringRun = ConcurrentHashMap.newKeySet();
+    // One fan-out at a time: the relay's rate is the bottleneck, parallel runs would only share it
+    private final ExecutorService fanOutExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "back-in-stock-fanout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BackInStockService(StockSubscriptionRepository subscriptionRepository,
+                              ProductRepository productRepository,
+                              EmailService emailService,
+                              MeterRegistry meterRegistry,
+                              EventLogger eventLogger,
+                              @Value("${backinstock.page-size:1000}") int pageSize,
+                              @Value("${backinstock.mail.batch-size:50}") int batchSize,
+                              @Value("${backinstock.mail.rate-per-second:20}") double ratePerSecond) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.productRepository = productRepository;
+        this.emailService = emailService;
+        this.eventLogger = eventLogger;
+        this.pageSize = pageSize;
+        this.batchSize = batchSize;
+        this.mailRate = new TokenBucket(ratePerSecond, batchSize);
+        this.fanOutsStarted = Counter.builder("inventory.back_in_stock.fanouts")
+                .tag("outcome", "started")
+                .description("Back-in-stock fan-outs triggered by a restock")
+                .register(meterRegistry);
+        this.fanOutsCoalesced = Counter.builder("inventory.back_in_stock.fanouts")
+                .tag("outcome", "coalesced")
+                .register(meterRegistry);
+        this.notificationsSent = Counter.builder("inventory.back_in_stock.notifications")
+                .tag("outcome", "sent")
+                .description("Back-in-stock emails handed to the mail relay")
+                .register(meterRegistry);
+        this.notificationsFailed = Counter.builder("inventory.back_in_stock.notifications")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+    }
+
+    // Only products that are out of stock can be watched
+    public StockSubscription subscribe(Long productId, String userEmail) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found with ID: " + productId));
+        if (product.getUnitStockQuantity() != null && product.getUnitStockQuantity() > 0) {
+            throw new RuntimeException("Product '" + product.getProductName() + "' is in stock");
+        }
+        if (subscriptionRepository.existsByProductIdAndUserEmail(productId, userEmail)) {
+            return null;
+        }
+        try {
+            return subscriptionRepository.save(new StockSubscription(productId, userEmail));
+        } catch (DataIntegrityViolationException e) {
+            // Double submit raced past the exists check; the unique key kept one row
+            return null;
+        }
+    }
+
+    public boolean unsubscribe(Long productId, String userEmail) {
+        return subscriptionRepository.deleteByProductIdAndUserEmail(productId, userEmail) > 0;
+    }
+
+    public long getSubscriberCount(Long productId) {
+        return subscriptionRepository.countByProductId(productId);
+    }
+
+    // Called on a zero-to-positive stock transition; never blocks the caller
+    public void onBackInStock(Product product) {
+        Long productId = product.getId();
+        if (!pendingProducts.add(productId)) {
+            restockedDuringRun.add(productId);
+            fanOutsCoalesced.increment();
+            return;
+        }
+        submit(productId);
+    }
+
+    private void submit(Long productId) {
+        fanOutsStarted.increment();
+        try {
+            fanOutExecutor.submit(() -> {
+                // Restocks while the run was still queued are covered by the run itself
+                restockedDuringRun.remove(productId);
+                try {
+                    fanOut(productId);
+                } catch (Exception e) {
+                    eventLogger.error("back_in_stock_fanout_failed", "productId", productId, "error", e);
+                } finally {
+                    finishRun(productId);
+                }
+            });
+        } catch (RuntimeException e) {
+            pendingProducts.remove(productId);
+            throw e;
+        }
+    }
+
+    // Release the product before checking for a late restock: one that arrives after the remove
+    // starts its own run, one that arrived before it is picked up here
+    private void finishRun(Long productId) {
+        pendingProducts.remove(productId);
+        if (!restockedDuringRun.remove(productId) || !pendingProducts.add(productId)) {
+            return;
+        }
+        try {
+            submit(productId);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the subscriptions stay for the next restock
+            eventLogger.warn("back_in_stock_rerun_rejected", "productId", productId);
+        }
+    }
+
+    // Returns the number of subscribers notified
+    int fanOut(Long productId) throws InterruptedException {
+        long started = System.currentTimeMillis();
+        long afterId = 0;
+        int notified = 0;
+        String stopReason = "done";
+
+        while (true) {
+            // Re-read per page: a long fan-out must stop once the product is gone again
+            Product product = productRepository.findById(productId).orElse(null);
+            if (product == null || product.getUnitStockQuantity() == null || product.getUnitStockQuantity() <= 0) {
+                stopReason = "sold_out";
+                break;
+            }
+            List<StockSubscription> page = subscriptionRepository.findByProductIdAndIdGreaterThanOrderByIdAsc(
+                    productId, afterId, PageRequest.of(0, pageSize));
+            if (page.isEmpty()) {
+                break;
+            }
+
+            for (int from = 0; from < page.size(); from += batchSize) {
+                List<StockSubscription> batch = page.subList(from, Math.min(from + batchSize, page.size()));
+                List<String> recipients = new ArrayList<>(batch.size());
+                List<Long> ids = new ArrayList<>(batch.size());
+                for (StockSubscription subscription : batch) {
+                    recipients.add(subscription.getUserEmail());
+                    ids.add(subscription.getId());
+                }
+
+                mailRate.acquire(batch.size());
+                try {
+                    emailService.sendBackInStockBatch(product, recipients);
+                } catch (Exception e) {
+                    // Relay trouble: keep everyone not yet mailed subscribed for the next restock
+                    notificationsFailed.increment(batch.size());
+                    eventLogger.warn("back_in_stock_batch_failed", "productId", productId,
+                            "recipients", batch.size(), "error", e.getMessage());
+                    return finish(productId, notified, "mail_failure", started);
+                }
+                subscriptionRepository.deleteAllByIdInBatch(ids);
+                notificationsSent.increment(batch.size());
+                notified += batch.size();
+            }
+            afterId = page.get(page.size() - 1).getId();
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+        return finish(productId, notified, stopReason, started);
+    }
+
+    private int finish(Long productId, int notified, String stopReason, long started) {
+        eventLogger.info("back_in_stock_fanout", "productId", productId, "notified", notified,
+                "stopReason", stopReason, "durationMs", System.currentTimeMillis() - started);
+        return notified;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOutExecutor.shutdownNow();
+        try {
+            fanOutExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
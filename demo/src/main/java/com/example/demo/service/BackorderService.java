@@ -0,0 +1,279 @@
+package com.example.demo.service;
+
+import com.example.demo.diagnostics.EventLogger;
+import com.example.demo.model.Backorder;
+import com.example.demo.model.OrderLine;
+import com.example.demo.model.Product;
+import com.example.demo.repository.BackorderRepository;
+import com.example.demo.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Per-product FIFO queue of demand that could not be filled at checkout. Whenever stock is added
+ * the queue is drained from the head in one transaction: one lock on the product, one stock
+ * decrement for everything filled, one bulk status update. The drain stops at the first backorder
+ * the remaining stock cannot cover (strict FIFO, no overtaking) and never reads more rows than it
+ * has units to hand out, so a deep queue on one SKU costs replenishment nothing beyond the orders
+ * it actually fills.
+ */
+@Service
+public class BackorderService {
+
+    private static final int IN_CLAUSE_CHUNK = 1000;
+
+    private static final String LOCK_PRODUCT_SQL =
+            "SELECT unit_stock_quantity FROM products WHERE id = ? FOR UPDATE";
+    // total_price first: MySQL applies SET assignments left to right against the updated row
+    private static final String TAKE_STOCK_SQL =
+            "UPDATE products SET total_price = price_per_quantity * (unit_stock_quantity - ?), " +
+                    "unit_stock_quantity = unit_stock_quantity - ?, updated_date = ?, version = version + 1 WHERE id = ?";
+
+    private final BackorderRepository backorderRepository;
+    private final ProductRepository productRepository;
+    private final StockLocationService stockLocationService;
+    private final StockLedgerService stockLedgerService;
+    private final OrderService orderService;
+    private final EmailService emailService;
+    private final ProductChangeBus changeBus;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EventLogger eventLogger;
+
+    private final Counter backordersPlaced;
+    private final Counter backordersFulfilled;
+    private final Counter backordersCancelled;
+
+    @Value("${backorder.enabled:false}")
+    private boolean enabled;
+
+    // Upper bound on queue rows fetched per round trip while draining
+    @Value("${backorder.drain.page-size:200}")
+    private int drainPageSize;
+
+    public BackorderService(BackorderRepository backorderRepository,
+                            ProductRepository productRepository,
+                            StockLocationService stockLocationService,
+                            StockLedgerService stockLedgerService,
+                            OrderService orderService,
+                            EmailService emailService,
+                            ProductChangeBus changeBus,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            EventLogger eventLogger) {
+        this.backorderRepository = backorderRepository;
+        this.productRepository = productRepository;
+        this.stockLocationService = stockLocationService;
+        this.stockLedgerService = stockLedgerService;
+        this.orderService = orderService;
+        this.emailService = emailService;
+        this.changeBus = changeBus;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventLogger = eventLogger;
+        this.backordersPlaced = Counter.builder("inventory.backorders")
+                .tag("event", "placed")
+                .description("Backorder lifecycle events")
+                .register(meterRegistry);
+        this.backordersFulfilled = Counter.builder("inventory.backorders")
+                .tag("event", "fulfilled")
+                .register(meterRegistry);
+        this.backordersCancelled = Counter.builder("inventory.backorders")
+                .tag("event", "cancelled")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Queue the whole line; it is filled as one unit, never partially
+    public Backorder place(Long productId, String userEmail, int quantity) {
+        if (!enabled) {
+            throw new RuntimeException("Backorders are not enabled");
+        }
+        if (quantity <= 0) {
+            throw new RuntimeException("Backorder quantity must be greater than 0");
+        }
+        Backorder saved = backorderRepository.save(new Backorder(productId, userEmail, quantity));
+        backordersPlaced.increment();
+        eventLogger.info("backorder_placed", "backorderId", saved.getId(), "productId", productId,
+                "quantity", quantity, "user", EventLogger.maskEmail(userEmail));
+        return saved;
+    }
+
+    public List<Backorder> getPendingBackorders(String userEmail) {
+        return backorderRepository.findByUserEmailAndStatusOrderByIdAsc(userEmail, Backorder.STATUS_PENDING);
+    }
+
+    // Takes the product lock first so a cancel cannot interleave with a drain that already picked the row
+    public boolean cancel(Long backorderId, String userEmail) {
+        Backorder backorder = backorderRepository.findById(backorderId).orElse(null);
+        if (backorder == null || !backorder.getUserEmail().equals(userEmail)) {
+            return false;
+        }
+        Integer cancelled = transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForList(LOCK_PRODUCT_SQL, Integer.class, backorder.getProductId());
+            return backorderRepository.cancel(backorderId, userEmail);
+        });
+        if (cancelled == null || cancelled == 0) {
+            return false;
+        }
+        backordersCancelled.increment();
+        eventLogger.info("backorder_cancelled", "backorderId", backorderId, "productId", backorder.getProductId());
+        return true;
+    }
+
+    // Fill as much of the product's queue as its current stock allows; returns the backorders filled
+    public int drain(Long productId) {
+        // Cheap index probe: replenishing a product nobody is waiting for costs one lookup
+        if (!backorderRepository.existsByProductIdAndStatus(productId, Backorder.STATUS_PENDING)) {
+            return 0;
+        }
+
+        List<Backorder> filled = transactionTemplate.execute(status -> {
+            List<Integer> stock = jdbcTemplate.queryForList(LOCK_PRODUCT_SQL, Integer.class, productId);
+            if (stock.isEmpty()) {
+                return List.<Backorder>of();
+            }
+            // Decided under the product lock, which location initialization also takes
+            boolean located = stockLocationService.hasLocations(productId);
+            int available = located ? stockLocationService.lockAllocatable(productId)
+                    : (stock.get(0) != null ? stock.get(0) : 0);
+
+            List<Backorder> taken = takeFromHead(productId, available);
+            if (taken.isEmpty()) {
+                return taken;
+            }
+
+            int units = 0;
+            List<Long> ids = new ArrayList<>(taken.size());
+            for (Backorder backorder : taken) {
+                units += backorder.getQuantity();
+                ids.add(backorder.getId());
+            }
+            if (located) {
+                // Joins this transaction; the whole batch ships as one allocation
+                stockLocationService.allocate(productId, units, null);
+            } else {
+                jdbcTemplate.update(TAKE_STOCK_SQL, units, units, Timestamp.valueOf(LocalDateTime.now()), productId);
+                // afterDrain and the replenishing caller read the product back; see refreshProduct
+                stockLocationService.refreshProduct(productId);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK) {
+                backorderRepository.markFulfilled(ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK, ids.size())), now);
+            }
+            return taken;
+        });
+
+        if (filled == null || filled.isEmpty()) {
+            return 0;
+        }
+        afterDrain(productId, filled);
+        return filled.size();
+    }
+
+    // Drain every listed product that has someone waiting (bulk adjustments)
+    public int drainAll(Collection<Long> productIds) {
+        List<Long> ids = new ArrayList<>(productIds);
+        List<Long> waiting = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK) {
+            waiting.addAll(backorderRepository.findPendingProductIds(
+                    ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK, ids.size()))));
+        }
+        return drainEach(waiting);
+    }
+
+    // Same, keyed by product name (bulk import upserts)
+    public int drainByProductNames(Collection<String> productNames) {
+        List<String> names = new ArrayList<>(productNames);
+        List<Long> waiting = new ArrayList<>();
+        for (int from = 0; from < names.size(); from += IN_CLAUSE_CHUNK) {
+            waiting.addAll(backorderRepository.findPendingProductIdsByProductNames(
+                    names.subList(from, Math.min(from + IN_CLAUSE_CHUNK, names.size()))));
+        }
+        return drainEach(waiting);
+    }
+
+    private int drainEach(List<Long> productIds) {
+        int filled = 0;
+        for (Long productId : productIds) {
+            try {
+                filled += drain(productId);
+            } catch (Exception e) {
+                eventLogger.error("backorder_drain_failed", "productId", productId, "error", e);
+            }
+        }
+        return filled;
+    }
+
+    // Walks the queue in id order. Every backorder is at least one unit, so asking for no more rows
+    // than there are units left bounds the read by what can actually be filled.
+    private List<Backorder> takeFromHead(Long productId, int available) {
+        List<Backorder> taken = new ArrayList<>();
+        int remaining = available;
+        long afterId = 0;
+        while (remaining > 0) {
+            int limit = Math.min(drainPageSize, remaining);
+            List<Backorder> page = backorderRepository.lockPendingAfter(productId, afterId, PageRequest.of(0, limit));
+            for (Backorder backorder : page) {
+                if (backorder.getQuantity() > remaining) {
+                    return taken;
+                }
+                taken.add(backorder);
+                remaining -= backorder.getQuantity();
+                afterId = backorder.getId();
+            }
+            if (page.size() < limit) {
+                break;
+            }
+        }
+        return taken;
+    }
+
+    // Ledger, order journal and notifications happen after commit, once per drain and once per customer
+    private void afterDrain(Long productId, List<Backorder> filled) {
+        Product product = productRepository.findById(productId).orElse(null);
+        int units = filled.stream().mapToInt(Backorder::getQuantity).sum();
+        if (product != null) {
+            stockLedgerService.record(productId, -units, product.getUnitStockQuantity(), StockLedgerService.REASON_ORDER);
+        }
+        backordersFulfilled.increment(filled.size());
+        eventLogger.info("backorders_fulfilled", "productId", productId, "backorders", filled.size(), "units", units,
+                "stockAfter", product != null ? product.getUnitStockQuantity() : null);
+        if (product == null) {
+            return;
+        }
+        changeBus.publish(product);
+
+        Map<String, List<OrderLine>> linesByUser = new LinkedHashMap<>();
+        Map<String, Integer> unitsByUser = new LinkedHashMap<>();
+        for (Backorder backorder : filled) {
+            linesByUser.computeIfAbsent(backorder.getUserEmail(), email -> new ArrayList<>())
+                    .add(new OrderLine(productId, product.getProductName(), product.getModel(),
+                            backorder.getQuantity(), product.getPricePerQuantity()));
+            unitsByUser.merge(backorder.getUserEmail(), backorder.getQuantity(), Integer::sum);
+        }
+        for (Map.Entry<String, List<OrderLine>> entry : linesByUser.entrySet()) {
+            try {
+                orderService.recordOrder(entry.getKey(), entry.getValue());
+            } catch (Exception e) {
+                // Stock is already taken; a journal failure must not undo the fill
+                eventLogger.error("order_journal_failed", "user", EventLogger.maskEmail(entry.getKey()), "error", e);
+            }
+        }
+        emailService.sendBackordersFulfilled(product, unitsByUser);
+    }
+}
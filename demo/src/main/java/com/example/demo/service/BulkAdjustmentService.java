@@ -0,0 +1,219 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Product;
+import com.example.demo.model.StockAdjustment;
+import com.example.demo.repository.ProductRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Applies thousands of stock/price changes (cycle counts, price lists) in one transaction.
+ * Rows are locked with one SELECT ... FOR UPDATE per id chunk, written with a single JDBC
+ * batch, totals are recomputed set-based in SQL, and low stock is evaluated once at the end.
+ */
+@Service
+public class BulkAdjustmentService {
+
+    public static final int MAX_ADJUSTMENTS = 10000;
+    private static final int IN_CLAUSE_CHUNK = 1000;
+    private static final int MAX_STOCK = 100000;
+
+    private static final String LOCK_SQL =
+            "SELECT id, unit_stock_quantity FROM products WHERE id IN (:ids) FOR UPDATE";
+    private static final String UPDATE_SQL =
+            "UPDATE products SET unit_stock_quantity = ?, price_per_quantity = COALESCE(?, price_per_quantity), " +
+                    "updated_date = ?, version = version + 1 WHERE id = ?";
+    private static final String RECOMPUTE_TOTAL_SQL =
+            "UPDATE products SET total_price = price_per_quantity * unit_stock_quantity WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final StockLedgerService stockLedgerService;
+    private final StockLocationService stockLocationService;
+    private final BackorderService backorderService;
+    private final ProductChangeBus changeBus;
+
+    public BulkAdjustmentService(JdbcTemplate jdbcTemplate,
+                                 NamedParameterJdbcTemplate namedJdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 ProductRepository productRepository,
+                                 ProductService productService,
+                                 StockLedgerService stockLedgerService,
+                                 StockLocationService stockLocationService,
+                                 BackorderService backorderService,
+                                 ProductChangeBus changeBus) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.stockLedgerService = stockLedgerService;
+        this.stockLocationService = stockLocationService;
+        this.backorderService = backorderService;
+        this.changeBus = changeBus;
+    }
+
+    public Map<String, Object> applyAdjustments(List<StockAdjustment> adjustments) {
+        List<String> failures = new ArrayList<>();
+        Map<Long, StockAdjustment> byId = new LinkedHashMap<>();
+        for (StockAdjustment adjustment : adjustments) {
+            String problem = checkShape(adjustment);
+            if (problem != null) {
+                failures.add(problem);
+            } else if (byId.putIfAbsent(adjustment.getId(), adjustment) != null) {
+                failures.add("Product " + adjustment.getId() + ": listed more than once");
+            }
+        }
+        if (!failures.isEmpty()) {
+            return failureResult(failures);
+        }
+
+        Map<Long, Integer> oldStock = new HashMap<>();
+        Map<Long, Integer> newStock = new HashMap<>();
+
+        Boolean committed = transactionTemplate.execute(status -> {
+            List<Long> ids = new ArrayList<>(byId.keySet());
+
+            for (List<Long> chunk : chunks(ids)) {
+                namedJdbcTemplate.query(LOCK_SQL, new MapSqlParameterSource("ids", chunk),
+                        (RowCallbackHandler) rs -> oldStock.put(rs.getLong("id"), rs.getInt("unit_stock_quantity")));
+            }
+            Set<Long> located = new HashSet<>();
+            for (List<Long> chunk : chunks(ids)) {
+                located.addAll(stockLocationService.findLocatedProductIds(chunk));
+            }
+
+            for (StockAdjustment adjustment : byId.values()) {
+                Integer current = oldStock.get(adjustment.getId());
+                if (current == null) {
+                    failures.add("Product " + adjustment.getId() + ": not found");
+                    continue;
+                }
+                int target = adjustment.getNewStock() != null ? adjustment.getNewStock()
+                        : current + (adjustment.getDelta() != null ? adjustment.getDelta() : 0);
+                if (target != current && located.contains(adjustment.getId())) {
+                    failures.add("Product " + adjustment.getId() + ": stock is held per warehouse; " +
+                            "adjust it through the warehouse stock endpoints");
+                    continue;
+                }
+                if (target < 0 || target > MAX_STOCK) {
+                    failures.add("Product " + adjustment.getId() + ": resulting stock " + target +
+                            " is outside 0.." + MAX_STOCK);
+                    continue;
+                }
+                newStock.put(adjustment.getId(), target);
+            }
+
+            // All-or-nothing: one bad line rejects the whole sheet
+            if (!failures.isEmpty()) {
+                status.setRollbackOnly();
+                return false;
+            }
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<StockAdjustment> rows = new ArrayList<>(byId.values());
+            jdbcTemplate.batchUpdate(UPDATE_SQL, rows, rows.size(), (ps, adjustment) -> {
+                ps.setInt(1, newStock.get(adjustment.getId()));
+                if (adjustment.getNewPrice() != null) {
+                    ps.setDouble(2, adjustment.getNewPrice());
+                } else {
+                    ps.setNull(2, java.sql.Types.DOUBLE);
+                }
+                ps.setTimestamp(3, now);
+                ps.setLong(4, adjustment.getId());
+            });
+
+            for (List<Long> chunk : chunks(ids)) {
+                namedJdbcTemplate.update(RECOMPUTE_TOTAL_SQL, new MapSqlParameterSource("ids", chunk));
+            }
+            return true;
+        });
+
+        if (!Boolean.TRUE.equals(committed)) {
+            return failureResult(failures);
+        }
+
+        for (Map.Entry<Long, Integer> entry : newStock.entrySet()) {
+            int delta = entry.getValue() - oldStock.get(entry.getKey());
+            stockLedgerService.record(entry.getKey(), delta, entry.getValue(), StockLedgerService.REASON_ADJUSTMENT);
+        }
+
+        // Raised stock fills waiting backorders before the low-stock pass looks at the result
+        List<Long> raised = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : newStock.entrySet()) {
+            if (entry.getValue() > oldStock.get(entry.getKey())) raised.add(entry.getKey());
+        }
+        int backordersFilled = 0;
+        if (!raised.isEmpty()) {
+            try {
+                backordersFilled = backorderService.drainAll(raised);
+            } catch (Exception e) {
+                System.err.println("⚠ Backorder drain after bulk adjustment failed: " + e.getMessage());
+            }
+        }
+
+        // Single aggregated low-stock pass over everything that changed
+        List<Product> changed = new ArrayList<>();
+        for (List<Long> chunk : chunks(new ArrayList<>(newStock.keySet()))) {
+            changed.addAll(productRepository.findAllById(chunk));
+        }
+        int lowStockAlerts = productService.evaluateLowStockBatch(changed);
+        changed.forEach(changeBus::publish);
+
+        System.out.println("📋 Bulk adjustment applied to " + newStock.size() + " products | New low stock alerts: " +
+                lowStockAlerts);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("updatedCount", newStock.size());
+        result.put("lowStockAlerts", lowStockAlerts);
+        result.put("backordersFilled", backordersFilled);
+        return result;
+    }
+
+    private String checkShape(StockAdjustment adjustment) {
+        if (adjustment == null || adjustment.getId() == null) {
+            return "Entry without product id";
+        }
+        if (adjustment.getNewStock() != null && adjustment.getDelta() != null) {
+            return "Product " + adjustment.getId() + ": give either newStock or delta, not both";
+        }
+        if (adjustment.getNewStock() == null && adjustment.getDelta() == null && adjustment.getNewPrice() == null) {
+            return "Product " + adjustment.getId() + ": nothing to change";
+        }
+        // Same bounds as the Product bean constraints; list element annotations are not always cascaded
+        if (adjustment.getNewPrice() != null &&
+                (adjustment.getNewPrice() < 0.01 || adjustment.getNewPrice() > 1000000.00)) {
+            return "Product " + adjustment.getId() + ": price must be between 0.01 and 1,000,000.00";
+        }
+        return null;
+    }
+
+    private Map<String, Object> failureResult(List<String> failures) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", false);
+        result.put("updatedCount", 0);
+        result.put("failures", failures);
+        return result;
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += IN_CLAUSE_CHUNK) {
+            chunks.add(ids.subList(i, Math.min(i + IN_CLAUSE_CHUNK, ids.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.AdminRepository;
+import com.example.demo.repository.StaffRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.util.BloomFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Answers "is this email registered?" for the check-email endpoints without hitting MySQL
+ * on every keystroke. A Bloom filter per account table gives definite negatives, a small
+ * positive cache short-circuits known emails, and only "maybe" answers fall through to
+ * existsByEmail. The services keep it current through the record/forget hooks below.
+ */
+@Service
+public class EmailExistenceService implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final AccountEmailIndex userIndex;
+    private final AccountEmailIndex staffIndex;
+    private final AccountEmailIndex adminIndex;
+
+    public EmailExistenceService(UserRepository userRepository,
+                                 StaffRepository staffRepository,
+                                 AdminRepository adminRepository,
+                                 @Value("${email.existence.expected-entries:100000}") long expectedEntries,
+                                 @Value("${email.existence.false-positive-rate:0.01}") double falsePositiveRate,
+                                 @Value("${email.existence.positive-cache-size:10000}") int positiveCacheSize) {
+        this.userIndex = new AccountEmailIndex("users", userRepository::findAllEmails, userRepository::existsByEmail,
+                expectedEntries, falsePositiveRate, positiveCacheSize);
+        this.staffIndex = new AccountEmailIndex("staff", staffRepository::findAllEmails, staffRepository::existsByEmail,
+                expectedEntries, falsePositiveRate, positiveCacheSize);
+        this.adminIndex = new AccountEmailIndex("admins", adminRepository::findAllEmails, adminRepository::existsByEmail,
+                expectedEntries, falsePositiveRate, positiveCacheSize);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        rebuildAll();
+    }
+
+    // Rebuild nightly so bits left behind by deleted or changed emails are dropped
+    @Scheduled(cron = "0 30 0 * * ?")
+    public void rebuildAll() {
+        userIndex.rebuild();
+        staffIndex.rebuild();
+        adminIndex.rebuild();
+    }
+
+    public boolean userEmailExists(String email) {
+        return userIndex.exists(email);
+    }
+
+    public boolean staffEmailExists(String email) {
+        return staffIndex.exists(email);
+    }
+
+    public boolean adminEmailExists(String email) {
+        return adminIndex.exists(email);
+    }
+
+    // Registration / email-change hooks
+
+    public void recordUserEmail(String email) {
+        userIndex.record(email);
+    }
+
+    public void forgetUserEmail(String email) {
+        userIndex.forget(email);
+    }
+
+    public void recordStaffEmail(String email) {
+        staffIndex.record(email);
+    }
+
+    public void forgetStaffEmail(String email) {
+        staffIndex.forget(email);
+    }
+
+    public void recordAdminEmail(String email) {
+        adminIndex.record(email);
+    }
+
+    public void forgetAdminEmail(String email) {
+        adminIndex.forget(email);
+    }
+
+    private static String normalize(String email) {
+        // MySQL's default collation compares emails case-insensitively, so the filter must too
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class AccountEmailIndex {
+
+        private final String table;
+        private final Supplier<List<String>> loader;
+        private final Predicate<String> databaseCheck;
+        private final long expectedEntries;
+        private final double falsePositiveRate;
+        private final int positiveCacheSize;
+
+        private final Set<String> positives = ConcurrentHashMap.newKeySet();
+        private volatile BloomFilter filter;
+        private volatile boolean ready = false;
+
+        AccountEmailIndex(String table, Supplier<List<String>> loader, Predicate<String> databaseCheck,
+                          long expectedEntries, double falsePositiveRate, int positiveCacheSize) {
+            this.table = table;
+            this.loader = loader;
+            this.databaseCheck = databaseCheck;
+            this.expectedEntries = expectedEntries;
+            this.falsePositiveRate = falsePositiveRate;
+            this.positiveCacheSize = positiveCacheSize;
+            this.filter = new BloomFilter(expectedEntries, falsePositiveRate);
+        }
+
+        void rebuild() {
+            try {
+                List<String> emails = loader.get();
+                BloomFilter fresh = new BloomFilter(Math.max(expectedEntries, emails.size() * 2L), falsePositiveRate);
+                for (String email : emails) {
+                    if (email != null) fresh.put(normalize(email));
+                }
+                // Emails recorded while the snapshot was loading are carried over through the positive cache
+                for (String email : positives) {
+                    fresh.put(email);
+                }
+                filter = fresh;
+                ready = true;
+                System.out.println("✅ Email existence filter built for " + table + ": " + emails.size() + " emails");
+            } catch (Exception e) {
+                ready = false;
+                System.err.println("⚠ Email existence filter unavailable for " + table + ", falling back to DB: " + e.getMessage());
+            }
+        }
+
+        boolean exists(String email) {
+            String key = normalize(email);
+            if (key == null || key.isEmpty()) return false;
+
+            // Positives first: a registration racing a rebuild is always in the cache, maybe not the new filter
+            if (positives.contains(key)) return true;
+            if (ready && !filter.mightContain(key)) return false;
+
+            boolean exists = databaseCheck.test(email);
+            if (exists) cachePositive(key);
+            return exists;
+        }
+
+        void record(String email) {
+            String key = normalize(email);
+            if (key == null || key.isEmpty()) return;
+            filter.put(key);
+            cachePositive(key);
+        }
+
+        void forget(String email) {
+            String key = normalize(email);
+            if (key == null) return;
+            // Bloom bits cannot be cleared; dropping the positive makes the next check go to the DB
+            positives.remove(key);
+        }
+
+        private void cachePositive(String key) {
+            if (positives.size() >= positiveCacheSize) {
+                positives.clear();
+            }
+            positives.add(key);
+        }
+    }
+}
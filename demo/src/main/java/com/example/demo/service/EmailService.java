@@ -1,14 +1,22 @@
 package com.example.demo.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import com.example.demo.config.AsyncConfig;
+import com.example.demo.diagnostics.InventoryEvents;
 import com.example.demo.model.Product;
 import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -28,11 +36,15 @@ public class EmailService {
     @Value("${app.url:http://localhost:3000}")
     private String appUrl;
 
-    public EmailService(JavaMailSender mailSender) {
+    private final MeterRegistry meterRegistry;
+
+    public EmailService(JavaMailSender mailSender, MeterRegistry meterRegistry) {
         this.mailSender = mailSender;
+        this.meterRegistry = meterRegistry;
     }
 
     // Low Stock Alert - REMOVED THRESHOLD CHECK HERE
+    @Async(AsyncConfig.MAIL_EXECUTOR)
     public void sendLowStockAlert(Product product) {
         if (product == null || product.getUnitStockQuantity() == null) {
             System.err.println("❌ Product or stock quantity is null - email not sent");
@@ -49,7 +61,7 @@ public class EmailService {
             String emailContent = buildLowStockEmailContent(product);
             helper.setText(emailContent, true);
 
-            mailSender.send(message);
+            deliver(message, "low_stock");
             System.out.println("✅ Low stock alert sent for: " + product.getProductName() +
                     " | Stock: " + product.getUnitStockQuantity());
 
@@ -60,7 +72,35 @@ public class EmailService {
         }
     }
 
+    // One low stock email covering many products (bulk adjustments)
+    @Async(AsyncConfig.MAIL_EXECUTOR)
+    public void sendLowStockDigest(List<Product> products) {
+        if (products == null || products.isEmpty()) {
+            return;
+        }
+
+        try {
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+            helper.setTo(adminEmail);
+            helper.setSubject("🚨 Low Stock Alert: " + products.size() + " products");
+
+            String emailContent = buildLowStockDigestEmailContent(products);
+            helper.setText(emailContent, true);
+
+            deliver(message, "low_stock_digest");
+            System.out.println("✅ Low stock digest sent for " + products.size() + " products");
+
+        } catch (MessagingException e) {
+            System.err.println("❌ Failed to send low stock digest: " + e.getMessage());
+        } catch (Exception e) {
+            System.err.println("❌ Unexpected mail error: " + e.getMessage());
+        }
+    }
+
     // Order Confirmation
+    @Async(AsyncConfig.MAIL_EXECUTOR)
     public void sendOrderConfirmation(String customerEmail, String customerName,
                                       Map<String, Object> orderDetails) {
         try {
@@ -73,7 +113,7 @@ public class EmailService {
             String emailContent = buildOrderConfirmationEmailContent(customerName, orderDetails);
             helper.setText(emailContent, true);
 
-            mailSender.send(message);
+            deliver(message, "order_confirmation");
             System.out.println("📩 Order confirmation sent to: " + customerEmail);
 
         } catch (MessagingException e) {
@@ -86,6 +126,7 @@ public class EmailService {
     }
 
     // Order Shipped Notification
+    @Async(AsyncConfig.MAIL_EXECUTOR)
     public void sendOrderShippedNotification(String customerEmail, String customerName,
                                              Map<String, Object> orderDetails) {
         try {
@@ -98,7 +139,7 @@ public class EmailService {
             String emailContent = buildOrderShippedEmailContent(customerName, orderDetails);
             helper.setText(emailContent, true);
 
-            mailSender.send(message);
+            deliver(message, "order_shipped");
             System.out.println("📩 Shipping notification sent to: " + customerEmail);
 
         } catch (MessagingException e) {
@@ -107,6 +148,7 @@ public class EmailService {
     }
 
     // New Product Added Notification
+    @Async(AsyncConfig.MAIL_EXECUTOR)
     public void sendNewProductNotification(Product product) {
         try {
             MimeMessage message = mailSender.createMimeMessage();
@@ -118,7 +160,7 @@ public class EmailService {
             String emailContent = buildNewProductEmailContent(product);
             helper.setText(emailContent, true);
 
-            mailSender.send(message);
+            deliver(message, "new_product");
             System.out.println("📩 New product notification sent for: " + product.getProductName());
 
         } catch (MessagingException e) {
@@ -127,6 +169,7 @@ public class EmailService {
     }
 
     // Stock Replenishment Confirmation
+    @Async(AsyncConfig.MAIL_EXECUTOR)
     public void sendStockReplenishedNotification(Product product, int addedQuantity) {
         try {
             MimeMessage message = mailSender.createMimeMessage();
@@ -138,7 +181,7 @@ public class EmailService {
             String emailContent = buildStockReplenishedEmailContent(product, addedQuantity);
             helper.setText(emailContent, true);
 
-            mailSender.send(message);
+            deliver(message, "stock_replenished");
             System.out.println("📩 Stock replenishment notification sent for: " + product.getProductName());
 
         } catch (MessagingException e) {
@@ -146,6 +189,59 @@ public class EmailService {
         }
     }
 
+    // Backordered units that were filled by a replenishment: one message per customer, all handed to
+    // the mail server in a single send() so a drain of thousands of backorders is one SMTP session
+    @Async(AsyncConfig.MAIL_EXECUTOR)
+    public void sendBackordersFulfilled(Product product, Map<String, Integer> quantitiesByEmail) {
+        if (product == null || quantitiesByEmail == null || quantitiesByEmail.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<MimeMessage> messages = new ArrayList<>(quantitiesByEmail.size());
+            for (Map.Entry<String, Integer> entry : quantitiesByEmail.entrySet()) {
+                MimeMessage message = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+                helper.setTo(entry.getKey());
+                helper.setSubject("📦 Back in Stock: Your Backorder for " + product.getProductName() + " Is Ready");
+                helper.setText(buildBackorderFulfilledEmailContent(product, entry.getValue()), true);
+                messages.add(message);
+            }
+
+            deliverAll(messages, "backorder_fulfilled");
+            System.out.println("📩 Backorder notifications sent to " + messages.size() + " customers for: " +
+                    product.getProductName());
+
+        } catch (MessagingException e) {
+            System.err.println("❌ Failed to send backorder notifications: " + e.getMessage());
+        } catch (Exception e) {
+            System.err.println("❌ Unexpected mail error: " + e.getMessage());
+        }
+    }
+
+    // Back-in-stock notice, one message per subscriber (nobody sees the other addresses), all in one
+    // SMTP session. Synchronous on purpose: the caller is the rate-limited fan-out thread and needs
+    // to know whether the batch went out before it forgets the subscriptions.
+    public void sendBackInStockBatch(Product product, List<String> recipients) throws MessagingException {
+        if (product == null || recipients == null || recipients.isEmpty()) {
+            return;
+        }
+
+        String emailContent = buildBackInStockEmailContent(product);
+        List<MimeMessage> messages = new ArrayList<>(recipients.size());
+        for (String recipient : recipients) {
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+            helper.setTo(recipient);
+            helper.setSubject("🔔 Back in Stock: " + product.getProductName());
+            helper.setText(emailContent, true);
+            messages.add(message);
+        }
+        deliverAll(messages, "back_in_stock");
+    }
+
     private String buildLowStockEmailContent(Product product) {
         String currentTime = LocalDateTime.now().format(DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm"));
 
@@ -625,6 +721,54 @@ public class EmailService {
         );
     }
 
+    private String buildLowStockDigestEmailContent(List<Product> products) {
+        String currentTime = LocalDateTime.now().format(DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm"));
+
+        StringBuilder rows = new StringBuilder();
+        for (Product product : products) {
+            rows.append("<tr><td>").append(product.getProductName())
+                    .append("</td><td>").append(product.getModel() != null ? product.getModel() : "N/A")
+                    .append("</td><td class=\"stock\">").append(product.getUnitStockQuantity())
+                    .append("</td></tr>");
+        }
+
+        return """
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <style>
+                    body { font-family: Arial, sans-serif; }
+                    .header { background: #ff6b6b; color: white; padding: 20px; text-align: center; }
+                    .content { padding: 20px; }
+                    table { border-collapse: collapse; width: 100%%; }
+                    th, td { border-bottom: 1px solid #eee; padding: 8px; text-align: left; }
+                    .stock { color: #e84118; font-weight: 700; }
+                </style>
+            </head>
+            <body>
+                <div class="header">
+                    <h2>🚨 Low Stock Alert</h2>
+                </div>
+                <div class="content">
+                    <p>%d products are at or below the threshold of %d units:</p>
+                    <table>
+                        <tr><th>Product</th><th>Model</th><th>Stock</th></tr>
+                        %s
+                    </table>
+                    <p><strong>Time:</strong> %s</p>
+                    <p><a href="%s">Open dashboard</a></p>
+                </div>
+            </body>
+            </html>
+            """.formatted(
+                products.size(),
+                stockThreshold,
+                rows,
+                currentTime,
+                appUrl
+        );
+    }
+
     // Fallback simple email method
     private void sendSimpleOrderConfirmation(String customerEmail, String customerName,
                                              Map<String, Object> orderDetails) {
@@ -638,7 +782,7 @@ public class EmailService {
             String textContent = buildSimpleOrderText(customerName, orderDetails);
             helper.setText(textContent, false);
 
-            mailSender.send(message);
+            deliver(message, "order_confirmation_plain");
             System.out.println("📩 Simple order confirmation sent to: " + customerEmail);
 
         } catch (MessagingException e) {
@@ -677,6 +821,87 @@ public class EmailService {
         );
     }
 
+    private String buildBackorderFulfilledEmailContent(Product product, int quantity) {
+        String currentTime = LocalDateTime.now().format(DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm"));
+
+        return """
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <style>
+                    body { font-family: Arial, sans-serif; }
+                    .header { background: #00b894; color: white; padding: 20px; text-align: center; }
+                    .content { padding: 20px; }
+                    .product-card { background: #f8f9fa; padding: 15px; border-radius: 8px; margin: 10px 0; }
+                </style>
+            </head>
+            <body>
+                <div class="header">
+                    <h2>📦 Your Backorder Is Ready</h2>
+                </div>
+                <div class="content">
+                    <p>Good news! The item you backordered is back in stock and has been reserved for you:</p>
+                    <div class="product-card">
+                        <h3>%s</h3>
+                        <p><strong>Model:</strong> %s</p>
+                        <p><strong>Quantity:</strong> %d units</p>
+                        <p><strong>Unit Price:</strong> $%.2f</p>
+                    </div>
+                    <p>You can find it in your <a href="%s">order history</a>.</p>
+                    <p><strong>Time:</strong> %s</p>
+                    <p>Thank you for your patience,<br>%s</p>
+                </div>
+            </body>
+            </html>
+            """.formatted(
+                product.getProductName(),
+                product.getModel(),
+                quantity,
+                product.getPricePerQuantity(),
+                appUrl,
+                currentTime,
+                appName
+        );
+    }
+
+    private String buildBackInStockEmailContent(Product product) {
+        return """
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <style>
+                    body { font-family: Arial, sans-serif; }
+                    .header { background: #0984e3; color: white; padding: 20px; text-align: center; }
+                    .content { padding: 20px; }
+                    .product-card { background: #f8f9fa; padding: 15px; border-radius: 8px; margin: 10px 0; }
+                </style>
+            </head>
+            <body>
+                <div class="header">
+                    <h2>🔔 It's Back in Stock</h2>
+                </div>
+                <div class="content">
+                    <p>A product you asked us to watch is available again:</p>
+                    <div class="product-card">
+                        <h3>%s</h3>
+                        <p><strong>Model:</strong> %s</p>
+                        <p><strong>Price:</strong> $%.2f</p>
+                    </div>
+                    <p>Stock can go quickly - <a href="%s">order now</a>.</p>
+                    <p>You will not get further emails for this product unless you subscribe again.</p>
+                    <p>%s</p>
+                </div>
+            </body>
+            </html>
+            """.formatted(
+                product.getProductName(),
+                product.getModel(),
+                product.getPricePerQuantity(),
+                appUrl,
+                appName
+        );
+    }
+
     // Utility method to send test email
     public void sendTestEmail(String toEmail) {
         try {
@@ -696,11 +921,65 @@ public class EmailService {
                 </html>
                 """.formatted(appName, LocalDateTime.now()), true);
 
-            mailSender.send(message);
+            deliver(message, "test");
             System.out.println("✅ Test email sent successfully to: " + toEmail);
 
         } catch (MessagingException e) {
             System.err.println("❌ Failed to send test email: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // Every outgoing mail goes through here so sends and failures are counted per mail type
+    private void deliver(MimeMessage message, String type) {
+        InventoryEvents.EmailSend event = new InventoryEvents.EmailSend();
+        event.begin();
+        boolean success = false;
+        try {
+            mailSender.send(message);
+            success = true;
+            meterRegistry.counter("inventory.email.sends", "type", type, "outcome", "success").increment();
+        } catch (MailException e) {
+            meterRegistry.counter("inventory.email.sends", "type", type, "outcome", "failure").increment();
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.mailType = type;
+                event.recipients = recipientsOf(message);
+                event.success = success;
+                event.commit();
+            }
+        }
+    }
+
+    // Many messages over one connection; counted like deliver(), one event for the whole batch
+    private void deliverAll(List<MimeMessage> messages, String type) {
+        InventoryEvents.EmailSend event = new InventoryEvents.EmailSend();
+        event.begin();
+        boolean success = false;
+        try {
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+            success = true;
+            meterRegistry.counter("inventory.email.sends", "type", type, "outcome", "success").increment(messages.size());
+        } catch (MailException e) {
+            meterRegistry.counter("inventory.email.sends", "type", type, "outcome", "failure").increment(messages.size());
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.mailType = type;
+                event.recipients = messages.size() + " recipients";
+                event.success = success;
+                event.commit();
+            }
+        }
+    }
+
+    private static String recipientsOf(MimeMessage message) {
+        try {
+            return InternetAddress.toString(message.getAllRecipients());
+        } catch (MessagingException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.service;
+
+import com.example.demo.diagnostics.InventoryEvents;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One admin-controlled, bounded Flight Recorder recording at a time. It uses the JDK's
+ * low-overhead "default" settings plus the custom inventory events, and keeps at most
+ * maxAge/maxSize of data on disk so it can stay on for hours while a spike is awaited.
+ */
+@Service
+public class FlightRecordingService {
+
+    public static final Duration MAX_AGE_LIMIT = Duration.ofHours(24);
+    public static final long MAX_SIZE_LIMIT_MB = 1024;
+
+    private static final List<Class<? extends Event>> INVENTORY_EVENTS = List.of(
+            InventoryEvents.OrderProcessed.class, InventoryEvents.StockDecrement.class,
+            InventoryEvents.EmailSend.class, InventoryEvents.SheetsCall.class,
+            InventoryEvents.PasswordVerification.class, InventoryEvents.JwtParse.class);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Recording recording;
+
+    public Map<String, Object> start(Duration maxAge, long maxSizeMb) throws IOException, ParseException {
+        if (maxAge.isNegative() || maxAge.isZero() || maxAge.compareTo(MAX_AGE_LIMIT) > 0) {
+            throw new IllegalArgumentException("maxAge must be between 1 minute and " + MAX_AGE_LIMIT.toHours() + " hours");
+        }
+        if (maxSizeMb < 1 || maxSizeMb > MAX_SIZE_LIMIT_MB) {
+            throw new IllegalArgumentException("maxSizeMb must be between 1 and " + MAX_SIZE_LIMIT_MB);
+        }
+
+        lock.lock();
+        try {
+            if (recording != null && recording.getState() == RecordingState.RUNNING) {
+                throw new IllegalStateException("A recording is already running");
+            }
+            if (recording != null) {
+                recording.close();
+            }
+
+            Recording fresh = new Recording(Configuration.getConfiguration("default"));
+            fresh.setName("inventory-continuous");
+            fresh.setToDisk(true);
+            fresh.setMaxAge(maxAge);
+            fresh.setMaxSize(maxSizeMb * 1024 * 1024);
+            for (Class<? extends Event> eventType : INVENTORY_EVENTS) {
+                fresh.enable(eventType).withoutThreshold();
+            }
+            fresh.start();
+            recording = fresh;
+            System.out.println("🎥 Flight recording started (maxAge " + maxAge + ", maxSize " + maxSizeMb + " MB)");
+            return describe();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> stop() {
+        lock.lock();
+        try {
+            if (recording == null || recording.getState() != RecordingState.RUNNING) {
+                throw new IllegalStateException("No recording is running");
+            }
+            // Stopped data stays available for download until the next start
+            recording.stop();
+            System.out.println("⏹ Flight recording stopped");
+            return describe();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> status() {
+        lock.lock();
+        try {
+            return describe();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Writes the current contents (running or stopped) to a temp file the caller streams and deletes
+    public Path dump() throws IOException {
+        lock.lock();
+        try {
+            if (recording == null || recording.getState() == RecordingState.CLOSED) {
+                throw new IllegalStateException("No recording to download");
+            }
+            Path file = Files.createTempFile("inventory-", ".jfr");
+            recording.dump(file);
+            return file;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.lock();
+        try {
+            if (recording != null) {
+                recording.close();
+                recording = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<String, Object> describe() {
+        Map<String, Object> status = new HashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState().name());
+        status.put("startTime", recording.getStartTime());
+        status.put("stopTime", recording.getStopTime());
+        status.put("maxAgeSeconds", recording.getMaxAge() == null ? null : recording.getMaxAge().toSeconds());
+        status.put("maxSizeBytes", recording.getMaxSize());
+        status.put("sizeBytes", recording.getSize());
+        return status;
+    }
+}
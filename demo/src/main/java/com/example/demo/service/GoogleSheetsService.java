@@ -1,5 +1,6 @@
 package com.example.demo.service;
 
+import com.example.demo.diagnostics.InventoryEvents;
 import com.example.demo.model.Product;
 import com.google.api.client.auth.oauth2.Credential;
 import com.google.api.client.extensions.java6.auth.oauth2.AuthorizationCodeInstalledApp;
@@ -15,10 +16,13 @@ import com.google.api.services.sheets.v4.Sheets;
 import com.google.api.services.sheets.v4.SheetsScopes;
 import com.google.api.services.sheets.v4.model.ClearValuesRequest;
 import com.google.api.services.sheets.v4.model.ValueRange;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationListener;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
@@ -28,6 +32,7 @@ import java.io.InputStreamReader;
 import java.security.GeneralSecurityException;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class GoogleSheetsService implements ApplicationListener<ApplicationReadyEvent> {
@@ -43,8 +48,20 @@ public class GoogleSheetsService implements ApplicationListener<ApplicationReady
     @Value("${google.sheets.spreadsheet.id:}")
     private String spreadsheetId;
 
-    private boolean configured = false;
-    private Sheets sheetsService = null;
+    private volatile boolean configured = false;
+    private volatile Sheets sheetsService = null;
+
+    // Locks rather than synchronized: a virtual thread blocked on the OAuth or Sheets round trip
+    // inside a monitor would pin its carrier thread
+    private final ReentrantLock initLock = new ReentrantLock();
+    // An export reads the next free row and then writes it, so exports must not interleave
+    private final ReentrantLock exportLock = new ReentrantLock();
+
+    private final MeterRegistry meterRegistry;
+
+    public GoogleSheetsService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
 
     @Override
     public void onApplicationEvent(ApplicationReadyEvent event) {
@@ -122,16 +139,24 @@ public class GoogleSheetsService implements ApplicationListener<ApplicationReady
     }
 
     public Sheets getSheetsService() throws IOException, GeneralSecurityException {
-        if (sheetsService != null) {
-            return sheetsService;
+        Sheets service = sheetsService;
+        if (service != null) {
+            return service;
         }
 
-        final NetHttpTransport HTTP_TRANSPORT = GoogleNetHttpTransport.newTrustedTransport();
-        sheetsService = new Sheets.Builder(HTTP_TRANSPORT, JSON_FACTORY, getCredentials(HTTP_TRANSPORT))
-                .setApplicationName(APPLICATION_NAME)
-                .build();
-
-        return sheetsService;
+        initLock.lock();
+        try {
+            // Another thread may have finished the OAuth flow while this one waited
+            if (sheetsService == null) {
+                final NetHttpTransport HTTP_TRANSPORT = GoogleNetHttpTransport.newTrustedTransport();
+                sheetsService = new Sheets.Builder(HTTP_TRANSPORT, JSON_FACTORY, getCredentials(HTTP_TRANSPORT))
+                        .setApplicationName(APPLICATION_NAME)
+                        .build();
+            }
+            return sheetsService;
+        } finally {
+            initLock.unlock();
+        }
     }
 
     public void clearStoredTokens() {
@@ -159,6 +184,14 @@ public class GoogleSheetsService implements ApplicationListener<ApplicationReady
         directory.delete();
     }
 
+    /**
+     * Export a product off the request thread (product create/update side effect)
+     */
+    @Async
+    public void exportProductToSheetAsync(Product product) {
+        exportProductToSheet(product);
+    }
+
     /**
      * Export product to Google Sheets and return CSV download link
      */
@@ -168,6 +201,10 @@ public class GoogleSheetsService implements ApplicationListener<ApplicationReady
             return null;
         }
 
+        Timer.Sample sample = Timer.start(meterRegistry);
+        InventoryEvents.SheetsCall event = new InventoryEvents.SheetsCall();
+        event.begin();
+        exportLock.lock();
         try {
             Sheets service = getSheetsService();
 
@@ -199,11 +236,17 @@ public class GoogleSheetsService implements ApplicationListener<ApplicationReady
 
             System.out.println("✅ Product '" + product.getProductName() + "' exported to Google Sheets at row " + nextRow);
 
+            sample.stop(exportTimer("single", "success"));
+            commitSheetsCall(event, "single", product.getProductName(), 1, true);
             return getCsvDownloadLink();
 
         } catch (Exception e) {
+            sample.stop(exportTimer("single", "failure"));
+            commitSheetsCall(event, "single", product.getProductName(), 1, false);
             System.err.println("❌ Error exporting to Google Sheets: " + e.getMessage());
             return null;
+        } finally {
+            exportLock.unlock();
         }
     }
 
@@ -216,6 +259,10 @@ public class GoogleSheetsService implements ApplicationListener<ApplicationReady
             return null;
         }
 
+        Timer.Sample sample = Timer.start(meterRegistry);
+        InventoryEvents.SheetsCall event = new InventoryEvents.SheetsCall();
+        event.begin();
+        exportLock.lock();
         try {
             Sheets service = getSheetsService();
 
@@ -250,14 +297,39 @@ public class GoogleSheetsService implements ApplicationListener<ApplicationReady
 
             System.out.println("✅ All " + products.size() + " products exported to Google Sheets");
 
+            sample.stop(exportTimer("all", "success"));
+            commitSheetsCall(event, "all", null, products.size(), true);
             return getCsvDownloadLink();
 
         } catch (Exception e) {
+            sample.stop(exportTimer("all", "failure"));
+            commitSheetsCall(event, "all", null, products.size(), false);
             System.err.println("❌ Error exporting all products: " + e.getMessage());
             return null;
+        } finally {
+            exportLock.unlock();
         }
     }
 
+    private static void commitSheetsCall(InventoryEvents.SheetsCall event, String operation, String productName,
+                                         int productCount, boolean success) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.productName = productName;
+            event.productCount = productCount;
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    private Timer exportTimer(String operation, String outcome) {
+        return Timer.builder("inventory.sheets.export")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
     /**
      * Build a CSV download link that browsers can use.
      */
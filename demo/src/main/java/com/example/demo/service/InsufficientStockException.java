@@ -0,0 +1,28 @@
+package com.example.demo.service;
+
+// An order line asked for more than is available; checkout can turn it into a backorder
+public class InsufficientStockException extends RuntimeException {
+
+    private final Long productId;
+    private final int available;
+    private final int requested;
+
+    public InsufficientStockException(String message, Long productId, int available, int requested) {
+        super(message);
+        this.productId = productId;
+        this.available = available;
+        this.requested = requested;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+}
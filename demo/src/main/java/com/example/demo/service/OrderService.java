@@ -0,0 +1,55 @@
+package com.example.demo.service;
+
+import com.example.demo.model.CustomerOrder;
+import com.example.demo.model.OrderLine;
+import com.example.demo.repository.OrderRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+public class OrderService {
+
+    private final OrderRepository orderRepository;
+
+    public OrderService(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    // Append one order with all its lines. Ids come from the pooled sequences and the
+    // lines cascade in a single JDBC batch (hibernate.jdbc.batch_size / order_inserts).
+    @Transactional
+    public CustomerOrder recordOrder(String userEmail, List<OrderLine> lines) {
+        CustomerOrder order = new CustomerOrder(userEmail);
+        double totalAmount = 0;
+        int totalItems = 0;
+
+        for (OrderLine line : lines) {
+            order.addLine(line);
+            if (line.getLineTotal() != null) totalAmount += line.getLineTotal();
+            if (line.getQuantity() != null) totalItems += line.getQuantity();
+        }
+        order.setTotalAmount(totalAmount);
+        order.setTotalItems(totalItems);
+
+        CustomerOrder savedOrder = orderRepository.save(order);
+        System.out.println("🧾 Order recorded: #" + savedOrder.getId() + " | Lines: " + lines.size() +
+                " | User: " + userEmail);
+        return savedOrder;
+    }
+
+    @Transactional(readOnly = true)
+    public Page<CustomerOrder> getOrderHistory(String userEmail, int page, int size) {
+        int boundedSize = Math.min(Math.max(size, 1), 100);
+        return orderRepository.findByUserEmailOrderByCreatedDateDesc(userEmail,
+                PageRequest.of(Math.max(page, 0), boundedSize));
+    }
+
+    @Transactional(readOnly = true)
+    public CustomerOrder getOrderById(Long id) {
+        return orderRepository.findById(id).orElse(null);
+    }
+}
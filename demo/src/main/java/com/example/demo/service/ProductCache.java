@@ -0,0 +1,178 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Product;
+import com.example.demo.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache of products by id for multi-product lookups (cart, checkout). Entries are
+ * dropped by ProductChangeBus after every committed product change, and the whole cache is
+ * cleared on a bulk reset. Those evictions only reach this instance, so entries also expire after
+ * a short TTL: with several instances behind the load balancer, a change committed elsewhere is
+ * served stale for at most that long. When full, the least recently read entries make room.
+ * Misses are loaded with one IN query per chunk of ids, so a lookup of a few thousand ids is a
+ * handful of statements with bounded parameter lists rather than one query per id. Cached
+ * instances are detached and shared: callers must treat them as read-only.
+ */
+@Service
+public class ProductCache {
+
+    private final ProductRepository productRepository;
+    // Access-ordered, so the eldest entry is the least recently read; guarded by itself
+    private final LinkedHashMap<Long, Entry> entries;
+    // Bumped by every invalidation; a load that raced one is not cached (it may be pre-commit state)
+    private final AtomicLong epoch = new AtomicLong();
+
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final int maxIds;
+    private final int inClauseChunk;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    public ProductCache(ProductRepository productRepository,
+                        MeterRegistry meterRegistry,
+                        @Value("${products.cache.max-entries:50000}") int maxEntries,
+                        @Value("${products.cache.ttl-seconds:10}") long ttlSeconds,
+                        @Value("${products.batch-get.max-ids:5000}") int maxIds,
+                        @Value("${products.batch-get.in-clause-chunk:500}") int inClauseChunk) {
+        this(productRepository, meterRegistry, maxEntries, ttlSeconds, maxIds, inClauseChunk, System::nanoTime);
+    }
+
+    public ProductCache(ProductRepository productRepository, MeterRegistry meterRegistry, int maxEntries,
+                        long ttlSeconds, int maxIds, int inClauseChunk, LongSupplier nanoClock) {
+        if (ttlSeconds <= 0) {
+            throw new IllegalArgumentException("Product cache TTL must be positive");
+        }
+        this.productRepository = productRepository;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.nanoClock = nanoClock;
+        this.maxIds = maxIds;
+        this.inClauseChunk = inClauseChunk;
+        this.hits = Counter.builder("inventory.product.cache")
+                .tag("result", "hit")
+                .description("Product cache lookups")
+                .register(meterRegistry);
+        this.misses = Counter.builder("inventory.product.cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("inventory.product.cache.size", this, ProductCache::size)
+                .description("Products held in the lookup cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Products for the given ids in request order; duplicates are returned once, at their first
+     * position, and ids that do not exist are left out (see {@link #missingIds}).
+     */
+    public List<Product> getProducts(List<Long> ids) {
+        if (ids.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " ids per request, got " + ids.size());
+        }
+        LinkedHashSet<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+
+        Map<Long, Product> found = new HashMap<>(requested.size() * 2);
+        List<Long> toLoad = new ArrayList<>();
+        long now = nanoClock.getAsLong();
+        synchronized (entries) {
+            for (Long id : requested) {
+                Entry cached = entries.get(id);
+                if (cached != null && now - cached.loadedAt() < ttlNanos) {
+                    found.put(id, cached.product());
+                } else {
+                    if (cached != null) entries.remove(id);
+                    toLoad.add(id);
+                }
+            }
+        }
+        hits.increment(found.size());
+        misses.increment(toLoad.size());
+
+        if (!toLoad.isEmpty()) {
+            long loadedAt = epoch.get();
+            long loadedAtNanos = nanoClock.getAsLong();
+            List<Product> loaded = new ArrayList<>(toLoad.size());
+            for (int from = 0; from < toLoad.size(); from += inClauseChunk) {
+                loaded.addAll(productRepository.findAllById(
+                        toLoad.subList(from, Math.min(from + inClauseChunk, toLoad.size()))));
+            }
+            for (Product product : loaded) {
+                found.put(product.getId(), product);
+            }
+            cacheAll(loaded, loadedAt, loadedAtNanos);
+        }
+
+        List<Product> result = new ArrayList<>(found.size());
+        for (Long id : requested) {
+            Product product = found.get(id);
+            if (product != null) result.add(product);
+        }
+        return result;
+    }
+
+    public static List<Long> missingIds(List<Long> ids, List<Product> found) {
+        Set<Long> present = new HashSet<>();
+        for (Product product : found) present.add(product.getId());
+        LinkedHashSet<Long> missing = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id != null && !present.contains(id)) missing.add(id);
+        }
+        return new ArrayList<>(missing);
+    }
+
+    public void invalidate(Long productId) {
+        epoch.incrementAndGet();
+        if (productId == null) return;
+        synchronized (entries) {
+            entries.remove(productId);
+        }
+    }
+
+    public void clear() {
+        epoch.incrementAndGet();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    // The epoch is checked under the lock, and invalidate() bumps it before taking the lock, so an
+    // invalidation either stops this insert or removes what it put
+    private void cacheAll(List<Product> loaded, long loadedAt, long loadedAtNanos) {
+        synchronized (entries) {
+            if (epoch.get() != loadedAt) {
+                return;
+            }
+            for (Product product : loaded) {
+                entries.put(product.getId(), new Entry(product, loadedAtNanos));
+            }
+        }
+    }
+
+    // loadedAt is taken before the query, so the TTL also covers the time the load took
+    private record Entry(Product product, long loadedAt) {}
+}
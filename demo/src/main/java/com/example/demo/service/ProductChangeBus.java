@@ -0,0 +1,296 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Product;
+import com.example.demo.model.ProductChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process fan-out of product changes to Server-Sent Events subscribers. publish() never waits
+ * on a client: it drops the change into each subscriber's buffer and returns. Buffers are keyed by
+ * product, so repeated updates to one product while a client is behind collapse into the latest
+ * one, and hold at most buffer-size distinct products. Each subscriber is flushed by its own
+ * virtual thread; a client too slow to keep its buffer under the limit is disconnected and
+ * reloads the list when it reconnects, rather than slowing down the stock writers. Every change is
+ * also handed to the ProductChangeLog, which backs polling delta sync, evicts the product from
+ * the ProductCache and updates the ProductKeyIndex.
+ */
+@Service
+public class ProductChangeBus {
+
+    private final ProductChangeLog changeLog;
+    private final ProductCache productCache;
+    private final ProductKeyIndex keyIndex;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // A blocked socket write parks a virtual thread, not a pool slot
+    private final ExecutorService senders =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("product-stream-", 0).factory());
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMs;
+
+    private final Counter changesPublished;
+    private final Counter changesConflated;
+    private final Counter subscribersDroppedSlow;
+
+    public ProductChangeBus(ProductChangeLog changeLog,
+                            ProductCache productCache,
+                            ProductKeyIndex keyIndex,
+                            MeterRegistry meterRegistry,
+                            @Value("${products.stream.buffer-size:256}") int bufferSize,
+                            @Value("${products.stream.max-subscribers:1000}") int maxSubscribers,
+                            @Value("${products.stream.timeout-ms:1800000}") long timeoutMs) {
+        this.changeLog = changeLog;
+        this.productCache = productCache;
+        this.keyIndex = keyIndex;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeoutMs;
+        this.changesPublished = Counter.builder("inventory.stream.changes")
+                .tag("outcome", "published")
+                .description("Product changes offered to stream subscribers")
+                .register(meterRegistry);
+        this.changesConflated = Counter.builder("inventory.stream.changes")
+                .tag("outcome", "conflated")
+                .register(meterRegistry);
+        this.subscribersDroppedSlow = Counter.builder("inventory.stream.dropped")
+                .tag("reason", "slow")
+                .description("Stream subscribers disconnected because their buffer overflowed")
+                .register(meterRegistry);
+        Gauge.builder("inventory.stream.subscribers", subscribers, Set::size)
+                .description("Open product change streams")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe() {
+        return register(new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter register(SseEmitter emitter) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new RuntimeException("Too many open product streams, try again later");
+        }
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscriber.close());
+        emitter.onTimeout(() -> subscriber.close());
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        // First event tells the client the stream is live; it should (re)load the full list once
+        subscriber.requestReset();
+        return emitter;
+    }
+
+    public void publish(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        offer(ProductChange.of(product));
+    }
+
+    public void publishDeleted(Long productId) {
+        offer(ProductChange.deleted(productId));
+    }
+
+    // Rows written in bulk (import chunks): logged for delta sync and evicted, but not streamed;
+    // the writer follows up with publishReset() once it is done
+    public void publishBulk(Collection<Product> products) {
+        for (Product product : products) {
+            if (product.getId() == null) continue;
+            ProductChange change = ProductChange.of(product);
+            changeLog.record(change);
+            productCache.invalidate(change.id());
+            keyIndex.apply(change);
+        }
+    }
+
+    // Writers that change too many rows to describe (bulk import) ask clients to reload instead
+    public void publishReset() {
+        productCache.clear();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.requestReset();
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Keeps proxies from idling the connection out and finds clients that went away silently
+    @Scheduled(fixedDelayString = "${products.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.requestHeartbeat();
+        }
+    }
+
+    private void offer(ProductChange change) {
+        changeLog.record(change);
+        productCache.invalidate(change.id());
+        keyIndex.apply(change);
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        changesPublished.increment();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(change);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+            subscriber.emitter.complete();
+        }
+        senders.shutdownNow();
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        // Guards only the map swaps below, never a network write
+        private final ReentrantLock lock = new ReentrantLock();
+        private LinkedHashMap<Long, ProductChange> pending = new LinkedHashMap<>();
+        private boolean resetDue;
+        private boolean heartbeatDue;
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(ProductChange change) {
+            boolean overflow = false;
+            lock.lock();
+            try {
+                if (closed) return;
+                if (pending.containsKey(change.id())) {
+                    // Keeps the product's place in line, carries the latest state
+                    pending.put(change.id(), change);
+                    changesConflated.increment();
+                } else if (pending.size() >= bufferSize) {
+                    overflow = true;
+                } else {
+                    pending.put(change.id(), change);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (overflow) {
+                subscribersDroppedSlow.increment();
+                close();
+                senders.execute(emitter::complete);
+                return;
+            }
+            scheduleFlush();
+        }
+
+        void requestReset() {
+            lock.lock();
+            try {
+                // Everything buffered is superseded by the reload
+                pending.clear();
+                resetDue = true;
+            } finally {
+                lock.unlock();
+            }
+            scheduleFlush();
+        }
+
+        void requestHeartbeat() {
+            lock.lock();
+            try {
+                heartbeatDue = true;
+            } finally {
+                lock.unlock();
+            }
+            scheduleFlush();
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+
+        private void scheduleFlush() {
+            if (!closed && flushScheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::flush);
+                } catch (RuntimeException e) {
+                    flushScheduled.set(false);
+                }
+            }
+        }
+
+        private void flush() {
+            try {
+                while (!closed) {
+                    List<ProductChange> batch;
+                    boolean reset;
+                    boolean heartbeat;
+                    lock.lock();
+                    try {
+                        batch = pending.isEmpty() ? List.of() : new ArrayList<>(pending.values());
+                        if (!pending.isEmpty()) pending = new LinkedHashMap<>();
+                        reset = resetDue;
+                        heartbeat = heartbeatDue;
+                        resetDue = false;
+                        heartbeatDue = false;
+                    } finally {
+                        lock.unlock();
+                    }
+                    if (batch.isEmpty() && !reset && !heartbeat) {
+                        break;
+                    }
+                    if (reset) {
+                        emitter.send(SseEmitter.event().name("reset").data("{}", MediaType.APPLICATION_JSON));
+                    }
+                    if (!batch.isEmpty()) {
+                        emitter.send(SseEmitter.event().name("changes").data(batch, MediaType.APPLICATION_JSON));
+                    } else if (heartbeat && !reset) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                }
+            } catch (Exception e) {
+                // Client went away mid-write
+                close();
+                emitter.completeWithError(e);
+            } finally {
+                flushScheduled.set(false);
+            }
+            // An offer that lost the race with the flag reset above is picked up here
+            if (!closed && hasWork()) {
+                scheduleFlush();
+            }
+        }
+
+        private boolean hasWork() {
+            lock.lock();
+            try {
+                return !pending.isEmpty() || resetDue || heartbeatDue;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
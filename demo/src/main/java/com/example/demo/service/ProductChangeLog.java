@@ -0,0 +1,157 @@
+package com.example.demo.service;
+
+import com.example.demo.model.ProductChange;
+import com.example.demo.model.ProductChangeLogEntry;
+import com.example.demo.repository.ProductChangeLogRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sequenced history of product mutations for delta sync. Every change the bus publishes is queued
+ * here and written in batches by one drainer at a time, so sequence numbers become visible in the
+ * order they were assigned: a client that has read up to N can never later find a smaller number
+ * it skipped. Deletions are kept as tombstones. Rows older than the retention window are purged;
+ * a client whose cursor falls behind the oldest retained row is told to reload once.
+ */
+@Service
+public class ProductChangeLog {
+
+    private static final int MAX_PAGE = 1000;
+
+    private final ProductChangeLogRepository repository;
+
+    @Value("${products.changes.batch-size:500}")
+    private int batchSize;
+
+    @Value("${products.changes.retention-days:30}")
+    private int retentionDays;
+
+    private final ConcurrentLinkedQueue<ProductChangeLogEntry> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    // One drainer at a time keeps sequence ids in commit order
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public ProductChangeLog(ProductChangeLogRepository repository) {
+        this.repository = repository;
+    }
+
+    // Called from the publish path after the mutation committed; never blocks on the database
+    public void record(ProductChange change) {
+        if (change == null || change.id() == null) return;
+        pending.add(new ProductChangeLogEntry(change));
+        if (pendingCount.incrementAndGet() >= batchSize) {
+            flush();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${products.changes.flush-interval-ms:500}")
+    public void flush() {
+        // Whoever holds the lock drains everything, so callers that miss it can just return
+        if (!flushLock.tryLock()) return;
+        try {
+            List<ProductChangeLogEntry> batch = new ArrayList<>(batchSize);
+            ProductChangeLogEntry entry;
+            while ((entry = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                batch.add(entry);
+                if (batch.size() >= batchSize) {
+                    if (!writeBatch(batch)) return;
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private boolean writeBatch(List<ProductChangeLogEntry> batch) {
+        try {
+            repository.saveAll(batch);
+            return true;
+        } catch (Exception e) {
+            // Put the batch back ahead of whatever queued behind it and stop; the next flush retries
+            // in the same order, so no later change gets a smaller sequence number
+            System.err.println("❌ Failed to write " + batch.size() + " product changes, re-queueing: " + e.getMessage());
+            batch.forEach(entry -> entry.setId(null));
+            List<ProductChangeLogEntry> rest = new ArrayList<>(batch);
+            ProductChangeLogEntry entry;
+            while ((entry = pending.poll()) != null) {
+                rest.add(entry);
+            }
+            pending.addAll(rest);
+            pendingCount.addAndGet(batch.size());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Changes after the given sequence number, oldest first. since=0 (or a cursor older than the
+     * retained history) returns no changes, resetRequired=true and the current sequence: the client
+     * reloads the full list and continues from nextSince. Call this before the full load so nothing
+     * committed in between is missed; entries carry full state, so applying one twice is harmless.
+     */
+    public Map<String, Object> getChangesSince(long since, int limit) {
+        flush();
+        Map<String, Object> result = new HashMap<>();
+        Long minId = repository.findMinId();
+        Long maxId = repository.findMaxId();
+        long current = maxId != null ? maxId : 0L;
+
+        boolean behindRetention = minId != null && since < minId - 1;
+        if (since <= 0 || behindRetention || since > current) {
+            result.put("changes", List.of());
+            result.put("nextSince", current);
+            result.put("hasMore", false);
+            result.put("resetRequired", true);
+            return result;
+        }
+
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE);
+        List<ProductChangeLogEntry> page =
+                repository.findByIdGreaterThanOrderByIdAsc(since, PageRequest.of(0, pageSize));
+        List<ProductChange> changes = new ArrayList<>(page.size());
+        for (ProductChangeLogEntry entry : page) {
+            changes.add(entry.toChange());
+        }
+        result.put("changes", changes);
+        result.put("nextSince", page.isEmpty() ? since : page.get(page.size() - 1).getId());
+        result.put("hasMore", page.size() == pageSize);
+        result.put("resetRequired", false);
+        return result;
+    }
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    @Scheduled(cron = "${products.changes.purge-cron:0 30 3 * * ?}")
+    public int purgeExpired() {
+        flush();
+        Long maxId = repository.findMaxId();
+        if (maxId == null) {
+            return 0;
+        }
+        int purged = repository.deleteOlderThan(LocalDateTime.now().minusDays(retentionDays), maxId);
+        if (purged > 0) {
+            System.out.println("🗜 Product change log: purged " + purged + " entries older than " + retentionDays + " days");
+        }
+        return purged;
+    }
+}
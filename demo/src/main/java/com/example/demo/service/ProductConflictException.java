@@ -0,0 +1,19 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Product;
+
+// A staff edit was based on an outdated copy of the product; carries the current state for the 409 response
+public class ProductConflictException extends RuntimeException {
+
+    private final Product current;
+
+    public ProductConflictException(Product current) {
+        super("Product " + current.getId() + " was changed by someone else (now at version " +
+                current.getVersion() + ", stock " + current.getUnitStockQuantity() + "). Reload and try again.");
+        this.current = current;
+    }
+
+    public Product getCurrent() {
+        return current;
+    }
+}
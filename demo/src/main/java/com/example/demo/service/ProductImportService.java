@@ -0,0 +1,474 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Product;
+import com.example.demo.model.ProductImportJob;
+import com.example.demo.model.ProductRequest;
+import com.example.demo.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming catalog import for /api/products/admin/bulk-upload.
+ * The file is read line by line in chunks; each chunk is validated in parallel against the
+ * Product bean constraints, checked for duplicates against an in-memory name set, and written
+ * with JDBC batch statements in its own transaction. No per-row email or Sheets export is done.
+ * Stock each chunk creates or overwrites is written to the stock ledger like any other change.
+ */
+@Service
+public class ProductImportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_JSON_LINES = "jsonl";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (product_name, model, price_per_quantity, unit_stock_quantity, total_price, " +
+                    "status, created_date, updated_date, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final int IN_CLAUSE_CHUNK = 1000;
+
+    private static final String LOCK_STOCK_BY_NAME_SQL =
+            "SELECT product_name, unit_stock_quantity FROM products WHERE product_name IN (%s) FOR UPDATE";
+
+    private static final String UPDATE_BY_NAME_SQL =
+            "UPDATE products SET model = ?, price_per_quantity = ?, unit_stock_quantity = ?, total_price = ?, " +
+                    "status = ?, updated_date = ?, version = version + 1 WHERE product_name = ?";
+
+    private final ProductRepository productRepository;
+    private final StockLocationService stockLocationService;
+    private final BackorderService backorderService;
+    private final StockLedgerService stockLedgerService;
+    private final ProductChangeBus changeBus;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    @Value("${product.import.chunk-size:5000}")
+    private int chunkSize;
+
+    // How long a finished job's status stays available to GET /admin/bulk-upload/{jobId}
+    @Value("${product.import.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    private final Map<String, ProductImportJob> jobs = new ConcurrentHashMap<>();
+    // Imports are serialized so two files never race on the duplicate check
+    private final ExecutorService importExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "product-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ProductImportService(ProductRepository productRepository,
+                                StockLocationService stockLocationService,
+                                BackorderService backorderService,
+                                StockLedgerService stockLedgerService,
+                                ProductChangeBus changeBus,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                Validator validator,
+                                ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.stockLocationService = stockLocationService;
+        this.backorderService = backorderService;
+        this.stockLedgerService = stockLedgerService;
+        this.changeBus = changeBus;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+    }
+
+    // Queue an import of a spooled upload; the file is deleted when the job finishes
+    public ProductImportJob startImport(Path file, String fileName, String format, boolean upsert) {
+        ProductImportJob job = new ProductImportJob(UUID.randomUUID().toString(), fileName, format, upsert);
+        jobs.put(job.getJobId(), job);
+        importExecutor.submit(() -> {
+            try {
+                runImport(file, job);
+            } finally {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    System.err.println("⚠ Could not delete import spool file " + file + ": " + e.getMessage());
+                }
+            }
+        });
+        return job;
+    }
+
+    public ProductImportJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    // Finished jobs are forgotten after the retention period; queued and running ones are kept
+    @Scheduled(fixedDelayString = "${product.import.job-prune-interval-ms:60000}")
+    public void pruneFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    // Jobs accepted but not yet picked up by the import thread
+    public long getQueuedJobCount() {
+        return jobs.values().stream().filter(job -> "QUEUED".equals(job.getStatus())).count();
+    }
+
+    public static String detectFormat(String fileName, String contentType) {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson") || type.contains("ndjson") || type.contains("jsonl")) {
+            return FORMAT_JSON_LINES;
+        }
+        return FORMAT_CSV;
+    }
+
+    void runImport(Path file, ProductImportJob job) {
+        job.markRunning();
+        long started = System.currentTimeMillis();
+        System.out.println("📥 Product import " + job.getJobId() + " started: " + job.getFileName());
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            // Names already in the catalog, lower-cased to match MySQL's case-insensitive comparison
+            Set<String> knownNames = productRepository.findAllProductNames().stream()
+                    .filter(Objects::nonNull)
+                    .map(ProductImportService::nameKey)
+                    .collect(Collectors.toCollection(HashSet::new));
+            Set<String> seenInFile = new HashSet<>();
+            // Per-warehouse stock only changes through the warehouse endpoints, so upserts must not overwrite it
+            Set<String> locatedNames = stockLocationService.findLocatedProductNames().stream()
+                    .map(ProductImportService::nameKey)
+                    .collect(Collectors.toCollection(HashSet::new));
+
+            Map<String, Integer> columns = null;
+            if (FORMAT_CSV.equals(job.getFormat())) {
+                String header = reader.readLine();
+                if (header == null) {
+                    job.markCompleted();
+                    return;
+                }
+                columns = parseCsvHeader(header);
+            }
+
+            long rowNumber = FORMAT_CSV.equals(job.getFormat()) ? 1 : 0;
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                rowNumber++;
+                if (line.isBlank()) continue;
+                chunk.add(new ImportRow(rowNumber, line));
+                if (chunk.size() >= chunkSize) {
+                    processChunk(chunk, columns, job, knownNames, locatedNames, seenInFile);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(chunk, columns, job, knownNames, locatedNames, seenInFile);
+            }
+
+            job.markCompleted();
+            // Too many rows to stream as deltas; open dashboards reload once instead
+            if (job.getInserted() + job.getUpdated() > 0) {
+                changeBus.publishReset();
+            }
+            System.out.println("✅ Product import " + job.getJobId() + " completed in " +
+                    (System.currentTimeMillis() - started) + " ms | Read: " + job.getRowsRead() +
+                    " | Inserted: " + job.getInserted() + " | Updated: " + job.getUpdated() +
+                    " | Rejected: " + job.getRejected());
+        } catch (Exception e) {
+            job.markFailed(e.getMessage());
+            System.err.println("❌ Product import " + job.getJobId() + " failed: " + e.getMessage());
+        }
+    }
+
+    private void processChunk(List<ImportRow> chunk, Map<String, Integer> columns, ProductImportJob job,
+                              Set<String> knownNames, Set<String> locatedNames, Set<String> seenInFile) {
+        job.addRowsRead(chunk.size());
+
+        // Parse + bean validation are CPU-bound and independent per row
+        chunk.parallelStream().forEach(row -> {
+            try {
+                row.product = columns != null ? parseCsvRow(row.line, columns) : parseJsonRow(row.line);
+                if (row.product.getStatus() == null || row.product.getStatus().isBlank()) {
+                    row.product.setStatus("ACTIVE");
+                }
+                Set<ConstraintViolation<Product>> violations = validator.validate(row.product);
+                if (!violations.isEmpty()) {
+                    row.error = violations.stream()
+                            .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining("; "));
+                }
+            } catch (Exception e) {
+                row.error = "Unparseable row: " + e.getMessage();
+            }
+        });
+
+        // Duplicate detection stays sequential so "first occurrence wins" is deterministic
+        List<Product> inserts = new ArrayList<>();
+        List<Product> updates = new ArrayList<>();
+        List<ImportRow> queued = new ArrayList<>();
+        for (ImportRow row : chunk) {
+            if (row.error != null) {
+                job.reject(row.rowNumber, row.error);
+                continue;
+            }
+            String key = nameKey(row.product.getProductName());
+            if (!seenInFile.add(key)) {
+                job.reject(row.rowNumber, "Duplicate product name in file: " + row.product.getProductName());
+            } else if (knownNames.contains(key)) {
+                if (job.isUpsert() && locatedNames.contains(key)) {
+                    job.reject(row.rowNumber, "Product '" + row.product.getProductName() +
+                            "' keeps stock per warehouse; update it through the warehouse stock endpoints");
+                } else if (job.isUpsert()) {
+                    updates.add(row.product);
+                    queued.add(row);
+                } else {
+                    job.reject(row.rowNumber, "Product '" + row.product.getProductName() + "' already exists");
+                }
+            } else {
+                inserts.add(row.product);
+                queued.add(row);
+            }
+        }
+
+        Map<String, Integer> stockBefore;
+        try {
+            stockBefore = transactionTemplate.execute(status -> {
+                Map<String, Integer> locked = lockStockByName(updates);
+                writeInserts(inserts);
+                writeUpdates(updates);
+                return locked;
+            });
+            inserts.forEach(p -> knownNames.add(nameKey(p.getProductName())));
+            job.addInserted(inserts.size());
+            job.addUpdated(updates.size());
+        } catch (Exception e) {
+            // The chunk's writes rolled back as a unit; rows already rejected above keep their one error,
+            // and names that were never written may still be imported by a later row
+            for (ImportRow row : queued) {
+                job.reject(row.rowNumber, "Chunk write failed: " + e.getMessage());
+                seenInFile.remove(nameKey(row.product.getProductName()));
+            }
+            return;
+        }
+
+        // Delta-sync clients see every imported row and cached copies are evicted; open streams
+        // get one reset at the end instead
+        try {
+            recordMovements(logChunk(inserts, updates), inserts, updates, stockBefore);
+        } catch (Exception e) {
+            System.err.println("⚠ Change log after import chunk failed: " + e.getMessage());
+        }
+
+        // Upserted stock goes to waiting backorders first; new products cannot have any
+        if (!updates.isEmpty()) {
+            try {
+                backorderService.drainByProductNames(updates.stream().map(Product::getProductName).toList());
+            } catch (Exception e) {
+                System.err.println("⚠ Backorder drain after import chunk failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // JDBC writes leave ids and versions unknown, so the committed rows are read back by name
+    private List<Product> logChunk(List<Product> inserts, List<Product> updates) {
+        List<String> names = new ArrayList<>(inserts.size() + updates.size());
+        inserts.forEach(p -> names.add(p.getProductName()));
+        updates.forEach(p -> names.add(p.getProductName()));
+        List<Product> written = new ArrayList<>(names.size());
+        for (int from = 0; from < names.size(); from += IN_CLAUSE_CHUNK) {
+            List<Product> page = productRepository.findByProductNameIn(
+                    names.subList(from, Math.min(from + IN_CLAUSE_CHUNK, names.size())));
+            changeBus.publishBulk(page);
+            written.addAll(page);
+        }
+        return written;
+    }
+
+    // Stock before the upsert, read under the row locks the update is about to take anyway
+    private Map<String, Integer> lockStockByName(List<Product> updates) {
+        Map<String, Integer> stock = new HashMap<>();
+        for (int from = 0; from < updates.size(); from += IN_CLAUSE_CHUNK) {
+            List<String> names = updates.subList(from, Math.min(from + IN_CLAUSE_CHUNK, updates.size())).stream()
+                    .map(Product::getProductName)
+                    .toList();
+            String sql = String.format(LOCK_STOCK_BY_NAME_SQL, String.join(",", Collections.nCopies(names.size(), "?")));
+            jdbcTemplate.query(sql, rs -> {
+                stock.put(nameKey(rs.getString(1)), rs.getInt(2));
+            }, names.toArray());
+        }
+        return stock;
+    }
+
+    // Ids come from the read-back rows; quantities are the ones this chunk wrote, not whatever an
+    // order may have changed since the commit
+    private void recordMovements(List<Product> written, List<Product> inserts, List<Product> updates,
+                                 Map<String, Integer> stockBefore) {
+        Map<String, Long> ids = new HashMap<>();
+        written.forEach(p -> ids.put(nameKey(p.getProductName()), p.getId()));
+        for (Product product : inserts) {
+            int stock = product.getUnitStockQuantity();
+            stockLedgerService.record(ids.get(nameKey(product.getProductName())), stock, stock,
+                    StockLedgerService.REASON_CREATE);
+        }
+        for (Product product : updates) {
+            String key = nameKey(product.getProductName());
+            Integer before = stockBefore.get(key);
+            if (before == null) continue;
+            int after = product.getUnitStockQuantity();
+            stockLedgerService.record(ids.get(key), after - before, after, StockLedgerService.REASON_IMPORT);
+        }
+    }
+
+    private void writeInserts(List<Product> products) {
+        if (products.isEmpty()) return;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, products, products.size(), (ps, product) -> {
+            ps.setString(1, product.getProductName());
+            ps.setString(2, product.getModel());
+            ps.setDouble(3, product.getPricePerQuantity());
+            ps.setInt(4, product.getUnitStockQuantity());
+            ps.setDouble(5, product.getPricePerQuantity() * product.getUnitStockQuantity());
+            ps.setString(6, product.getStatus());
+            ps.setTimestamp(7, now);
+            ps.setTimestamp(8, now);
+        });
+    }
+
+    private void writeUpdates(List<Product> products) {
+        if (products.isEmpty()) return;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPDATE_BY_NAME_SQL, products, products.size(), (ps, product) -> {
+            ps.setString(1, product.getModel());
+            ps.setDouble(2, product.getPricePerQuantity());
+            ps.setInt(3, product.getUnitStockQuantity());
+            ps.setDouble(4, product.getPricePerQuantity() * product.getUnitStockQuantity());
+            ps.setString(5, product.getStatus());
+            ps.setTimestamp(6, now);
+            ps.setString(7, product.getProductName());
+        });
+    }
+
+    private Product parseJsonRow(String line) throws IOException {
+        ProductRequest request = objectMapper.readValue(line, ProductRequest.class);
+        Product product = new Product();
+        product.setProductName(request.getProductName());
+        product.setModel(request.getModel());
+        product.setPricePerQuantity(request.getPricePerQuantity());
+        product.setUnitStockQuantity(request.getUnitStockQuantity());
+        product.setStatus(request.getStatus());
+        return product;
+    }
+
+    private Product parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> fields = splitCsvLine(line);
+        Product product = new Product();
+        product.setProductName(field(fields, columns, "productname"));
+        product.setModel(field(fields, columns, "model"));
+        String price = field(fields, columns, "price");
+        String stock = field(fields, columns, "stock");
+        product.setPricePerQuantity(price == null || price.isBlank() ? null : Double.valueOf(price.trim()));
+        product.setUnitStockQuantity(stock == null || stock.isBlank() ? null : Integer.valueOf(stock.trim()));
+        product.setStatus(field(fields, columns, "status"));
+        return product;
+    }
+
+    // Accepts both the API field names and the headers written by /staff/export-csv
+    static Map<String, Integer> parseCsvHeader(String header) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsvLine(header);
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).replaceAll("[\\s_\\-]", "").toLowerCase(Locale.ROOT);
+            switch (name) {
+                case "productname", "name" -> columns.put("productname", i);
+                case "model" -> columns.put("model", i);
+                case "priceperquantity", "priceperunit", "price" -> columns.put("price", i);
+                case "unitstockquantity", "stockquantity", "stock" -> columns.put("stock", i);
+                case "status" -> columns.put("status", i);
+                default -> { }
+            }
+        }
+        if (!columns.containsKey("productname") || !columns.containsKey("price") || !columns.containsKey("stock")) {
+            throw new IllegalArgumentException("CSV header must include product name, price and stock columns");
+        }
+        return columns;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) return null;
+        return fields.get(index);
+    }
+
+    // RFC 4180 field splitting for a single physical line
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static String nameKey(String productName) {
+        return productName == null ? "" : productName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        importExecutor.shutdownNow();
+    }
+
+    private static class ImportRow {
+        final long rowNumber;
+        final String line;
+        Product product;
+        String error;
+
+        ImportRow(long rowNumber, String line) {
+            this.rowNumber = rowNumber;
+            this.line = line;
+        }
+    }
+}
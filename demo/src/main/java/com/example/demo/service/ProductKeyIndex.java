@@ -0,0 +1,139 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Product;
+import com.example.demo.model.ProductChange;
+import com.example.demo.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory (productName, model) -> id map so checkout resolves a line by primary key instead of
+ * a query on two varchar columns. Loaded once at startup and kept current from ProductChangeBus.
+ * It is a hint, never the source of truth: callers load the row by id and check the key still
+ * matches ({@link #sameKey}), falling back to the name/model query on a miss or a stale entry.
+ * Keys are lower-cased to match MySQL's case-insensitive comparison of these columns. It only
+ * knows what this instance has seen, so it never answers "does this name exist": the duplicate-name
+ * check on create/update asks the database.
+ */
+@Service
+public class ProductKeyIndex implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final ProductRepository productRepository;
+
+    private final Map<String, Long> idsByKey = new ConcurrentHashMap<>();
+    // Reverse side, so a rename or delete can drop the old key
+    private final Map<Long, String> keysById = new ConcurrentHashMap<>();
+    // Serializes maintenance so the two maps move together; lookups never take it
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final Counter lookupHits;
+    private final Counter lookupMisses;
+    private final Counter lookupStale;
+
+    public ProductKeyIndex(ProductRepository productRepository, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.lookupHits = Counter.builder("inventory.product.key_lookups")
+                .tag("result", "hit")
+                .description("Natural-key lookups on the order path")
+                .register(meterRegistry);
+        this.lookupMisses = Counter.builder("inventory.product.key_lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.lookupStale = Counter.builder("inventory.product.key_lookups")
+                .tag("result", "stale")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        load();
+    }
+
+    public void load() {
+        try {
+            List<Object[]> rows = productRepository.findAllNaturalKeys();
+            writeLock.lock();
+            try {
+                for (Object[] row : rows) {
+                    Long id = (Long) row[0];
+                    // A change event that arrived while the snapshot was loading is newer; keep it
+                    if (!keysById.containsKey(id)) {
+                        put(id, (String) row[1], (String) row[2]);
+                    }
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            System.out.println("✅ Product key index loaded: " + rows.size() + " products");
+        } catch (Exception e) {
+            System.err.println("⚠ Product key index unavailable, orders resolve by name/model query: " + e.getMessage());
+        }
+    }
+
+    // Candidate id for the natural key, or null when unknown
+    public Long lookup(String productName, String model) {
+        Long id = productName != null && model != null ? idsByKey.get(key(productName, model)) : null;
+        if (id == null) {
+            lookupMisses.increment();
+        } else {
+            lookupHits.increment();
+        }
+        return id;
+    }
+
+    // Caller found the row behind a looked-up id no longer carries the key
+    public void reportStale() {
+        lookupStale.increment();
+    }
+
+    public void apply(ProductChange change) {
+        if (change == null || change.id() == null) return;
+        writeLock.lock();
+        try {
+            remove(change.id());
+            if (!Boolean.TRUE.equals(change.deleted()) && change.productName() != null && change.model() != null) {
+                put(change.id(), change.productName(), change.model());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        return keysById.size();
+    }
+
+    public static boolean sameKey(Product product, String productName, String model) {
+        return product.getProductName() != null && product.getModel() != null &&
+                product.getProductName().equalsIgnoreCase(productName) && product.getModel().equalsIgnoreCase(model);
+    }
+
+    private void put(Long id, String productName, String model) {
+        String key = key(productName, model);
+        keysById.put(id, key);
+        idsByKey.put(key, id);
+    }
+
+    private void remove(Long id) {
+        String oldKey = keysById.remove(id);
+        if (oldKey == null) return;
+        idsByKey.remove(oldKey, id);
+    }
+
+    private static String key(String productName, String model) {
+        return normalize(productName) + '\u0000' + normalize(model);
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,14 +1,26 @@
 package com.example.demo.service;
 
+import com.example.demo.diagnostics.EventLogger;
+import com.example.demo.diagnostics.InventoryEvents;
 import com.example.demo.model.Product;
+import com.example.demo.repository.ProductFieldSet;
 import com.example.demo.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
@@ -16,26 +28,100 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final EmailService emailService;
     private final GoogleSheetsService googleSheetsService;
+    private final StockLedgerService stockLedgerService;
+    private final StockLocationService stockLocationService;
+    private final BackorderService backorderService;
+    private final BackInStockService backInStockService;
+    private final ProductChangeBus changeBus;
+    private final ProductKeyIndex keyIndex;
+    private final EventLogger eventLogger;
+
+    private final Counter stockOuts;
+    private final Counter insufficientStockRejections;
+    private final Counter lowStockAlertsSent;
+    private final Counter lowStockAlertsSuppressed;
+    private final Counter stockConflictsRetried;
+    private final Counter stockConflictsExhausted;
+    private final Counter staffEditConflicts;
 
     @Value("${stock.alert.threshold:10}")
     private int stockThreshold;
 
-    // Track products that have been alerted to avoid spam
-    private final Set<Long> alertedProducts = Collections.synchronizedSet(new HashSet<>());
+    // Version-conflict retries for stock-only operations (orders, replenishment)
+    @Value("${stock.retry.max-attempts:5}")
+    private int stockRetryMaxAttempts;
+
+    @Value("${stock.retry.base-delay-ms:5}")
+    private long stockRetryBaseDelayMs;
+
+    @Value("${stock.retry.max-delay-ms:200}")
+    private long stockRetryMaxDelayMs;
+
+    // Track products that have been alerted to avoid spam (lock-free; no monitor held across the alert send)
+    private final Set<Long> alertedProducts = ConcurrentHashMap.newKeySet();
 
     public ProductService(ProductRepository productRepository,
                           EmailService emailService,
-                          GoogleSheetsService googleSheetsService) {
+                          GoogleSheetsService googleSheetsService,
+                          StockLedgerService stockLedgerService,
+                          StockLocationService stockLocationService,
+                          BackorderService backorderService,
+                          BackInStockService backInStockService,
+                          ProductChangeBus changeBus,
+                          ProductKeyIndex keyIndex,
+                          MeterRegistry meterRegistry,
+                          EventLogger eventLogger) {
         this.productRepository = productRepository;
         this.emailService = emailService;
         this.googleSheetsService = googleSheetsService;
+        this.stockLedgerService = stockLedgerService;
+        this.stockLocationService = stockLocationService;
+        this.backorderService = backorderService;
+        this.backInStockService = backInStockService;
+        this.changeBus = changeBus;
+        this.keyIndex = keyIndex;
+        this.eventLogger = eventLogger;
+        this.stockOuts = Counter.builder("inventory.stock.outs")
+                .description("Orders that left a product with zero stock")
+                .register(meterRegistry);
+        this.insufficientStockRejections = Counter.builder("inventory.orders.rejected")
+                .tag("reason", "insufficient_stock")
+                .description("Order lines rejected because stock was too low")
+                .register(meterRegistry);
+        this.lowStockAlertsSent = Counter.builder("inventory.low_stock.alerts")
+                .tag("outcome", "sent")
+                .register(meterRegistry);
+        this.lowStockAlertsSuppressed = Counter.builder("inventory.low_stock.alerts")
+                .tag("outcome", "suppressed")
+                .description("Low stock detections skipped because the product was already alerted")
+                .register(meterRegistry);
+        this.stockConflictsRetried = Counter.builder("inventory.stock.conflicts")
+                .tag("outcome", "retried")
+                .description("Stock updates that lost an optimistic lock race")
+                .register(meterRegistry);
+        this.stockConflictsExhausted = Counter.builder("inventory.stock.conflicts")
+                .tag("outcome", "exhausted")
+                .register(meterRegistry);
+        this.staffEditConflicts = Counter.builder("inventory.stock.conflicts")
+                .tag("outcome", "staff_edit_rejected")
+                .register(meterRegistry);
         System.out.println("✅ ProductService started. Low stock threshold: " + stockThreshold);
     }
 
+    // Catalog reads go to a replica when one is configured (ReadWriteRoutingDataSource)
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
 
+    // fields= on list endpoints: only the requested columns are selected and serialized
+    @Transactional(readOnly = true)
+    public List<?> getAllProducts(String fields) {
+        ProductFieldSet fieldSet = ProductFieldSet.parse(fields);
+        return fieldSet == null ? productRepository.findAll() : productRepository.findAllProjected(fieldSet);
+    }
+
+    @Transactional(readOnly = true)
     public Product getProductById(Long id) {
         return productRepository.findById(id).orElse(null);
     }
@@ -53,8 +139,13 @@ public class ProductService {
             }
 
             Product savedProduct = productRepository.save(product);
+            if (savedProduct.getUnitStockQuantity() != null) {
+                stockLedgerService.record(savedProduct.getId(), savedProduct.getUnitStockQuantity(),
+                        savedProduct.getUnitStockQuantity(), StockLedgerService.REASON_CREATE);
+            }
             System.out.println("💾 Product saved: " + savedProduct.getProductName() +
                     " | Stock: " + savedProduct.getUnitStockQuantity());
+            changeBus.publish(savedProduct);
 
             // Check for low stock immediately after saving
             checkAndAlertLowStock(savedProduct);
@@ -65,7 +156,7 @@ public class ProductService {
             // Export to Google Sheets
             if (googleSheetsService != null) {
                 try {
-                    googleSheetsService.exportProductToSheet(savedProduct);
+                    googleSheetsService.exportProductToSheetAsync(savedProduct);
                 } catch (Exception e) {
                     System.err.println("⚠ Failed to export to Google Sheets: " + e.getMessage());
                 }
@@ -84,6 +175,12 @@ public class ProductService {
         Product product = optionalProduct.get();
         Integer oldStock = product.getUnitStockQuantity();
 
+        // The editor saw an older copy (e.g. a checkout has since taken stock): never overwrite it
+        if (productDetails.getVersion() != null && !productDetails.getVersion().equals(product.getVersion())) {
+            staffEditConflicts.increment();
+            throw new ProductConflictException(product);
+        }
+
         if (productDetails.getProductName() != null &&
                 !productDetails.getProductName().equals(product.getProductName()) &&
                 productRepository.existsByProductName(productDetails.getProductName())) {
@@ -94,6 +191,11 @@ public class ProductService {
         if (productDetails.getModel() != null) product.setModel(productDetails.getModel());
         if (productDetails.getPricePerQuantity() != null)
             product.setPricePerQuantity(productDetails.getPricePerQuantity());
+        if (productDetails.getUnitStockQuantity() != null &&
+                !productDetails.getUnitStockQuantity().equals(oldStock) && stockLocationService.hasLocations(id)) {
+            throw new RuntimeException("Stock for this product is held per warehouse; " +
+                    "change it through the warehouse stock endpoints");
+        }
         if (productDetails.getUnitStockQuantity() != null)
             product.setUnitStockQuantity(productDetails.getUnitStockQuantity());
         if (productDetails.getStatus() != null) product.setStatus(productDetails.getStatus());
@@ -101,18 +203,34 @@ public class ProductService {
         product.calculateTotalPrice();
         product.setUpdatedDate(LocalDateTime.now());
 
-        Product updatedProduct = productRepository.save(product);
+        Product updatedProduct;
+        try {
+            updatedProduct = productRepository.save(product);
+        } catch (OptimisticLockingFailureException e) {
+            // Changed between our read and write; staff edits are not retried, they get the current state back
+            staffEditConflicts.increment();
+            throw new ProductConflictException(productRepository.findById(id).orElseThrow(() -> e));
+        }
+
+        Integer newStock = updatedProduct.getUnitStockQuantity();
+        if (oldStock != null && newStock != null && !oldStock.equals(newStock)) {
+            stockLedgerService.record(updatedProduct.getId(), newStock - oldStock, newStock,
+                    StockLedgerService.REASON_ADJUSTMENT);
+        }
 
         System.out.println("✏ Product updated: " + updatedProduct.getProductName() +
                 " | Stock: " + oldStock + " → " + updatedProduct.getUnitStockQuantity());
 
+        changeBus.publish(updatedProduct);
+        notifyIfBackInStock(oldStock, updatedProduct);
+
         // Check for low stock immediately after updating
         checkAndAlertLowStock(updatedProduct);
 
         // Export to Google Sheets
         if (googleSheetsService != null) {
             try {
-                googleSheetsService.exportProductToSheet(updatedProduct);
+                googleSheetsService.exportProductToSheetAsync(updatedProduct);
             } catch (Exception e) {
                 System.err.println("⚠ Google Sheets export failed: " + e.getMessage());
             }
@@ -122,101 +240,271 @@ public class ProductService {
     }
 
     public Product processOrder(String productName, String model, Integer quantity) {
+        return processOrder(productName, model, quantity, null);
+    }
+
+    // deliveryPoint (optional) steers per-warehouse products to the nearest location
+    public Product processOrder(String productName, String model, Integer quantity, StockAllocator.Point deliveryPoint) {
+        return withStockRetry("order", () -> processOrderOnce(productName, model, quantity, deliveryPoint));
+    }
+
+    private Product processOrderOnce(String productName, String model, Integer quantity,
+                                     StockAllocator.Point deliveryPoint) {
+        InventoryEvents.OrderProcessed event = new InventoryEvents.OrderProcessed();
+        event.begin();
+        String outcome = "error";
+        int stockAfter = -1;
         try {
-            Product product = productRepository.findByProductNameAndModel(productName, model)
-                    .orElseThrow(() -> new RuntimeException("Product not found: " + productName));
+            Product product = findByNaturalKey(productName, model);
+            if (product == null) {
+                outcome = "not_found";
+                throw new RuntimeException("Product not found: " + productName);
+            }
 
             Integer oldStock = product.getUnitStockQuantity();
 
             if (product.getUnitStockQuantity() < quantity) {
-                throw new RuntimeException("Insufficient stock for: " + productName +
+                insufficientStockRejections.increment();
+                outcome = "insufficient_stock";
+                throw new InsufficientStockException("Insufficient stock for: " + productName +
                         ". Available: " + product.getUnitStockQuantity() +
-                        ", Requested: " + quantity);
+                        ", Requested: " + quantity, product.getId(), product.getUnitStockQuantity(), quantity);
             }
 
-            product.setUnitStockQuantity(product.getUnitStockQuantity() - quantity);
-            Product updatedProduct = productRepository.save(product);
+            InventoryEvents.StockDecrement decrement = new InventoryEvents.StockDecrement();
+            decrement.begin();
+            Product updatedProduct = decrementStock(product, quantity, deliveryPoint);
+            decrement.end();
+            if (decrement.shouldCommit()) {
+                decrement.productId = updatedProduct.getId();
+                decrement.quantity = quantity;
+                decrement.stockAfter = updatedProduct.getUnitStockQuantity();
+                decrement.commit();
+            }
+            stockAfter = updatedProduct.getUnitStockQuantity();
+            stockLedgerService.record(updatedProduct.getId(), -quantity, updatedProduct.getUnitStockQuantity(),
+                    StockLedgerService.REASON_ORDER);
+            if (updatedProduct.getUnitStockQuantity() == 0) {
+                stockOuts.increment();
+            }
 
-            System.out.println("🛒 Order processed: " + productName +
-                    " | Stock: " + oldStock + " → " + updatedProduct.getUnitStockQuantity());
+            eventLogger.info("order_processed", "product", productName, "model", model, "quantity", quantity,
+                    "stockBefore", oldStock, "stockAfter", stockAfter);
+            changeBus.publish(updatedProduct);
 
             // Check for low stock after order processing
             checkAndAlertLowStock(updatedProduct);
 
+            outcome = "success";
             return updatedProduct;
 
+        } catch (OptimisticLockingFailureException e) {
+            // Another writer got there first; withStockRetry re-reads and tries again
+            outcome = "conflict";
+            throw e;
         } catch (Exception e) {
-            System.out.println("❌ Error in processOrder: " + e.getMessage());
+            eventLogger.warn("order_rejected", "product", productName, "model", model, "quantity", quantity,
+                    "outcome", outcome, "error", e.getMessage());
             throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.productName = productName;
+                event.model = model;
+                event.quantity = quantity == null ? 0 : quantity;
+                event.stockAfter = stockAfter;
+                event.user = currentUser();
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    // Primary-key read through the natural-key index; the name/model query only on a miss or stale hint
+    private Product findByNaturalKey(String productName, String model) {
+        Long id = keyIndex.lookup(productName, model);
+        if (id != null) {
+            Product product = productRepository.findById(id).orElse(null);
+            if (product != null && ProductKeyIndex.sameKey(product, productName, model)) {
+                return product;
+            }
+            keyIndex.reportStale();
         }
+        return productRepository.findByProductNameAndModel(productName, model).orElse(null);
+    }
+
+    // Per-warehouse products are allocated under row locks; the rest keep the optimistic single-row write
+    private Product decrementStock(Product product, int quantity, StockAllocator.Point deliveryPoint) {
+        if (!stockLocationService.hasLocations(product.getId())) {
+            product.setUnitStockQuantity(product.getUnitStockQuantity() - quantity);
+            return productRepository.save(product);
+        }
+        List<StockAllocator.Allocation> allocations =
+                stockLocationService.allocate(product.getId(), quantity, deliveryPoint);
+        eventLogger.info("order_allocated", "productId", product.getId(), "quantity", quantity,
+                "warehouses", allocations.stream()
+                        .map(allocation -> allocation.warehouseCode() + ":" + allocation.quantity())
+                        .collect(Collectors.joining(",")));
+        return productRepository.findById(product.getId())
+                .orElseThrow(() -> new RuntimeException("Product not found with ID: " + product.getId()));
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
     }
 
     // Enhanced low stock checking with alert tracking
     private void checkAndAlertLowStock(Product product) {
         if (product == null) {
-            System.err.println("⚠ Product is null, cannot check stock.");
+            eventLogger.warn("stock_check_skipped", "reason", "null product");
             return;
         }
 
         Integer stock = product.getUnitStockQuantity();
         if (stock == null) {
-            System.err.println("⚠ Stock quantity is null for product: " + product.getProductName());
+            eventLogger.warn("stock_check_skipped", "reason", "null stock", "product", product.getProductName());
             return;
         }
 
         boolean isLowStock = stock <= stockThreshold;
         Long productId = product.getId();
 
-        System.out.println("🔍 Stock check - " + product.getProductName() +
-                ": " + stock + " units (Threshold: " + stockThreshold + ")");
+        eventLogger.info("stock_check", "productId", productId, "product", product.getProductName(),
+                "stock", stock, "threshold", stockThreshold);
 
         if (isLowStock) {
-            // Check if we haven't alerted for this product recently
-            if (!alertedProducts.contains(productId)) {
-                System.out.println("🚨 LOW STOCK DETECTED! Product: " + product.getProductName() +
-                        " | Stock: " + stock);
+            // add() is the check: only the thread that marks the product sends the alert
+            if (alertedProducts.add(productId)) {
+                eventLogger.warn("low_stock_detected", "productId", productId, "product", product.getProductName(),
+                        "stock", stock);
                 emailService.sendLowStockAlert(product);
-                alertedProducts.add(productId); // Mark as alerted
+                lowStockAlertsSent.increment();
             } else {
-                System.out.println("ℹ Low stock alert already sent for: " + product.getProductName());
+                lowStockAlertsSuppressed.increment();
+                eventLogger.info("low_stock_alert_suppressed", "productId", productId, "stock", stock);
             }
         } else {
             // Stock is back to normal, remove from alerted set
-            if (alertedProducts.contains(productId)) {
-                System.out.println("✅ Stock recovered for: " + product.getProductName() +
-                        " | Removing from alert list");
-                alertedProducts.remove(productId);
+            if (alertedProducts.remove(productId)) {
+                eventLogger.info("stock_recovered", "productId", productId, "product", product.getProductName(),
+                        "stock", stock);
             }
         }
     }
 
-    // Method to manually replenish stock and send notification
-    public Product replenishStock(Long productId, int quantityToAdd) {
-        Optional<Product> optionalProduct = productRepository.findById(productId);
-        if (optionalProduct.isEmpty()) {
-            throw new RuntimeException("Product not found with ID: " + productId);
+    // Evaluate many products in one pass and send a single digest instead of one email per product
+    public int evaluateLowStockBatch(Collection<Product> products) {
+        List<Product> newlyLow = new ArrayList<>();
+        for (Product product : products) {
+            Integer stock = product.getUnitStockQuantity();
+            if (product.getId() == null || stock == null) continue;
+
+            if (stock <= stockThreshold) {
+                if (alertedProducts.add(product.getId())) {
+                    newlyLow.add(product);
+                } else {
+                    lowStockAlertsSuppressed.increment();
+                }
+            } else {
+                alertedProducts.remove(product.getId());
+            }
         }
 
-        Product product = optionalProduct.get();
-        Integer oldStock = product.getUnitStockQuantity();
+        if (!newlyLow.isEmpty()) {
+            eventLogger.warn("low_stock_detected_batch", "products", newlyLow.size());
+            emailService.sendLowStockDigest(newlyLow);
+            lowStockAlertsSent.increment(newlyLow.size());
+        }
+        return newlyLow.size();
+    }
 
-        product.setUnitStockQuantity(oldStock + quantityToAdd);
-        product.setUpdatedDate(LocalDateTime.now());
+    // Method to manually replenish stock and send notification
+    public Product replenishStock(Long productId, int quantityToAdd) {
+        return replenishStock(productId, quantityToAdd, null);
+    }
 
-        Product updatedProduct = productRepository.save(product);
+    // warehouseCode (optional) names the receiving warehouse; per-warehouse products default to the main one
+    public Product replenishStock(Long productId, int quantityToAdd, String warehouseCode) {
+        Product updatedProduct;
+        if (warehouseCode != null || stockLocationService.hasLocations(productId)) {
+            updatedProduct = stockLocationService.addStock(productId, warehouseCode, quantityToAdd);
+        } else {
+            updatedProduct = withStockRetry("replenish", () -> {
+                Product product = productRepository.findById(productId)
+                        .orElseThrow(() -> new RuntimeException("Product not found with ID: " + productId));
+                product.setUnitStockQuantity(product.getUnitStockQuantity() + quantityToAdd);
+                product.setUpdatedDate(LocalDateTime.now());
+                return productRepository.save(product);
+            });
+        }
+        Integer oldStock = updatedProduct.getUnitStockQuantity() - quantityToAdd;
 
-        System.out.println("📦 Stock replenished: " + product.getProductName() +
+        stockLedgerService.record(updatedProduct.getId(), quantityToAdd, updatedProduct.getUnitStockQuantity(),
+                StockLedgerService.REASON_REPLENISH);
+
+        System.out.println("📦 Stock replenished: " + updatedProduct.getProductName() +
                 " | Stock: " + oldStock + " → " + updatedProduct.getUnitStockQuantity());
 
         // Send stock replenished notification
         emailService.sendStockReplenishedNotification(updatedProduct, quantityToAdd);
 
+        // Waiting backorders get first call on the new stock
+        try {
+            if (backorderService.drain(productId) > 0) {
+                updatedProduct = getProductById(productId);
+            }
+        } catch (Exception e) {
+            eventLogger.error("backorder_drain_failed", "productId", productId, "error", e);
+        }
+
+        changeBus.publish(updatedProduct);
+        // Subscribers only hear about what is left once backorders have been served
+        notifyIfBackInStock(oldStock, updatedProduct);
+
         // Check if still low stock after replenishment
         checkAndAlertLowStock(updatedProduct);
 
         return updatedProduct;
     }
 
+    // Zero-to-positive transitions queue the back-in-stock fan-out; it runs off the request thread
+    private void notifyIfBackInStock(Integer oldStock, Product product) {
+        Integer newStock = product.getUnitStockQuantity();
+        if (oldStock == null || oldStock > 0 || newStock == null || newStock <= 0) {
+            return;
+        }
+        try {
+            backInStockService.onBackInStock(product);
+        } catch (Exception e) {
+            eventLogger.error("back_in_stock_trigger_failed", "productId", product.getId(), "error", e);
+        }
+    }
+
+    // Stock-only operations are relative (take n, add n), so on a version conflict they can simply
+    // re-read and re-apply. Full jitter spreads contending retries so they don't collide again.
+    private <T> T withStockRetry(String operation, Supplier<T> attempt) {
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            try {
+                return attempt.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attemptNumber >= stockRetryMaxAttempts) {
+                    stockConflictsExhausted.increment();
+                    eventLogger.warn("stock_conflict_exhausted", "operation", operation, "attempts", attemptNumber);
+                    throw new RuntimeException("Stock is changing too quickly, please try again");
+                }
+                stockConflictsRetried.increment();
+                long ceiling = Math.min(stockRetryMaxDelayMs, stockRetryBaseDelayMs << Math.min(attemptNumber - 1, 20));
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while retrying " + operation);
+                }
+            }
+        }
+    }
+
     // Method to check all products in database
     public void checkAllProductsForLowStock() {
         System.out.println("🔍 Checking ALL products for low stock...");
@@ -239,6 +527,7 @@ public class ProductService {
     }
 
     // Get low stock products from database
+    @Transactional(readOnly = true)
     public List<Product> getLowStockProducts() {
         return productRepository.findByUnitStockQuantityLessThanEqual(stockThreshold);
     }
@@ -254,11 +543,16 @@ public class ProductService {
         return new HashSet<>(alertedProducts);
     }
 
+    public int getAlertedProductCount() {
+        return alertedProducts.size();
+    }
+
     public boolean deleteProduct(Long id) {
         if (productRepository.existsById(id)) {
             // Remove from alerted products if it was there
             alertedProducts.remove(id);
             productRepository.deleteById(id);
+            changeBus.publishDeleted(id);
             return true;
         }
         return false;
@@ -1,10 +1,13 @@
 package com.example.demo.service;
 
+import com.example.demo.diagnostics.EventLogger;
+import com.example.demo.diagnostics.InventoryEvents;
 import com.example.demo.model.Staff;
 import com.example.demo.repository.StaffRepository;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -14,12 +17,18 @@ public class StaffService {
 
     private final StaffRepository staffRepository;
     private final PasswordEncoder passwordEncoder;
+    private final EmailExistenceService emailExistenceService;
+    private final AccountCache accountCache;
 
-    public StaffService(StaffRepository staffRepository, PasswordEncoder passwordEncoder) {
+    public StaffService(StaffRepository staffRepository, PasswordEncoder passwordEncoder,
+                        EmailExistenceService emailExistenceService, AccountCache accountCache) {
         this.staffRepository = staffRepository;
         this.passwordEncoder = passwordEncoder;
+        this.emailExistenceService = emailExistenceService;
+        this.accountCache = accountCache;
     }
 
+    @Transactional(readOnly = true)
     public List<Staff> getAllStaff() {
         return staffRepository.findAll();
     }
@@ -54,6 +63,7 @@ public class StaffService {
         }
 
         Staff savedStaff = staffRepository.save(staff);
+        emailExistenceService.recordStaffEmail(savedStaff.getEmail());
         System.out.println("Staff created successfully with ID: " + savedStaff.getId());
         return savedStaff;
     }
@@ -67,6 +77,7 @@ public class StaffService {
                         throw new RuntimeException("Email already exists: " + staffDetails.getEmail());
                     }
 
+                    String oldEmail = staff.getEmail();
                     staff.setName(staffDetails.getName());
                     staff.setEmail(staffDetails.getEmail());
 
@@ -83,7 +94,13 @@ public class StaffService {
                     staff.setStatus(staffDetails.getStatus());
                     staff.setUpdatedDate(LocalDateTime.now());
 
-                    return staffRepository.save(staff);
+                    Staff savedStaff = staffRepository.save(staff);
+                    accountCache.evict(Staff.class, savedStaff.getId());
+                    if (!oldEmail.equals(savedStaff.getEmail())) {
+                        emailExistenceService.forgetStaffEmail(oldEmail);
+                        emailExistenceService.recordStaffEmail(savedStaff.getEmail());
+                    }
+                    return savedStaff;
                 })
                 .orElse(null);
     }
@@ -96,28 +113,43 @@ public class StaffService {
     }
 
     public boolean deleteStaff(Long id) {
-        if (staffRepository.existsById(id)) {
+        Optional<Staff> staff = staffRepository.findById(id);
+        if (staff.isPresent()) {
             staffRepository.deleteById(id);
+            accountCache.evict(Staff.class, id);
+            emailExistenceService.forgetStaffEmail(staff.get().getEmail());
             return true;
         }
         return false;
     }
+    @Transactional(readOnly = true)
     public List<Staff> searchStaff(String query) {
         return staffRepository.findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(query, query);
     }
 
     public boolean isEmailExists(String email) {
-        return staffRepository.existsByEmail(email);
+        return emailExistenceService.staffEmailExists(email);
     }
 
+    @Transactional(readOnly = true)
     public List<Staff> getStaffByStatus(String status) {
         return staffRepository.findByStatus(status);
     }
 
     // Verify staff credentials for login
     public boolean verifyStaffCredentials(String email, String password) {
-        Optional<Staff> staff = staffRepository.findByEmail(email);
-        return staff.map(s -> passwordEncoder.matches(password, s.getPassword())).orElse(false);
+        Optional<Staff> staff = staffRepository.findByEmailUncached(email);
+        InventoryEvents.PasswordVerification event = new InventoryEvents.PasswordVerification();
+        event.begin();
+        boolean matched = staff.map(s -> passwordEncoder.matches(password, s.getPassword())).orElse(false);
+        event.end();
+        if (event.shouldCommit()) {
+            event.accountType = "STAFF";
+            event.email = EventLogger.maskEmail(email);
+            event.matched = matched;
+            event.commit();
+        }
+        return matched;
     }
 
     public Staff updateStaffStatus(Long id, String status) {
@@ -125,7 +157,9 @@ public class StaffService {
         if (optionalStaff.isPresent()) {
             Staff staff = optionalStaff.get();
             staff.setStatus(status);
-            return staffRepository.save(staff);
+            Staff savedStaff = staffRepository.save(staff);
+            accountCache.evict(Staff.class, id);
+            return savedStaff;
         }
         return null;
     }
@@ -134,6 +168,11 @@ public class StaffService {
         return staffRepository.findByEmail(email);
     }
 
+    // Login and ownership checks read the row, not the per-instance cache (see AccountCache)
+    public Optional<Staff> findByEmailUncached(String email) {
+        return staffRepository.findByEmailUncached(email);
+    }
+
     // Validate staff fields
     private void validateStaffFields(Staff staff) {
         if (staff.getName() == null || staff.getName().trim().isEmpty()) {
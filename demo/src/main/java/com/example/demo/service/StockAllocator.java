@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Decides which warehouses fill an order line. Locations are ranked (nearest to the delivery
+ * point, or fullest first), a single location that can ship the whole line is preferred over
+ * a split shipment, and otherwise the line is filled greedily in rank order.
+ * Pure function over the rows the caller has already locked.
+ */
+public class StockAllocator {
+
+    public enum Strategy {
+        NEAREST, FULLEST;
+
+        public static Strategy fromProperty(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    public record Point(double latitude, double longitude) {
+    }
+
+    public record Candidate(Long locationId, String warehouseCode, int available, Double latitude, Double longitude) {
+    }
+
+    public record Allocation(Long locationId, String warehouseCode, int quantity) {
+    }
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final Strategy strategy;
+
+    public StockAllocator(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    // Returns null when the locations together cannot cover the line
+    public List<Allocation> allocate(List<Candidate> candidates, int quantity, Point deliveryPoint) {
+        List<Candidate> ranked = new ArrayList<>();
+        int total = 0;
+        for (Candidate candidate : candidates) {
+            if (candidate.available() > 0) {
+                ranked.add(candidate);
+                total += candidate.available();
+            }
+        }
+        if (quantity <= 0 || total < quantity) {
+            return null;
+        }
+        ranked.sort(ranking(deliveryPoint));
+
+        for (Candidate candidate : ranked) {
+            if (candidate.available() >= quantity) {
+                return List.of(new Allocation(candidate.locationId(), candidate.warehouseCode(), quantity));
+            }
+        }
+
+        List<Allocation> split = new ArrayList<>();
+        int remaining = quantity;
+        for (Candidate candidate : ranked) {
+            int take = Math.min(remaining, candidate.available());
+            split.add(new Allocation(candidate.locationId(), candidate.warehouseCode(), take));
+            remaining -= take;
+            if (remaining == 0) break;
+        }
+        return split;
+    }
+
+    private Comparator<Candidate> ranking(Point deliveryPoint) {
+        Comparator<Candidate> fullest = Comparator.comparingInt(Candidate::available).reversed()
+                .thenComparing(Candidate::warehouseCode);
+        // Without a delivery point there is nothing to be near to
+        if (strategy == Strategy.FULLEST || deliveryPoint == null) {
+            return fullest;
+        }
+        // Locations without coordinates rank after every located one
+        return Comparator.<Candidate>comparingDouble(c -> distanceKm(deliveryPoint, c)).thenComparing(fullest);
+    }
+
+    static double distanceKm(Point from, Candidate to) {
+        if (to.latitude() == null || to.longitude() == null) {
+            return Double.MAX_VALUE;
+        }
+        double dLat = Math.toRadians(to.latitude() - from.latitude());
+        double dLon = Math.toRadians(to.longitude() - from.longitude());
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                Math.cos(Math.toRadians(from.latitude())) * Math.cos(Math.toRadians(to.latitude())) *
+                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+}
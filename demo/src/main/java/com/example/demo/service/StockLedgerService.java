@@ -0,0 +1,220 @@
+package com.example.demo.service;
+
+import com.example.demo.diagnostics.EventLogger;
+import com.example.demo.model.StockMovement;
+import com.example.demo.model.StockSnapshot;
+import com.example.demo.repository.StockMovementRepository;
+import com.example.demo.repository.StockSnapshotRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only history of every stock change. Movements are queued by the request thread
+ * and written in batches by the scheduled flush or, once batch-size movements are waiting,
+ * by the ledger's own writer thread; a periodic compaction folds them into per-product
+ * snapshots so that stock at any instant is one snapshot plus the movements after it.
+ */
+@Service
+public class StockLedgerService {
+
+    public static final String REASON_CREATE = "CREATE";
+    public static final String REASON_ORDER = "ORDER";
+    public static final String REASON_REPLENISH = "REPLENISH";
+    public static final String REASON_ADJUSTMENT = "ADJUSTMENT";
+    public static final String REASON_IMPORT = "IMPORT";
+
+    private final StockMovementRepository movementRepository;
+    private final StockSnapshotRepository snapshotRepository;
+    private final EventLogger eventLogger;
+
+    @Value("${stock.ledger.batch-size:500}")
+    private int batchSize;
+
+    private final ConcurrentLinkedQueue<StockMovement> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    // A batch whose write failed; guarded by flushLock and written before anything newer is drained
+    private final List<StockMovement> retry = new ArrayList<>();
+    // One drainer at a time keeps sequence ids in enqueue order
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Set while an early flush is queued, so a burst of writes submits it once
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "stock-ledger-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StockLedgerService(StockMovementRepository movementRepository,
+                              StockSnapshotRepository snapshotRepository,
+                              EventLogger eventLogger) {
+        this.movementRepository = movementRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.eventLogger = eventLogger;
+    }
+
+    // Called from the stock write paths; never blocks on the database. A full batch is handed to
+    // the writer thread rather than flushed by whichever request happened to fill it.
+    public void record(Long productId, int delta, Integer quantityAfter, String reason) {
+        if (productId == null || delta == 0) return;
+        pending.add(new StockMovement(productId, delta, quantityAfter, reason, currentActor()));
+        if (pendingCount.incrementAndGet() >= batchSize && flushQueued.compareAndSet(false, true)) {
+            try {
+                flushExecutor.execute(() -> {
+                    flushQueued.set(false);
+                    flush();
+                });
+            } catch (RejectedExecutionException e) {
+                // Shutting down: flushOnShutdown writes what is left
+                flushQueued.set(false);
+            }
+        }
+    }
+
+    // Drain the queue in batch-size chunks; each saveAll goes out as JDBC batches
+    @Scheduled(fixedDelayString = "${stock.ledger.flush-interval-ms:1000}")
+    public void flush() {
+        // Whoever holds the lock drains everything, so callers that miss it can just return
+        if (!flushLock.tryLock()) return;
+        try {
+            // Movements get their ids when written, so a failed batch must go out before newer ones
+            if (!retry.isEmpty()) {
+                if (!writeBatch(retry)) return;
+                pendingCount.addAndGet(-retry.size());
+                retry.clear();
+            }
+            List<StockMovement> batch = new ArrayList<>(batchSize);
+            StockMovement movement;
+            while ((movement = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                batch.add(movement);
+                if (batch.size() >= batchSize) {
+                    if (!writeBatch(batch)) {
+                        holdForRetry(batch);
+                        return;
+                    }
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty() && !writeBatch(batch)) {
+                holdForRetry(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private boolean writeBatch(List<StockMovement> batch) {
+        try {
+            movementRepository.saveAll(batch);
+            return true;
+        } catch (Exception e) {
+            // Stop draining; the next flush retries this batch first
+            eventLogger.error("stock_ledger_write_failed", "movements", batch.size(), "error", e);
+            batch.forEach(m -> m.setId(null));
+            return false;
+        }
+    }
+
+    private void holdForRetry(List<StockMovement> batch) {
+        retry.addAll(batch);
+        pendingCount.addAndGet(batch.size());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushExecutor.shutdown();
+        try {
+            flushExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    // Compact the tail into one snapshot per touched product
+    @Scheduled(cron = "${stock.ledger.compaction-cron:0 0 * * * ?}")
+    public int compactSnapshots() {
+        flush();
+        Long fromId = Optional.ofNullable(snapshotRepository.findMaxCompactedMovementId()).orElse(0L);
+        Long toId = movementRepository.findMaxId();
+        if (toId == null || toId <= fromId) {
+            return 0;
+        }
+
+        LocalDateTime takenAt = LocalDateTime.now();
+        List<StockSnapshot> snapshots = new ArrayList<>();
+        for (StockMovement last : movementRepository.findLastMovementPerProduct(fromId, toId)) {
+            Integer quantity = last.getQuantityAfter() != null
+                    ? last.getQuantityAfter()
+                    : stockAt(last.getProductId(), last.getCreatedDate());
+            // Every snapshot in this pass shares the pass's upper bound so the tail query stays uniform
+            snapshots.add(new StockSnapshot(last.getProductId(), quantity, toId, takenAt));
+        }
+        snapshotRepository.saveAll(snapshots);
+        System.out.println("🗜 Stock ledger compacted: " + snapshots.size() + " product snapshots up to movement #" + toId);
+        return snapshots.size();
+    }
+
+    // Rebuild a product's stock at a point in time from one snapshot plus its tail
+    public Integer stockAt(Long productId, LocalDateTime at) {
+        Optional<StockSnapshot> snapshot =
+                snapshotRepository.findFirstByProductIdAndTakenAtLessThanEqualOrderByTakenAtDesc(productId, at);
+        if (snapshot.isPresent()) {
+            long tail = movementRepository.sumDeltasAfter(productId, snapshot.get().getLastMovementId(), at);
+            return (int) (snapshot.get().getQuantity() + tail);
+        }
+
+        // No snapshot yet: the first movement tells us the stock level before the ledger began
+        Optional<StockMovement> first = movementRepository.findFirstByProductIdOrderByIdAsc(productId);
+        if (first.isEmpty()) {
+            return null;
+        }
+        StockMovement firstMovement = first.get();
+        int baseline = firstMovement.getQuantityAfter() != null
+                ? firstMovement.getQuantityAfter() - firstMovement.getDelta()
+                : 0;
+        long tail = movementRepository.sumDeltasAfter(productId, 0L, at);
+        return (int) (baseline + tail);
+    }
+
+    public List<StockMovement> getMovementsSince(LocalDateTime since, int limit) {
+        return movementRepository.findByCreatedDateGreaterThanEqualOrderByIdAsc(since,
+                PageRequest.of(0, boundedLimit(limit)));
+    }
+
+    public List<StockMovement> getProductMovementsSince(Long productId, LocalDateTime since, int limit) {
+        return movementRepository.findByProductIdAndCreatedDateGreaterThanEqualOrderByIdAsc(productId, since,
+                PageRequest.of(0, boundedLimit(limit)));
+    }
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    private int boundedLimit(int limit) {
+        return Math.min(Math.max(limit, 1), 10000);
+    }
+
+    private String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : "system";
+    }
+}
@@ -0,0 +1,388 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Product;
+import com.example.demo.model.StockLocation;
+import com.example.demo.model.Warehouse;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.repository.StockLocationRepository;
+import com.example.demo.repository.WarehouseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Per-warehouse stock. A product without stock_location rows keeps its single global quantity;
+ * the first location write moves that quantity into the default warehouse and from then on
+ * products.unit_stock_quantity is the sum of the product's rows in active warehouses, which is
+ * exactly what allocate() can ship. That sum is never computed on
+ * read: every change adjusts the product row by its delta in the same transaction, so catalog
+ * and availability reads stay a single-row lookup. Those adjustments are plain JDBC, so each
+ * writing transaction ends by re-reading the product into the persistence context (see
+ * refreshProduct).
+ */
+@Service
+public class StockLocationService implements ApplicationListener<ApplicationReadyEvent> {
+
+    // total_price first: MySQL applies SET assignments left to right against the updated row
+    private static final String ADJUST_TOTAL_SQL =
+            "UPDATE products SET total_price = price_per_quantity * (unit_stock_quantity + ?), " +
+                    "unit_stock_quantity = unit_stock_quantity + ?, updated_date = ?, version = version + 1 WHERE id = ?";
+    private static final String LOCK_PRODUCT_SQL =
+            "SELECT unit_stock_quantity FROM products WHERE id = ? FOR UPDATE";
+    private static final String BUMP_VERSION_SQL =
+            "UPDATE products SET version = version + 1 WHERE id = ?";
+
+    private final StockLocationRepository stockLocationRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final ProductRepository productRepository;
+    private final StockLedgerService stockLedgerService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StockAllocator allocator;
+    private final String defaultWarehouseCode;
+
+    private final Counter singleShipmentLines;
+    private final Counter splitShipmentLines;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public StockLocationService(StockLocationRepository stockLocationRepository,
+                                WarehouseRepository warehouseRepository,
+                                ProductRepository productRepository,
+                                StockLedgerService stockLedgerService,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${warehouse.allocation.strategy:nearest}") String allocationStrategy,
+                                @Value("${warehouse.default-code:MAIN}") String defaultWarehouseCode) {
+        this.stockLocationRepository = stockLocationRepository;
+        this.warehouseRepository = warehouseRepository;
+        this.productRepository = productRepository;
+        this.stockLedgerService = stockLedgerService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.allocator = new StockAllocator(StockAllocator.Strategy.fromProperty(allocationStrategy));
+        this.defaultWarehouseCode = defaultWarehouseCode;
+        this.singleShipmentLines = Counter.builder("inventory.allocation.lines")
+                .tag("shipment", "single")
+                .description("Order lines allocated to warehouses")
+                .register(meterRegistry);
+        this.splitShipmentLines = Counter.builder("inventory.allocation.lines")
+                .tag("shipment", "split")
+                .register(meterRegistry);
+    }
+
+    // The default warehouse must exist before the first product gets locations
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        try {
+            if (!warehouseRepository.existsByCode(defaultWarehouseCode)) {
+                warehouseRepository.save(new Warehouse(defaultWarehouseCode, "Main warehouse", null, null));
+                System.out.println("🏭 Default warehouse created: " + defaultWarehouseCode);
+            }
+        } catch (Exception e) {
+            System.err.println("⚠ Could not create default warehouse " + defaultWarehouseCode + ": " + e.getMessage());
+        }
+    }
+
+    public boolean hasLocations(Long productId) {
+        return stockLocationRepository.existsByProductId(productId);
+    }
+
+    public List<Warehouse> getWarehouses() {
+        return warehouseRepository.findAllByOrderByCodeAsc();
+    }
+
+    public Warehouse createWarehouse(Warehouse warehouse) {
+        if (warehouseRepository.existsByCode(warehouse.getCode())) {
+            throw new RuntimeException("Warehouse '" + warehouse.getCode() + "' already exists");
+        }
+        warehouse.setCreatedDate(LocalDateTime.now());
+        return warehouseRepository.save(warehouse);
+    }
+
+    // Takes a warehouse out of (or back into) allocation. Its rows stay, but the product totals move
+    // by their quantities in the same transaction, so the sellable total never counts stock that
+    // allocate() would skip. Products are locked in id order, each before its rows, as in allocate.
+    public List<Product> setWarehouseActive(String code, boolean active) {
+        Warehouse warehouse = warehouseRepository.findByCode(code)
+                .orElseThrow(() -> new RuntimeException("Warehouse not found: " + code));
+        if (warehouse.isActive() == active) {
+            return List.of();
+        }
+        if (!active && warehouse.getCode().equals(defaultWarehouseCode)) {
+            throw new RuntimeException("The default warehouse " + code + " cannot be deactivated");
+        }
+
+        Map<Long, Integer> deltas = transactionTemplate.execute(status -> {
+            Map<Long, Integer> changed = new LinkedHashMap<>();
+            for (Long productId : stockLocationRepository.findProductIdsByWarehouseId(warehouse.getId())) {
+                lockProductRow(productId);
+                StockLocation row = findRow(stockLocationRepository.lockByProductId(productId), warehouse.getId());
+                if (row == null || row.getQuantity() == 0) continue;
+                int delta = active ? row.getQuantity() : -row.getQuantity();
+                adjustTotal(productId, delta);
+                changed.put(productId, delta);
+            }
+            warehouse.setActive(active);
+            warehouseRepository.save(warehouse);
+            changed.keySet().forEach(this::refreshProduct);
+            return changed;
+        });
+
+        List<Product> products = productRepository.findAllById(deltas.keySet());
+        for (Product product : products) {
+            stockLedgerService.record(product.getId(), deltas.get(product.getId()), product.getUnitStockQuantity(),
+                    StockLedgerService.REASON_ADJUSTMENT);
+        }
+        System.out.println("🏭 Warehouse " + code + (active ? " activated" : " deactivated") + " | " +
+                products.size() + " product totals adjusted");
+        return products;
+    }
+
+    // Total comes from the product row; the rows are only read for the breakdown
+    public Map<String, Object> getStockByLocation(Long productId) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found with ID: " + productId));
+        Map<Long, Warehouse> warehouses = warehousesById();
+
+        List<Map<String, Object>> locations = new ArrayList<>();
+        for (StockLocation row : stockLocationRepository.findByProductIdOrderByWarehouseIdAsc(productId)) {
+            Warehouse warehouse = warehouses.get(row.getWarehouseId());
+            Map<String, Object> location = new LinkedHashMap<>();
+            location.put("warehouse", warehouse != null ? warehouse.getCode() : null);
+            location.put("warehouseName", warehouse != null ? warehouse.getName() : null);
+            location.put("quantity", row.getQuantity());
+            // Inactive rows are held back from totalAvailable
+            location.put("active", warehouse != null && warehouse.isActive());
+            locations.add(location);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("productId", productId);
+        result.put("totalAvailable", product.getUnitStockQuantity());
+        result.put("locations", locations);
+        return result;
+    }
+
+    // Take one order line out of the ranked locations and the product total, atomically.
+    // Product row first, then its locations: the same lock order as every other stock writer.
+    public List<StockAllocator.Allocation> allocate(Long productId, int quantity, StockAllocator.Point deliveryPoint) {
+        List<StockAllocator.Allocation> allocations = transactionTemplate.execute(status -> {
+            lockProductRow(productId);
+            List<StockLocation> rows = stockLocationRepository.lockByProductId(productId);
+            Map<Long, Warehouse> warehouses = warehousesById();
+
+            List<StockAllocator.Candidate> candidates = new ArrayList<>();
+            int available = 0;
+            for (StockLocation row : rows) {
+                Warehouse warehouse = warehouses.get(row.getWarehouseId());
+                if (warehouse == null || !warehouse.isActive()) continue;
+                candidates.add(new StockAllocator.Candidate(row.getId(), warehouse.getCode(), row.getQuantity(),
+                        warehouse.getLatitude(), warehouse.getLongitude()));
+                available += row.getQuantity();
+            }
+
+            List<StockAllocator.Allocation> chosen = allocator.allocate(candidates, quantity, deliveryPoint);
+            if (chosen == null) {
+                throw new InsufficientStockException("Insufficient stock across warehouses. Available: " + available +
+                        ", Requested: " + quantity, productId, available, quantity);
+            }
+
+            Map<Long, StockLocation> byId = new HashMap<>();
+            rows.forEach(row -> byId.put(row.getId(), row));
+            LocalDateTime now = LocalDateTime.now();
+            for (StockAllocator.Allocation allocation : chosen) {
+                StockLocation row = byId.get(allocation.locationId());
+                row.setQuantity(row.getQuantity() - allocation.quantity());
+                row.setUpdatedDate(now);
+            }
+            stockLocationRepository.saveAll(rows);
+            adjustTotal(productId, -quantity);
+            refreshProduct(productId);
+            return chosen;
+        });
+
+        (allocations.size() == 1 ? singleShipmentLines : splitShipmentLines).increment();
+        return allocations;
+    }
+
+    // Units allocate() could ship right now. Only meaningful inside the caller's transaction, which
+    // keeps the product row and its locations locked (in allocate's order) until it commits.
+    public int lockAllocatable(Long productId) {
+        lockProductRow(productId);
+        Map<Long, Warehouse> warehouses = warehousesById();
+        int available = 0;
+        for (StockLocation row : stockLocationRepository.lockByProductId(productId)) {
+            Warehouse warehouse = warehouses.get(row.getWarehouseId());
+            if (warehouse != null && warehouse.isActive()) available += row.getQuantity();
+        }
+        return available;
+    }
+
+    public Product addStock(Long productId, String warehouseCode, int quantity) {
+        // Ledger entry and notifications are the replenishment caller's (ProductService.replenishStock)
+        return changeLocation(productId, warehouseCode, current -> current + quantity, null);
+    }
+
+    public Product setStock(Long productId, String warehouseCode, int quantity) {
+        return changeLocation(productId, warehouseCode, current -> quantity, StockLedgerService.REASON_ADJUSTMENT);
+    }
+
+    // Moves stock between two warehouses; the product total does not change
+    public Map<String, Object> transfer(Long productId, String fromCode, String toCode, int quantity) {
+        if (quantity <= 0) {
+            throw new RuntimeException("Transfer quantity must be greater than 0");
+        }
+        if (fromCode.equals(toCode)) {
+            throw new RuntimeException("Source and destination warehouse are the same");
+        }
+        Warehouse from = requireWarehouse(fromCode);
+        Warehouse to = requireWarehouse(toCode);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            initializeLocations(productId);
+            List<StockLocation> rows = stockLocationRepository.lockByProductId(productId);
+            StockLocation source = findRow(rows, from.getId());
+            if (source == null || source.getQuantity() < quantity) {
+                throw new RuntimeException("Insufficient stock in " + fromCode + ". Available: " +
+                        (source == null ? 0 : source.getQuantity()) + ", Requested: " + quantity);
+            }
+            StockLocation destination = findRow(rows, to.getId());
+            if (destination == null) {
+                destination = new StockLocation(productId, to.getId(), 0);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            source.setQuantity(source.getQuantity() - quantity);
+            source.setUpdatedDate(now);
+            destination.setQuantity(destination.getQuantity() + quantity);
+            destination.setUpdatedDate(now);
+            stockLocationRepository.saveAll(List.of(source, destination));
+            // The total is unchanged, but a first transfer initializes the locations and bumps the version
+            refreshProduct(productId);
+        });
+
+        System.out.println("🚚 Stock transfer: product " + productId + " | " + quantity + " units " +
+                fromCode + " → " + toCode);
+        return getStockByLocation(productId);
+    }
+
+    // Product ids among the given ones whose stock is held per warehouse
+    public Set<Long> findLocatedProductIds(Collection<Long> productIds) {
+        if (productIds.isEmpty()) return Set.of();
+        return new HashSet<>(stockLocationRepository.findLocatedProductIds(productIds));
+    }
+
+    public Set<String> findLocatedProductNames() {
+        return new HashSet<>(stockLocationRepository.findLocatedProductNames());
+    }
+
+    private Product changeLocation(Long productId, String warehouseCode,
+                                   IntUnaryOperator change, String ledgerReason) {
+        Warehouse warehouse = requireWarehouse(warehouseCode != null ? warehouseCode : defaultWarehouseCode);
+
+        int delta = transactionTemplate.execute(status -> {
+            initializeLocations(productId);
+            List<StockLocation> rows = stockLocationRepository.lockByProductId(productId);
+            StockLocation row = findRow(rows, warehouse.getId());
+            if (row == null) {
+                row = new StockLocation(productId, warehouse.getId(), 0);
+            }
+            int target = change.applyAsInt(row.getQuantity());
+            if (target < 0) {
+                throw new RuntimeException("Stock in " + warehouse.getCode() + " cannot go below 0");
+            }
+            int difference = target - row.getQuantity();
+            row.setQuantity(target);
+            row.setUpdatedDate(LocalDateTime.now());
+            stockLocationRepository.save(row);
+            if (difference != 0) {
+                adjustTotal(productId, difference);
+            }
+            refreshProduct(productId);
+            return difference;
+        });
+
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found with ID: " + productId));
+        if (ledgerReason != null) {
+            stockLedgerService.record(productId, delta, product.getUnitStockQuantity(), ledgerReason);
+        }
+        return product;
+    }
+
+    // JDBC stock writes bypass Hibernate. With open-in-view the request's persistence context may
+    // already hold the product (the order path loads it to check stock), and every later findById
+    // in that request would return the copy with the old stock and version. Call inside the writing
+    // transaction, after the update, so the re-read sees it.
+    public void refreshProduct(Long productId) {
+        Product product = entityManager.find(Product.class, productId);
+        if (product != null) {
+            entityManager.refresh(product);
+        }
+    }
+
+    // First location write for a product: its global stock becomes the default warehouse's row.
+    // Locks the product row and bumps its version so an in-flight single-location write fails and
+    // is retried against the locations instead of overwriting the total.
+    private void initializeLocations(Long productId) {
+        Integer stock = lockProductRow(productId);
+        if (stockLocationRepository.existsByProductId(productId)) {
+            return;
+        }
+        Warehouse defaultWarehouse = requireWarehouse(defaultWarehouseCode);
+        int quantity = stock != null ? stock : 0;
+        stockLocationRepository.save(new StockLocation(productId, defaultWarehouse.getId(), quantity));
+        jdbcTemplate.update(BUMP_VERSION_SQL, productId);
+    }
+
+    private Integer lockProductRow(Long productId) {
+        List<Integer> stock = jdbcTemplate.queryForList(LOCK_PRODUCT_SQL, Integer.class, productId);
+        if (stock.isEmpty()) {
+            throw new RuntimeException("Product not found with ID: " + productId);
+        }
+        return stock.get(0);
+    }
+
+    private void adjustTotal(Long productId, int delta) {
+        jdbcTemplate.update(ADJUST_TOTAL_SQL, delta, delta, Timestamp.valueOf(LocalDateTime.now()), productId);
+    }
+
+    private Warehouse requireWarehouse(String code) {
+        Warehouse warehouse = warehouseRepository.findByCode(code)
+                .orElseThrow(() -> new RuntimeException("Warehouse not found: " + code));
+        if (!warehouse.isActive()) {
+            throw new RuntimeException("Warehouse " + code + " is inactive");
+        }
+        return warehouse;
+    }
+
+    private Map<Long, Warehouse> warehousesById() {
+        Map<Long, Warehouse> warehouses = new HashMap<>();
+        for (Warehouse warehouse : warehouseRepository.findAll()) {
+            warehouses.put(warehouse.getId(), warehouse);
+        }
+        return warehouses;
+    }
+
+    private static StockLocation findRow(List<StockLocation> rows, Long warehouseId) {
+        for (StockLocation row : rows) {
+            if (row.getWarehouseId().equals(warehouseId)) return row;
+        }
+        return null;
+    }
+}
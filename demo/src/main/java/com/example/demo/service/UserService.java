@@ -1,9 +1,11 @@
 package com.example.demo.service;
 
+import com.example.demo.diagnostics.InventoryEvents;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -13,12 +15,18 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final EmailExistenceService emailExistenceService;
+    private final AccountCache accountCache;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       EmailExistenceService emailExistenceService, AccountCache accountCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.emailExistenceService = emailExistenceService;
+        this.accountCache = accountCache;
     }
 
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
@@ -38,7 +46,9 @@ public class UserService {
         user.setCreatedDate(LocalDateTime.now());
         user.setUpdatedDate(LocalDateTime.now());
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        emailExistenceService.recordUserEmail(savedUser.getEmail());
+        return savedUser;
     }
 
     public User updateUser(Long id, User userDetails) {
@@ -50,6 +60,7 @@ public class UserService {
                         throw new RuntimeException("Email already exists: " + userDetails.getEmail());
                     }
 
+                    String oldEmail = user.getEmail();
                     user.setName(userDetails.getName());
                     user.setEmail(userDetails.getEmail());
 
@@ -65,33 +76,56 @@ public class UserService {
                     user.setStatus(userDetails.getStatus());
                     user.setUpdatedDate(LocalDateTime.now());
 
-                    return userRepository.save(user);
+                    User savedUser = userRepository.save(user);
+                    accountCache.evict(User.class, savedUser.getId());
+                    if (!oldEmail.equals(savedUser.getEmail())) {
+                        emailExistenceService.forgetUserEmail(oldEmail);
+                        emailExistenceService.recordUserEmail(savedUser.getEmail());
+                    }
+                    return savedUser;
                 })
                 .orElse(null);
     }
 
     public boolean deleteUser(Long id) {
-        if (userRepository.existsById(id)) {
+        Optional<User> user = userRepository.findById(id);
+        if (user.isPresent()) {
             userRepository.deleteById(id);
+            accountCache.evict(User.class, id);
+            emailExistenceService.forgetUserEmail(user.get().getEmail());
             return true;
         }
         return false;
     }
 
     public boolean isEmailExists(String email) {
-        return userRepository.existsByEmail(email);
+        return emailExistenceService.userEmailExists(email);
     }
 
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
 
+    // Login reads status and password from the row, not the per-instance cache (see AccountCache)
+    public Optional<User> findByEmailUncached(String email) {
+        return userRepository.findByEmailUncached(email);
+    }
+
     public Optional<User> findByEmailAndStatus(String email, String status) {
         return userRepository.findByEmailAndStatus(email, status);
     }
 
     // Add this method to your existing UserService class
     public boolean verifyPassword(String rawPassword, String encodedPassword) {
-        return passwordEncoder.matches(rawPassword, encodedPassword);
+        InventoryEvents.PasswordVerification event = new InventoryEvents.PasswordVerification();
+        event.begin();
+        boolean matched = passwordEncoder.matches(rawPassword, encodedPassword);
+        event.end();
+        if (event.shouldCommit()) {
+            event.accountType = "USER";
+            event.matched = matched;
+            event.commit();
+        }
+        return matched;
     }
 }
@@ -0,0 +1,77 @@
+package com.example.demo.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer. Each slot carries a
+ * sequence number: producers claim a position with one CAS and publish by advancing the
+ * slot's sequence, so a full buffer is detected without locks and offer() never blocks.
+ * Capacity is rounded up to a power of two.
+ */
+public class RingBuffer<T> {
+
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Only the consumer thread moves the head; volatile so size() can be read from anywhere
+    private volatile long head = 0;
+
+    public RingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.items = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // Returns false when the buffer is full; the caller decides whether to drop or retry
+    public boolean offer(T item) {
+        if (item == null) throw new NullPointerException("item");
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) break;
+            } else if (difference < 0) {
+                return false;
+            }
+            // difference > 0: another producer claimed this position first, reload the tail
+        }
+        items[index] = item;
+        sequences.lazySet(index, position + 1);
+        return true;
+    }
+
+    // Single consumer only
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long position = head;
+        int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        T item = (T) items[index];
+        items[index] = null;
+        sequences.lazySet(index, position + mask + 1);
+        head = position + 1;
+        return item;
+    }
+
+    public int size() {
+        return (int) Math.max(0, Math.min(tail.get() - head, items.length));
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Blocking rate limiter. Permits refill continuously at a fixed rate up to a burst capacity;
+ * acquire() takes its permits immediately, letting the balance go negative, and the caller then
+ * sleeps off the debt outside the lock. Requests larger than the burst are therefore allowed, they
+ * just wait proportionally longer, and concurrent callers queue behind each other's debt.
+ */
+public class TokenBucket {
+
+    public interface Sleeper {
+        void sleepNanos(long nanos) throws InterruptedException;
+    }
+
+    private final double permitsPerNano;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+    private final Sleeper sleeper;
+    // No monitor held while sleeping, and none at all on virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private double available;
+    private long lastRefill;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime, TimeUnit.NANOSECONDS::sleep);
+    }
+
+    public TokenBucket(double permitsPerSecond, int burst, LongSupplier nanoClock, Sleeper sleeper) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive");
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("Burst must be at least 1");
+        }
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = burst;
+        this.nanoClock = nanoClock;
+        this.sleeper = sleeper;
+        this.available = burst;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    // Returns the nanoseconds spent waiting
+    public long acquire(int permits) throws InterruptedException {
+        if (permits <= 0) {
+            return 0;
+        }
+        long waitNanos;
+        lock.lock();
+        try {
+            refill();
+            available -= permits;
+            waitNanos = available >= 0 ? 0 : (long) Math.ceil(-available / permitsPerNano);
+        } finally {
+            lock.unlock();
+        }
+        if (waitNanos > 0) {
+            sleeper.sleepNanos(waitNanos);
+        }
+        return waitNanos;
+    }
+
+    public double availablePermits() {
+        lock.lock();
+        try {
+            refill();
+            return available;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        available = Math.min(capacity, available + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,34 @@
+-- Secondary indexes for the ProductRepository finders. Built online (INPLACE, LOCK=NONE) so
+-- orders keep running while a large table is indexed.
+--
+-- Every index is also maintained on each stock update, so columns rewritten by every order
+-- (unit_stock_quantity, total_price, updated_date) get one index at most:
+--   * unit_stock_quantity leads a single index that also carries status, which covers the
+--     low-stock checks (<= threshold AND status = 'ACTIVE') and the status + minimum stock query.
+--   * total_price and updated_date are not indexed; their finders are reporting queries the
+--     application does not call, and an index would cost every checkout.
+-- product_name lookups use uk_products_name_model from the entity mapping. LIKE '%term%'
+-- searches cannot use a B-tree index and are left as scans.
+
+-- findByStatus, findByStatusOrderByProductNameAsc, countByStatus, findProductsByStatusIn,
+-- and the status = 'ACTIVE' totals
+CREATE INDEX idx_products_status_name ON products (status, product_name) ALGORITHM=INPLACE LOCK=NONE;
+
+-- findByStatusOrderByCreatedDateDesc
+CREATE INDEX idx_products_status_created ON products (status, created_date) ALGORITHM=INPLACE LOCK=NONE;
+
+-- findProductsByStatusAndPriceRange, getAverageProductPrice
+CREATE INDEX idx_products_status_price ON products (status, price_per_quantity) ALGORITHM=INPLACE LOCK=NONE;
+
+-- findByUnitStockQuantity*, findActiveLowStockProducts, findLowStockActiveProducts,
+-- findProductsNeedReorder, findProductsByStatusAndMinStock, ordering by stock
+CREATE INDEX idx_products_stock_status ON products (unit_stock_quantity, status) ALGORITHM=INPLACE LOCK=NONE;
+
+-- findByPricePerQuantity*, findTopExpensiveProducts
+CREATE INDEX idx_products_price ON products (price_per_quantity) ALGORITHM=INPLACE LOCK=NONE;
+
+-- findProductsCreatedAfter
+CREATE INDEX idx_products_created ON products (created_date) ALGORITHM=INPLACE LOCK=NONE;
+
+-- findByModel, existsByModel
+CREATE INDEX idx_products_model ON products (model) ALGORITHM=INPLACE LOCK=NONE;
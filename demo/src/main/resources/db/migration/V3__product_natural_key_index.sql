@@ -0,0 +1,16 @@
+-- Unique (product_name, model) index. The order path's in-memory natural-key index and the
+-- name/model finder both rely on at most one product per pair, so the database enforces it too.
+--
+-- New databases already have it: Hibernate creates uk_products_name_model from the entity
+-- mapping before Flyway runs. Databases created before that mapping do not, and MySQL has no
+-- CREATE INDEX IF NOT EXISTS, so the statement is only prepared when the index is missing.
+-- Duplicate pairs make this migration fail; merge them first, the application cannot tell them apart.
+SET @missing = (SELECT COUNT(*) = 0 FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'products'
+                  AND index_name = 'uk_products_name_model');
+SET @ddl = IF(@missing,
+              'CREATE UNIQUE INDEX uk_products_name_model ON products (product_name, model) ALGORITHM=INPLACE LOCK=NONE',
+              'DO 0');
+PREPARE create_natural_key FROM @ddl;
+EXECUTE create_natural_key;
+DEALLOCATE PREPARE create_natural_key;
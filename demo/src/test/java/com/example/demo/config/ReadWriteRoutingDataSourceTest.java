@@ -0,0 +1,116 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routing against two embedded databases that identify themselves, so every assertion reads
+ * which one a transaction actually landed on.
+ */
+public class ReadWriteRoutingDataSourceTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writes;
+    private TransactionTemplate serviceReads;
+    private TransactionTemplate repositoryReads;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("routing-primary", "primary");
+        DataSource replica = database("routing-replica", "replica");
+        DataSource routing = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(
+                primary, replica, new WriteWatermark(5_000, clock::get), new SimpleMeterRegistry()));
+
+        jdbcTemplate = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        writes = new TransactionTemplate(transactionManager);
+        writes.setName("com.example.demo.service.StaffService.updateStaff");
+        serviceReads = new TransactionTemplate(transactionManager);
+        serviceReads.setReadOnly(true);
+        serviceReads.setName("com.example.demo.service.StaffService.getAllStaff");
+        repositoryReads = new TransactionTemplate(transactionManager);
+        repositoryReads.setReadOnly(true);
+        repositoryReads.setName("org.springframework.data.jpa.repository.support.SimpleJpaRepository.findById");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testServiceReadsGoToTheReplicaAndWritesToThePrimary() {
+        assertEquals("replica", serviceReads.execute(status -> whereAmI()));
+        assertEquals("primary", writes.execute(status -> whereAmI()));
+        // Outside any transaction (autocommit statements) nothing is known, so the primary
+        assertEquals("primary", whereAmI());
+    }
+
+    @Test
+    void testFrameworkReadOnlyTransactionsStayOnThePrimary() {
+        assertEquals("primary", repositoryReads.execute(status -> whereAmI()));
+    }
+
+    @Test
+    void testWriterReadsTheirOwnWritesUntilTheWindowPasses() {
+        signIn("staff@example.com");
+        writes.executeWithoutResult(status -> jdbcTemplate.update("UPDATE marker SET touched = touched + 1"));
+
+        assertEquals("primary", serviceReads.execute(status -> whereAmI()));
+
+        // Someone else is not pinned by that write
+        signIn("other@example.com");
+        assertEquals("replica", serviceReads.execute(status -> whereAmI()));
+
+        signIn("staff@example.com");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(5_000));
+        assertEquals("replica", serviceReads.execute(status -> whereAmI()));
+    }
+
+    @Test
+    void testRolledBackWriteDoesNotPin() {
+        signIn("staff@example.com");
+        writes.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE marker SET touched = touched + 1");
+            status.setRollbackOnly();
+        });
+
+        assertEquals("replica", serviceReads.execute(status -> whereAmI()));
+    }
+
+    private String whereAmI() {
+        List<String> names = jdbcTemplate.queryForList("SELECT name FROM marker", String.class);
+        return names.get(0);
+    }
+
+    private static void signIn(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+
+    private static DataSource database(String name, String marker) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate setup = new JdbcTemplate(dataSource);
+        setup.execute("DROP TABLE IF EXISTS marker");
+        setup.execute("CREATE TABLE marker (name VARCHAR(20), touched INT)");
+        setup.update("INSERT INTO marker VALUES (?, 0)", marker);
+        return dataSource;
+    }
+}
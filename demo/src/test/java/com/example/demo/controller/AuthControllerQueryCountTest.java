@@ -0,0 +1,84 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.Staff;
+import com.example.demo.model.User;
+import com.example.demo.repository.StaffRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.support.ControllerTestConfig;
+import com.example.demo.support.MaxQueries;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Login probes admin, staff and user accounts in turn. Budgets are counted from the code path, with no
+// headroom: every lookup is a query on the row (findByEmailUncached), never the second-level cache,
+// so each table probed costs one statement and the staff password check one more.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ControllerTestConfig.class)
+public class AuthControllerQueryCountTest {
+
+    private static final String PASSWORD = "Secret#123";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private StaffRepository staffRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        if (userRepository.findByEmail("qc-user@example.com").isEmpty()) {
+            userRepository.save(new User("QC User", "qc-user@example.com", passwordEncoder.encode(PASSWORD),
+                    "5550100", "BASIC_USER", "ACTIVE"));
+        }
+        if (staffRepository.findByEmail("qc-staff@example.com").isEmpty()) {
+            staffRepository.save(new Staff("QC Staff", "qc-staff@example.com", passwordEncoder.encode(PASSWORD),
+                    "Clerk", "Store", "5550101", "BASIC_STAFF", "ACTIVE"));
+        }
+    }
+
+    // Admin and staff misses, then the user row
+    @Test
+    @MaxQueries(3)
+    void testUserLogin() throws Exception {
+        login("qc-user@example.com", status().isOk(), true);
+    }
+
+    // Admin miss, the staff row, and the staff row again for verifyStaffCredentials
+    @Test
+    @MaxQueries(3)
+    void testStaffLogin() throws Exception {
+        login("qc-staff@example.com", status().isOk(), true);
+    }
+
+    // A miss in all three tables
+    @Test
+    @MaxQueries(3)
+    void testUnknownEmail() throws Exception {
+        login("nobody@example.com", status().isUnauthorized(), false);
+    }
+
+    private void login(String email, ResultMatcher expectedStatus, boolean success) throws Exception {
+        mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(expectedStatus)
+                .andExpect(jsonPath("$.success").value(success));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.JwtUtil;
+import com.example.demo.model.Product;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.service.BackInStockService;
+import com.example.demo.service.BackorderService;
+import com.example.demo.support.ControllerTestConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Backorders drain with plain JDBC inside the replenish request; what follows must see the drained stock
+@SpringBootTest(properties = "backorder.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ControllerTestConfig.class)
+public class BackorderReplenishTest {
+
+    private static final String NAME = "QC-BACKORDERED";
+    private static final String MODEL = "B1";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private BackorderService backorderService;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @MockitoBean
+    private BackInStockService backInStockService;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.findByProductNameAndModel(NAME, MODEL).ifPresent(productRepository::delete);
+        product = productRepository.save(new Product(NAME, MODEL, 5.0, 0, "ACTIVE"));
+        backorderService.place(product.getId(), "waiting@example.com", 6);
+    }
+
+    @Test
+    void testReplenishFullyConsumedByBackordersDoesNotAnnounceBackInStock() throws Exception {
+        replenish(6)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.newStock").value(0));
+
+        verify(backInStockService, never()).onBackInStock(any());
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getUnitStockQuantity());
+    }
+
+    @Test
+    void testStockLeftAfterBackordersIsAnnounced() throws Exception {
+        replenish(8)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.newStock").value(2));
+
+        verify(backInStockService).onBackInStock(argThat(announced -> announced.getUnitStockQuantity() == 2));
+    }
+
+    private ResultActions replenish(int quantity) throws Exception {
+        return mockMvc.perform(put("/api/products/staff/replenish-stock/" + product.getId())
+                .param("quantity", String.valueOf(quantity))
+                .header("Authorization", "Bearer " + jwtUtil.generateToken("clerk@example.com", "STAFF", 1L)));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.JwtUtil;
+import com.example.demo.model.Product;
+import com.example.demo.model.StockMovement;
+import com.example.demo.model.Warehouse;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.service.InsufficientStockException;
+import com.example.demo.service.ProductService;
+import com.example.demo.service.StockLedgerService;
+import com.example.demo.service.StockLocationService;
+import com.example.demo.support.ControllerTestConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Per-warehouse stock is written with JDBC; checkout, the ledger and the sellable total must match what allocation can ship
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ControllerTestConfig.class)
+public class LocatedProductCheckoutTest {
+
+    private static final String NAME = "QC-LOCATED";
+    private static final String MODEL = "L1";
+    private static final String SIDE = "QC-SIDE";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private StockLocationService stockLocationService;
+    @Autowired
+    private StockLedgerService stockLedgerService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.findByProductNameAndModel(NAME, MODEL).ifPresent(productRepository::delete);
+        product = productRepository.save(new Product(NAME, MODEL, 5.0, 10, "ACTIVE"));
+        stockLocationService.setStock(product.getId(), "MAIN", 10);
+        if (stockLocationService.getWarehouses().stream().noneMatch(warehouse -> SIDE.equals(warehouse.getCode()))) {
+            stockLocationService.createWarehouse(new Warehouse(SIDE, "Side warehouse", null, null));
+        }
+        stockLocationService.setWarehouseActive(SIDE, true);
+    }
+
+    @Test
+    void testCheckoutOfALocatedProductReportsTheRemainingStock() throws Exception {
+        LocalDateTime before = LocalDateTime.now().minusSeconds(1);
+        String body = "{\"items\":[{\"productName\":\"" + NAME + "\",\"model\":\"" + MODEL + "\",\"quantity\":3}]}";
+
+        mockMvc.perform(post("/api/orders/checkout")
+                        .header("Authorization", "Bearer " + jwtUtil.generateToken("shopper@example.com", "USER", 1L))
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderSummary['" + NAME + "'].remainingStock").value(7));
+
+        assertEquals(7, productRepository.findById(product.getId()).orElseThrow().getUnitStockQuantity());
+        StockMovement order = orderMovementSince(before);
+        assertNotNull(order, "no ORDER movement was written");
+        assertEquals(-3, order.getDelta());
+        assertEquals(7, order.getQuantityAfter());
+    }
+
+    @Test
+    void testInactiveWarehouseStockIsHeldBackFromTheSellableTotal() throws Exception {
+        stockLocationService.setStock(product.getId(), "MAIN", 4);
+        stockLocationService.setStock(product.getId(), SIDE, 6);
+        assertEquals(10, productRepository.findById(product.getId()).orElseThrow().getUnitStockQuantity());
+
+        setActive(false);
+        assertEquals(4, productRepository.findById(product.getId()).orElseThrow().getUnitStockQuantity());
+        // Rejected up front against what allocate() could ship, not part-way through the allocation
+        InsufficientStockException rejected = assertThrows(InsufficientStockException.class,
+                () -> productService.processOrder(NAME, MODEL, 5));
+        assertEquals(4, rejected.getAvailable());
+
+        setActive(true);
+        assertEquals(10, productRepository.findById(product.getId()).orElseThrow().getUnitStockQuantity());
+    }
+
+    private void setActive(boolean active) throws Exception {
+        mockMvc.perform(put("/api/warehouses/" + SIDE + "/active").param("active", String.valueOf(active))
+                        .header("Authorization", "Bearer " + jwtUtil.generateToken("admin@example.com", "ADMIN", 1L)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productsAdjusted").value(1));
+    }
+
+    // The scheduled flush may hold the lock when the test calls flush(), so poll briefly
+    private StockMovement orderMovementSince(LocalDateTime since) throws InterruptedException {
+        for (int attempt = 0; attempt < 50; attempt++) {
+            stockLedgerService.flush();
+            List<StockMovement> movements = stockLedgerService.getProductMovementsSince(product.getId(), since, 100);
+            for (StockMovement movement : movements) {
+                if (StockLedgerService.REASON_ORDER.equals(movement.getReason())) {
+                    return movement;
+                }
+            }
+            Thread.sleep(100);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.JwtUtil;
+import com.example.demo.model.Product;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.support.ControllerTestConfig;
+import com.example.demo.support.MaxQueries;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.StringJoiner;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checkout budget, counted from the code path rather than measured: per line, the product read
+ * (findById through the natural-key index, or the name/model query on a miss), the per-warehouse
+ * check (existsByProductId) and the versioned stock update; then the order and its lines, one JDBC
+ * batch each. That is 3 * LINES + 2. The headroom of 2 covers one refill of each id pool (orders_seq
+ * and order_lines_seq, allocation size 50), which other tests sharing the context can push into this
+ * checkout. Ledger rows, change log and mail run on other threads and are not counted. A query added
+ * per line overshoots the budget by the cart size.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ControllerTestConfig.class)
+public class OrderControllerQueryCountTest {
+
+    private static final int LINES = 10;
+    private static final String MODEL = "M1";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String authorization;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int i = 0; i <= LINES; i++) {
+            String name = "QC-ORDER-" + i;
+            if (productRepository.findByProductNameAndModel(name, MODEL).isEmpty()) {
+                productRepository.save(new Product(name, MODEL, 4.0, 500, "ACTIVE"));
+            }
+        }
+        authorization = "Bearer " + jwtUtil.generateToken("shopper@example.com", "USER", 1L);
+
+        // Warm-up order: sequence pools and first-use lookups are not part of the budget
+        checkout(0, 1);
+    }
+
+    @Test
+    @MaxQueries(3 * LINES + 2 + 2)
+    void testCheckoutStatementsDoNotGrowFasterThanThreePerLine() throws Exception {
+        checkout(1, LINES);
+    }
+
+    private void checkout(int firstProduct, int lines) throws Exception {
+        StringJoiner items = new StringJoiner(",", "{\"items\":[", "]}");
+        for (int i = firstProduct; i < firstProduct + lines; i++) {
+            items.add("{\"productName\":\"QC-ORDER-" + i + "\",\"model\":\"" + MODEL + "\",\"quantity\":1}");
+        }
+        mockMvc.perform(post("/api/orders/checkout").header("Authorization", authorization)
+                        .contentType(MediaType.APPLICATION_JSON).content(items.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.JwtUtil;
+import com.example.demo.model.Product;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.service.ProductCache;
+import com.example.demo.support.ControllerTestConfig;
+import com.example.demo.support.MaxQueries;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Statement budgets for the product read endpoints, counted from the code path: one query per request
+// however many rows, no headroom. Batch-get runs twice within the cache TTL: one IN query for the 20
+// misses (under the 500-id chunk), then none.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ControllerTestConfig.class)
+public class ProductControllerQueryCountTest {
+
+    private static final int PRODUCTS = 20;
+    private static final String MODEL = "M1";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductCache productCache;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String authorization;
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        ids = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            String name = "QC-LIST-" + i;
+            Product product = productRepository.findByProductNameAndModel(name, MODEL)
+                    .orElseGet(() -> productRepository.save(new Product(name, MODEL, 2.5, 100, "ACTIVE")));
+            ids.add(product.getId());
+        }
+        productCache.clear();
+        authorization = "Bearer " + jwtUtil.generateToken("shopper@example.com", "USER", 1L);
+    }
+
+    @Test
+    @MaxQueries(1)
+    void testProductListIsOneQuery() throws Exception {
+        mockMvc.perform(get("/api/products").header("Authorization", authorization))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxQueries(1)
+    void testProjectedProductListIsOneQuery() throws Exception {
+        mockMvc.perform(get("/api/products").param("fields", "id,productName,unitStockQuantity")
+                        .header("Authorization", authorization))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxQueries(1)
+    void testBatchGetLoadsMissesWithOneInQueryAndThenServesFromCache() throws Exception {
+        String body = "{\"ids\":[" + ids.stream().map(String::valueOf).collect(Collectors.joining(",")) + "]}";
+
+        for (int request = 0; request < 2; request++) {
+            mockMvc.perform(post("/api/products/batch-get").header("Authorization", authorization)
+                            .contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.products.length()").value(PRODUCTS));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.JwtUtil;
+import com.example.demo.model.Product;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.service.ProductService;
+import com.example.demo.support.ControllerTestConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Staff edits against the real persistence stack: a form loaded before a checkout must not restore the old stock
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ControllerTestConfig.class)
+public class ProductUpdateConflictTest {
+
+    private static final String NAME = "QC-VERSIONED";
+    private static final String MODEL = "V1";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String authorization;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.findByProductNameAndModel(NAME, MODEL).ifPresent(productRepository::delete);
+        product = productRepository.save(new Product(NAME, MODEL, 5.0, 10, "ACTIVE"));
+        authorization = "Bearer " + jwtUtil.generateToken("clerk@example.com", "STAFF", 1L);
+    }
+
+    @Test
+    void testEditFromBeforeACheckoutIsRejectedAndKeepsTheCheckoutsStock() throws Exception {
+        Long formVersion = product.getVersion();
+        productService.processOrder(NAME, MODEL, 3);
+
+        update(10, formVersion)
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.current.unitStockQuantity").value(7));
+
+        assertEquals(7, productRepository.findById(product.getId()).orElseThrow().getUnitStockQuantity());
+    }
+
+    @Test
+    void testEditWithTheCurrentVersionIsApplied() throws Exception {
+        Long version = productRepository.findById(product.getId()).orElseThrow().getVersion();
+
+        update(25, version)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unitStockQuantity").value(25));
+
+        Product saved = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(25, saved.getUnitStockQuantity());
+        assertEquals(version + 1, saved.getVersion());
+    }
+
+    @Test
+    void testEditWithoutVersionIsRejected() throws Exception {
+        update(25, null).andExpect(status().isBadRequest());
+
+        assertEquals(10, productRepository.findById(product.getId()).orElseThrow().getUnitStockQuantity());
+    }
+
+    private ResultActions update(int stock, Long version) throws Exception {
+        String body = "{\"productName\":\"" + NAME + "\",\"model\":\"" + MODEL + "\",\"pricePerQuantity\":5.0," +
+                "\"unitStockQuantity\":" + stock + ",\"status\":\"ACTIVE\"" +
+                (version != null ? ",\"version\":" + version : "") + "}";
+        return mockMvc.perform(put("/api/products/staff/update/" + product.getId())
+                .header("Authorization", authorization)
+                .contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.diagnostics;
+
+import com.example.demo.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryPlanVerifierTest {
+
+    private static final QueryPlanVerifier.PlannedQuery HOT =
+            new QueryPlanVerifier.PlannedQuery("hot", true, "SELECT * FROM products WHERE a = ?", 1);
+    private static final QueryPlanVerifier.PlannedQuery COLD =
+            new QueryPlanVerifier.PlannedQuery("cold", false, "SELECT * FROM products WHERE b = ?", 1);
+
+    @Test
+    void testScanWithNoCandidateIndexIsReported() {
+        assertEquals(List.of("products"), QueryPlanVerifier.fullScans(List.of(row("ALL", null))));
+        assertEquals(List.of("products"), QueryPlanVerifier.fullScans(List.of(row("ALL", ""))));
+    }
+
+    @Test
+    void testScanChosenOverAUsableIndexIsNotReported() {
+        // MySQL may prefer a scan on a small table even though an index exists
+        assertTrue(QueryPlanVerifier.fullScans(List.of(row("ALL", "idx_products_status_name"))).isEmpty());
+        assertTrue(QueryPlanVerifier.fullScans(List.of(row("ref", "uk_products_name_model"))).isEmpty());
+    }
+
+    @Test
+    void testHotFullScanFailsStartupInFailMode() {
+        QueryPlanVerifier verifier = new QueryPlanVerifier(explaining(row("ALL", null)), "fail");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> verifier.verify(List.of(COLD, HOT)));
+        assertTrue(e.getMessage().contains("hot"));
+        assertFalse(e.getMessage().contains("cold"));
+    }
+
+    @Test
+    void testColdFullScanAndWarnModeOnlyLog() {
+        assertDoesNotThrow(() -> new QueryPlanVerifier(explaining(row("ALL", null)), "fail").verify(List.of(COLD)));
+        assertDoesNotThrow(() -> new QueryPlanVerifier(explaining(row("ALL", null)), "warn").verify(List.of(HOT)));
+    }
+
+    @Test
+    void testEveryCatalogEntryNamesAProductRepositoryMethod() {
+        Set<String> finders = Arrays.stream(ProductRepository.class.getDeclaredMethods())
+                .map(Method::getName)
+                .collect(Collectors.toSet());
+
+        for (QueryPlanVerifier.PlannedQuery query : QueryPlanVerifier.PRODUCT_QUERIES) {
+            // "updateStockQuantity(productName, model)" picks one overload
+            String method = query.name().replaceFirst("\\(.*$", "");
+            assertTrue(finders.contains(method), "No ProductRepository." + method + " for catalog entry " + query.name());
+        }
+    }
+
+    private static JdbcTemplate explaining(Map<String, Object> planRow) {
+        return new JdbcTemplate() {
+            @Override
+            public List<Map<String, Object>> queryForList(String sql, Object... args) {
+                assertTrue(sql.startsWith("EXPLAIN "));
+                return List.of(planRow);
+            }
+        };
+    }
+
+    private static Map<String, Object> row(String type, String possibleKeys) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("table", "products");
+        row.put("type", type);
+        row.put("possible_keys", possibleKeys);
+        return row;
+    }
+}
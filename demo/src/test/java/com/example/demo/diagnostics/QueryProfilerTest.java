@@ -0,0 +1,111 @@
+package com.example.demo.diagnostics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryProfilerTest {
+
+    private EventLogger eventLogger;
+    private QueryProfiler profiler;
+
+    @BeforeEach
+    void setUp() {
+        eventLogger = new EventLogger(1024, Map.of(), new StringWriter());
+        profiler = new QueryProfiler(eventLogger, new SimpleMeterRegistry(), true, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventLogger.shutdown();
+    }
+
+    @Test
+    void testStatementsRowsAndLoadsAreChargedToTheRunningCall() throws Throwable {
+        // Outside any repository call: not attributed to anything
+        profiler.inspect("select 1");
+
+        profiler.profile("ProductRepository.findByStatus", new Object[]{"ACTIVE"}, () -> {
+            profiler.inspect("select p1_0.id from products p1_0 where p1_0.status=?");
+            for (int i = 0; i < 3; i++) {
+                profiler.onLoad(new Object(), (long) i, null, null, null);
+            }
+            return List.of("a", "b", "c");
+        });
+
+        Map<String, Object> stats = profiler.top("total", 10).get(0);
+        assertEquals("ProductRepository.findByStatus", stats.get("query"));
+        assertEquals(1L, stats.get("calls"));
+        assertEquals(1L, stats.get("statements"));
+        assertEquals(3L, stats.get("rows"));
+        assertEquals(3L, stats.get("entityLoads"));
+    }
+
+    @Test
+    void testNestedCallRollsUpIntoTheOuterOne() throws Throwable {
+        profiler.profile("OuterRepository.load", null, () -> {
+            profiler.inspect("select outer");
+            return profiler.profile("InnerRepository.load", null, () -> {
+                profiler.inspect("select inner");
+                return Optional.empty();
+            });
+        });
+
+        Map<String, Map<String, Object>> byQuery = byQuery(profiler.top("total", 10));
+        assertEquals(2L, byQuery.get("OuterRepository.load").get("statements"));
+        assertEquals(1L, byQuery.get("InnerRepository.load").get("statements"));
+        assertEquals(0L, byQuery.get("InnerRepository.load").get("rows"));
+    }
+
+    @Test
+    void testFailedCallIsCountedAndRethrown() {
+        assertThrows(IllegalStateException.class, () -> profiler.profile("StaffRepository.findByEmail",
+                new Object[]{"someone@example.com"}, () -> {
+                    throw new IllegalStateException("connection lost");
+                }));
+
+        Map<String, Object> stats = profiler.top("total", 10).get(0);
+        assertEquals(1L, stats.get("errors"));
+        assertEquals(0L, stats.get("rows"));
+    }
+
+    @Test
+    void testTopOrdersByFrequencyAndRejectsUnknownSorts() throws Throwable {
+        for (int i = 0; i < 3; i++) {
+            profiler.profile("ProductRepository.findById", null, () -> Optional.of("p"));
+        }
+        profiler.profile("ProductRepository.findAll", null, () -> {
+            Thread.sleep(5);
+            return List.of();
+        });
+
+        assertEquals("ProductRepository.findById", profiler.top("frequent", 10).get(0).get("query"));
+        assertEquals("ProductRepository.findAll", profiler.top("slowest", 10).get(0).get("query"));
+        assertEquals(1, profiler.top("frequent", 1).size());
+        assertThrows(IllegalArgumentException.class, () -> profiler.top("random", 10));
+    }
+
+    @Test
+    void testBindValuesAndLiteralsAreRedacted() {
+        assertEquals("[String, Integer]", QueryProfiler.redactArgs(new Object[]{"jane@example.com", 42}));
+        assertEquals("[null, ArrayList(2)]", QueryProfiler.redactArgs(new Object[]{null, new ArrayList<>(List.of(1, 2))}));
+
+        String sql = "select p1_0.id from products p1_0 where p1_0.status='ACTIVE' and p1_0.price_per_quantity>12.5";
+        String redacted = QueryProfiler.redactSql(List.of(sql));
+        assertEquals("select p1_0.id from products p1_0 where p1_0.status=? and p1_0.price_per_quantity>?", redacted);
+    }
+
+    private static Map<String, Map<String, Object>> byQuery(List<Map<String, Object>> rows) {
+        Map<String, Map<String, Object>> byQuery = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            byQuery.put((String) row.get("query"), row);
+        }
+        return byQuery;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductFieldSetTest {
+
+    @Test
+    void testBlankMeansFullEntity() {
+        assertNull(ProductFieldSet.parse(null));
+        assertNull(ProductFieldSet.parse("  "));
+    }
+
+    @Test
+    void testSelectsOnlyRequestedColumnsPlusId() {
+        ProductFieldSet fields = ProductFieldSet.parse("unitStockQuantity, productName");
+
+        assertEquals(List.of("id", "productName", "unitStockQuantity"), fields.getNames());
+        assertEquals("SELECT p.id, p.productName, p.unitStockQuantity FROM Product p", fields.getSelectAllJpql());
+    }
+
+    @Test
+    void testEverySpellingOfACombinationSharesOneCachedQuery() {
+        ProductFieldSet first = ProductFieldSet.parse("model,productName");
+
+        assertSame(first, ProductFieldSet.parse("productName,model"));
+        assertSame(first, ProductFieldSet.parse("id,model,productName,model"));
+    }
+
+    @Test
+    void testUnknownFieldIsRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ProductFieldSet.parse("productName,password"));
+        assertTrue(e.getMessage().contains("password"));
+    }
+
+    @Test
+    void testRowsFromColumnsAndFromEntitiesHaveTheSameShape() {
+        ProductFieldSet fields = ProductFieldSet.parse("productName,unitStockQuantity");
+        Product product = new Product("Widget", "W-1", 2.5, 7, "ACTIVE");
+        product.setId(3L);
+
+        Map<String, Object> fromColumns = fields.toRow(new Object[]{3L, "Widget", 7});
+
+        assertEquals(fromColumns, fields.toRow(product));
+        assertEquals(List.of("id", "productName", "unitStockQuantity"), List.copyOf(fromColumns.keySet()));
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Staff;
+import com.example.demo.repository.StaffRepository;
+import com.example.demo.support.ControllerTestConfig;
+import com.example.demo.support.QueryCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Email lookups of accounts go through the second-level cache; service writes must not leave stale entries
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(ControllerTestConfig.class)
+public class AccountCacheTest {
+
+    @Autowired
+    private StaffRepository staffRepository;
+    @Autowired
+    private StaffService staffService;
+    @Autowired
+    private AccountCache accountCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void testRepeatedEmailLookupRunsNoStatements() {
+        staff("cache-repeat@example.com");
+        staffRepository.findByEmail("cache-repeat@example.com");
+
+        QueryCounter.start();
+        Staff found = staffRepository.findByEmail("cache-repeat@example.com").orElseThrow();
+        List<String> executed = QueryCounter.stop();
+
+        assertEquals("cache-repeat@example.com", found.getEmail());
+        assertEquals(List.of(), executed);
+        assertTrue(accountCache.getHitRatio(Staff.class, AccountCache.NATURAL_ID) > 0);
+        assertTrue(accountCache.getHitRatio(Staff.class, AccountCache.ENTITY) > 0);
+    }
+
+    @Test
+    void testStatusChangeIsSeenByTheNextLookup() {
+        Staff staff = staff("cache-status@example.com");
+        assertEquals("ACTIVE", staffRepository.findByEmail("cache-status@example.com").orElseThrow().getStatus());
+
+        staffService.updateStaffStatus(staff.getId(), "INACTIVE");
+
+        assertEquals("INACTIVE", staffRepository.findByEmail("cache-status@example.com").orElseThrow().getStatus());
+    }
+
+    @Test
+    void testChangedEmailStopsResolvingTheOldOne() {
+        staffRepository.findByEmail("cache-new@example.com").ifPresent(staffRepository::delete);
+        Staff staff = staff("cache-old@example.com");
+        staffRepository.findByEmail("cache-old@example.com").orElseThrow();
+
+        Staff details = new Staff(staff.getName(), "cache-new@example.com", null, staff.getDesignation(),
+                staff.getDepartment(), staff.getPhoneNumber(), staff.getRightsPrivileges(), staff.getStatus());
+        staffService.updateStaff(staff.getId(), details);
+
+        assertTrue(staffRepository.findByEmail("cache-old@example.com").isEmpty());
+        assertEquals(staff.getId(), staffRepository.findByEmail("cache-new@example.com").orElseThrow().getId());
+    }
+
+    @Test
+    void testDeletedStaffIsNotServedFromTheCache() {
+        Staff staff = staff("cache-deleted@example.com");
+        staffRepository.findByEmail("cache-deleted@example.com").orElseThrow();
+
+        staffService.deleteStaff(staff.getId());
+
+        assertTrue(staffRepository.findByEmail("cache-deleted@example.com").isEmpty());
+    }
+
+    // Another instance's write never evicts this cache; credential and status checks must not depend on it
+    @Test
+    void testCredentialCheckSeesAChangeMadeBehindTheCache() {
+        Staff staff = staff("cache-elsewhere@example.com");
+        staffRepository.findByEmail("cache-elsewhere@example.com").orElseThrow();
+
+        jdbcTemplate.update("UPDATE staff SET password = ?, status = 'INACTIVE' WHERE id = ?",
+                passwordEncoder.encode("Changed#123"), staff.getId());
+
+        assertTrue(staffService.verifyStaffCredentials("cache-elsewhere@example.com", "Changed#123"));
+        assertEquals("INACTIVE",
+                staffService.findByEmailUncached("cache-elsewhere@example.com").orElseThrow().getStatus());
+    }
+
+    @Test
+    void testNullEmailFindsNothing() {
+        assertTrue(staffRepository.findByEmail(null).isEmpty());
+    }
+
+    private Staff staff(String email) {
+        staffRepository.findByEmail(email).ifPresent(staffRepository::delete);
+        return staffRepository.save(new Staff("Cache Staff", email, "encoded", "Clerk", "Store",
+                "5550102", "BASIC_STAFF", "ACTIVE"));
+    }
+}
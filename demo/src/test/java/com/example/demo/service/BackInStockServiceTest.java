@@ -0,0 +1,158 @@
+package com.example.demo.service;
+
+import com.example.demo.diagnostics.EventLogger;
+import com.example.demo.model.Product;
+import com.example.demo.model.StockSubscription;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.repository.StockSubscriptionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailSendException;
+
+import java.io.Writer;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class BackInStockServiceTest {
+
+    private static final Long PRODUCT_ID = 3L;
+
+    private final TreeMap<Long, StockSubscription> subscriptions = new TreeMap<>();
+    private final AtomicInteger pagesRead = new AtomicInteger();
+    private Product product;
+    private ProductRepository productRepository;
+    private EmailService emailService;
+    private BackInStockService service;
+
+    @BeforeEach
+    void setUp() {
+        product = new Product("Widget", "W-1", 2.5, 5, "ACTIVE");
+        product.setId(PRODUCT_ID);
+        productRepository = mock(ProductRepository.class);
+        when(productRepository.findById(PRODUCT_ID)).thenAnswer(invocation -> Optional.of(product));
+
+        StockSubscriptionRepository repository = mock(StockSubscriptionRepository.class);
+        when(repository.findByProductIdAndIdGreaterThanOrderByIdAsc(eq(PRODUCT_ID), anyLong(), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    pagesRead.incrementAndGet();
+                    long afterId = invocation.getArgument(1);
+                    int size = invocation.<Pageable>getArgument(2).getPageSize();
+                    return subscriptions.tailMap(afterId, false).values().stream().limit(size).toList();
+                });
+        doAnswer(invocation -> {
+            invocation.<Collection<Long>>getArgument(0).forEach(subscriptions::remove);
+            return null;
+        }).when(repository).deleteAllByIdInBatch(anyIterable());
+
+        emailService = mock(EmailService.class);
+        // Rate high enough that the bucket never sleeps; TokenBucketTest covers the throttling
+        service = new BackInStockService(repository, productRepository, emailService, new SimpleMeterRegistry(),
+                new EventLogger(1024, Map.of(), Writer.nullWriter()), 1000, 50, 1e9);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testEverySubscriberIsMailedOnceInBatchesAndForgotten() throws Exception {
+        subscribe(10_000);
+
+        assertEquals(10_000, service.fanOut(PRODUCT_ID));
+
+        assertTrue(subscriptions.isEmpty());
+        // 10 full pages plus the empty one that ends the walk; 200 SMTP sessions of 50
+        assertEquals(11, pagesRead.get());
+        verify(emailService, times(200)).sendBackInStockBatch(eq(product), argThat(batch -> batch.size() == 50));
+    }
+
+    @Test
+    void testSellingOutAgainStopsTheFanOutAndKeepsTheRestSubscribed() throws Exception {
+        subscribe(3000);
+        AtomicInteger batches = new AtomicInteger();
+        doAnswer(invocation -> {
+            // Gone again while the first page was being mailed
+            if (batches.incrementAndGet() == 20) product.setUnitStockQuantity(0);
+            return null;
+        }).when(emailService).sendBackInStockBatch(any(), anyList());
+
+        assertEquals(1000, service.fanOut(PRODUCT_ID));
+        assertEquals(2000, subscriptions.size());
+    }
+
+    @Test
+    void testRelayFailureKeepsUnsentSubscriptions() throws Exception {
+        subscribe(120);
+        doNothing().doThrow(new MailSendException("relay refused"))
+                .when(emailService).sendBackInStockBatch(any(), anyList());
+
+        assertEquals(50, service.fanOut(PRODUCT_ID));
+        assertEquals(70, subscriptions.size());
+        assertEquals(51L, subscriptions.firstKey());
+    }
+
+    @Test
+    void testTriggerReturnsImmediatelyAndRestocksDuringARunAreCoalesced() throws Exception {
+        subscribe(10);
+        CountDownLatch mailing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            mailing.countDown();
+            release.await();
+            return null;
+        }).when(emailService).sendBackInStockBatch(any(), anyList());
+
+        long started = System.nanoTime();
+        service.onBackInStock(product);
+        assertTrue(mailing.await(5, TimeUnit.SECONDS));
+        service.onBackInStock(product);
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+
+        release.countDown();
+        service.shutdown();
+        verify(emailService, times(1)).sendBackInStockBatch(any(), anyList());
+    }
+
+    @Test
+    void testRestockAfterTheRunSawTheProductSoldOutStartsAnotherRun() throws Exception {
+        subscribe(10);
+        AtomicInteger reads = new AtomicInteger();
+        when(productRepository.findById(PRODUCT_ID)).thenAnswer(invocation -> {
+            Product seen = new Product("Widget", "W-1", 2.5, reads.incrementAndGet() == 1 ? 0 : 5, "ACTIVE");
+            seen.setId(PRODUCT_ID);
+            if (reads.get() == 1) {
+                // Restocked just after the run read it as sold out, before the run let go of the product
+                service.onBackInStock(product);
+            }
+            return Optional.of(seen);
+        });
+        CountDownLatch mailed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            mailed.countDown();
+            return null;
+        }).when(emailService).sendBackInStockBatch(any(), anyList());
+
+        service.onBackInStock(product);
+
+        assertTrue(mailed.await(5, TimeUnit.SECONDS), "The late restock was coalesced into a run that had stopped");
+        verify(emailService).sendBackInStockBatch(any(), argThat(batch -> batch.size() == 10));
+    }
+
+    private void subscribe(int count) {
+        for (long id = 1; id <= count; id++) {
+            StockSubscription subscription = new StockSubscription(PRODUCT_ID, "user" + id + "@example.com");
+            subscription.setId(id);
+            subscriptions.put(id, subscription);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.demo.service;
+
+import com.example.demo.diagnostics.EventLogger;
+import com.example.demo.model.Backorder;
+import com.example.demo.model.Product;
+import com.example.demo.repository.BackorderRepository;
+import com.example.demo.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.Writer;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Drains against an in-memory queue: FIFO order, no overtaking, and the number of queue rows read
+ * is bounded by the stock handed out, however long the queue is.
+ */
+public class BackorderServiceTest {
+
+    private static final Long PRODUCT_ID = 7L;
+
+    private final List<Backorder> queue = new ArrayList<>();
+    private final AtomicInteger rowsRead = new AtomicInteger();
+    private final Set<Long> markedFulfilled = new HashSet<>();
+
+    private BackorderRepository backorderRepository;
+    private StockLocationService stockLocationService;
+    private EmailService emailService;
+    private OrderService orderService;
+    private JdbcTemplate jdbcTemplate;
+    private BackorderService backorderService;
+
+    @BeforeEach
+    void setUp() {
+        backorderRepository = mock(BackorderRepository.class);
+        when(backorderRepository.existsByProductIdAndStatus(PRODUCT_ID, Backorder.STATUS_PENDING))
+                .thenAnswer(invocation -> !queue.isEmpty());
+        when(backorderRepository.lockPendingAfter(eq(PRODUCT_ID), anyLong(), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    long afterId = invocation.getArgument(1);
+                    int limit = invocation.<Pageable>getArgument(2).getPageSize();
+                    List<Backorder> page = queue.stream()
+                            .filter(b -> b.getId() > afterId && !markedFulfilled.contains(b.getId()))
+                            .limit(limit)
+                            .toList();
+                    rowsRead.addAndGet(page.size());
+                    return page;
+                });
+        when(backorderRepository.markFulfilled(anyCollection(), any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            markedFulfilled.addAll(ids);
+            return ids.size();
+        });
+
+        Product product = new Product("Widget", "W-1", 2.5, 0, "ACTIVE");
+        product.setId(PRODUCT_ID);
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
+
+        stockLocationService = mock(StockLocationService.class);
+        emailService = mock(EmailService.class);
+        orderService = mock(OrderService.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+
+        backorderService = new BackorderService(backorderRepository, productRepository, stockLocationService,
+                mock(StockLedgerService.class), orderService, emailService, mock(ProductChangeBus.class), jdbcTemplate,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                new EventLogger(1024, Map.of(), Writer.nullWriter()));
+        ReflectionTestUtils.setField(backorderService, "enabled", true);
+        ReflectionTestUtils.setField(backorderService, "drainPageSize", 8);
+    }
+
+    @Test
+    void testFloodOfBackordersOnlyCostsWhatIsFilled() {
+        for (int i = 0; i < 50_000; i++) {
+            enqueue("user" + (i % 10) + "@example.com", 1);
+        }
+        stock(30);
+
+        assertEquals(30, backorderService.drain(PRODUCT_ID));
+
+        assertEquals(30, rowsRead.get(), "Drain read queue rows it could never fill");
+        assertEquals(30, markedFulfilled.size());
+        assertTrue(markedFulfilled.containsAll(List.of(1L, 15L, 30L)));
+        verify(jdbcTemplate).update(anyString(), eq(30), eq(30), any(), eq(PRODUCT_ID));
+        // One journal entry per customer, one batched notification for the whole drain
+        verify(orderService, times(10)).recordOrder(anyString(), anyList());
+        verify(emailService, times(1)).sendBackordersFulfilled(any(Product.class), argThat(byUser ->
+                byUser.size() == 10 && byUser.values().stream().mapToInt(Integer::intValue).sum() == 30));
+    }
+
+    @Test
+    void testHeadOfQueueIsNeverOvertaken() {
+        enqueue("big@example.com", 10);
+        enqueue("small@example.com", 1);
+        stock(5);
+
+        assertEquals(0, backorderService.drain(PRODUCT_ID));
+
+        assertTrue(markedFulfilled.isEmpty());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verifyNoInteractions(emailService, orderService);
+    }
+
+    @Test
+    void testDrainFillsInOrderAndStopsAtFirstLineThatDoesNotFit() {
+        Long first = enqueue("a@example.com", 2);
+        Long second = enqueue("b@example.com", 3);
+        enqueue("c@example.com", 4);
+        enqueue("d@example.com", 1);
+        stock(6);
+
+        assertEquals(2, backorderService.drain(PRODUCT_ID));
+
+        assertEquals(Set.of(first, second), markedFulfilled);
+        verify(jdbcTemplate).update(anyString(), eq(5), eq(5), any(), eq(PRODUCT_ID));
+        verify(stockLocationService).refreshProduct(PRODUCT_ID);
+    }
+
+    @Test
+    void testPerWarehouseProductShipsTheBatchAsOneAllocation() {
+        enqueue("a@example.com", 3);
+        enqueue("b@example.com", 3);
+        enqueue("c@example.com", 3);
+        stock(9);
+        when(stockLocationService.hasLocations(PRODUCT_ID)).thenReturn(true);
+        // The locations decide what can ship, not the quantity read from the product row
+        when(stockLocationService.lockAllocatable(PRODUCT_ID)).thenReturn(7);
+
+        assertEquals(2, backorderService.drain(PRODUCT_ID));
+
+        verify(stockLocationService).allocate(PRODUCT_ID, 6, null);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void testProductWithoutBackordersIsNotLocked() {
+        stock(100);
+
+        assertEquals(0, backorderService.drain(PRODUCT_ID));
+
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(Integer.class), any());
+    }
+
+    private Long enqueue(String userEmail, int quantity) {
+        Backorder backorder = new Backorder(PRODUCT_ID, userEmail, quantity);
+        backorder.setId((long) queue.size() + 1);
+        queue.add(backorder);
+        return backorder.getId();
+    }
+
+    private void stock(int units) {
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), any())).thenReturn(List.of(units));
+    }
+}
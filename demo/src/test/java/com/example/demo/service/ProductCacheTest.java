@@ -0,0 +1,131 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Product;
+import com.example.demo.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+public class ProductCacheTest {
+
+    private final Map<Long, Product> table = new HashMap<>();
+    private final List<Integer> inListSizes = new ArrayList<>();
+    private final AtomicLong nanos = new AtomicLong();
+    private ProductRepository productRepository;
+    private ProductCache cache;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= 20; id++) {
+            Product product = new Product("P" + id, "M", 1.0, 5, "ACTIVE");
+            product.setId(id);
+            table.put(id, product);
+        }
+        productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Product> rows = new ArrayList<>();
+            int size = 0;
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                size++;
+                if (table.containsKey(id)) rows.add(table.get(id));
+            }
+            inListSizes.add(size);
+            // The database returns IN results in its own order
+            Collections.reverse(rows);
+            return rows;
+        });
+        cache = new ProductCache(productRepository, new SimpleMeterRegistry(), 1000, 10, 50, 3, nanos::get);
+    }
+
+    @Test
+    void testResultsFollowRequestOrderAndMissesAreChunked() {
+        List<Long> ids = List.of(9L, 2L, 404L, 7L, 2L, 1L, 15L, 11L, 3L);
+
+        List<Product> products = cache.getProducts(ids);
+
+        assertEquals(List.of(9L, 2L, 7L, 1L, 15L, 11L, 3L), products.stream().map(Product::getId).toList());
+        assertEquals(List.of(404L), ProductCache.missingIds(ids, products));
+        // 8 distinct ids, at most 3 per IN list
+        assertEquals(List.of(3, 3, 2), inListSizes);
+    }
+
+    @Test
+    void testSecondLookupIsServedFromCache() {
+        cache.getProducts(List.of(1L, 2L, 3L));
+        clearInvocations(productRepository);
+
+        cache.getProducts(List.of(3L, 1L, 2L));
+
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testInvalidatedProductIsReloaded() {
+        cache.getProducts(List.of(1L, 2L));
+        Product fresh = new Product("P1", "M", 1.0, 0, "ACTIVE");
+        fresh.setId(1L);
+        table.put(1L, fresh);
+
+        cache.invalidate(1L);
+
+        assertSame(fresh, cache.getProducts(List.of(1L, 2L)).get(0));
+    }
+
+    @Test
+    void testEntriesExpireSoChangesFromOtherInstancesAreSeen() {
+        cache.getProducts(List.of(1L));
+        Product changedElsewhere = new Product("P1", "M", 1.0, 0, "ACTIVE");
+        changedElsewhere.setId(1L);
+        table.put(1L, changedElsewhere);
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        assertNotSame(changedElsewhere, cache.getProducts(List.of(1L)).get(0));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertSame(changedElsewhere, cache.getProducts(List.of(1L)).get(0));
+    }
+
+    @Test
+    void testFullCacheDropsTheLeastRecentlyReadEntries() {
+        cache = new ProductCache(productRepository, new SimpleMeterRegistry(), 3, 10, 50, 3, nanos::get);
+        cache.getProducts(List.of(1L, 2L, 3L));
+        cache.getProducts(List.of(1L));
+
+        cache.getProducts(List.of(4L));
+        clearInvocations(productRepository);
+
+        assertEquals(3, cache.size());
+        cache.getProducts(List.of(1L, 3L, 4L));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testLoadThatRacedAnInvalidationIsNotCached() {
+        when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            // A writer commits and evicts while the IN query is in flight
+            cache.invalidate(5L);
+            return List.of(table.get(5L));
+        });
+
+        cache.getProducts(List.of(5L));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testOversizedRequestIsRejected() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 0; id < 51; id++) ids.add(id);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.getProducts(ids));
+        verifyNoInteractions(productRepository);
+    }
+}
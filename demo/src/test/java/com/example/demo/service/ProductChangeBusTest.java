@@ -0,0 +1,125 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Product;
+import com.example.demo.model.ProductChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ProductChangeBusTest {
+
+    private SimpleMeterRegistry registry;
+    private ProductChangeBus bus;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        bus = new ProductChangeBus(mock(ProductChangeLog.class), mock(ProductCache.class),
+                mock(ProductKeyIndex.class), registry, 4, 10, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.shutdown();
+    }
+
+    @Test
+    void testUpdatesQueuedBehindASlowWriteCollapseToTheLatestInOrder() throws Exception {
+        RecordingEmitter client = new RecordingEmitter();
+        bus.register(client);
+        // The initial reset is now stuck on the socket
+        assertTrue(client.writing.await(5, TimeUnit.SECONDS));
+
+        bus.publish(product(1L, 5));
+        bus.publish(product(2L, 9));
+        bus.publish(product(1L, 3));
+        client.release.countDown();
+
+        assertEquals("reset", client.next());
+        assertEquals("changes", client.next());
+        List<?> batch = client.lastBatch;
+        assertEquals(2, batch.size());
+        assertEquals(new ProductChange(1L, "P1", "M", 3, 2.0, "ACTIVE", null, null, null), batch.get(0));
+        assertEquals(2L, ((ProductChange) batch.get(1)).id());
+        assertEquals(1.0, registry.get("inventory.stream.changes").tag("outcome", "conflated").counter().count());
+    }
+
+    @Test
+    void testSlowClientIsDroppedInsteadOfHoldingUpPublishers() throws Exception {
+        RecordingEmitter client = new RecordingEmitter();
+        bus.register(client);
+        assertTrue(client.writing.await(5, TimeUnit.SECONDS));
+
+        long started = System.nanoTime();
+        for (long id = 1; id <= 100; id++) {
+            bus.publish(product(id, 1));
+        }
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+
+        assertEquals(0, bus.getSubscriberCount());
+        assertEquals(1.0, registry.get("inventory.stream.dropped").counter().count());
+        client.release.countDown();
+    }
+
+    @Test
+    void testPublishWithoutSubscribersDoesNothing() {
+        bus.publish(product(1L, 1));
+        bus.publishDeleted(2L);
+
+        assertEquals(0.0, registry.get("inventory.stream.changes").tag("outcome", "published").counter().count());
+    }
+
+    private static Product product(Long id, int stock) {
+        Product product = new Product("P" + id, "M", 2.0, stock, "ACTIVE");
+        product.setId(id);
+        return product;
+    }
+
+    // Blocks its first write until released, then records event names as they are sent
+    private static final class RecordingEmitter extends SseEmitter {
+
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        volatile List<?> lastBatch;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            String name = null;
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                Object data = part.getData();
+                if (data instanceof String text && text.startsWith("event:")) {
+                    name = text.substring("event:".length(), text.indexOf('\n'));
+                } else if (data instanceof List<?> list) {
+                    lastBatch = list;
+                }
+            }
+            if (name != null) {
+                events.add(name);
+            }
+        }
+
+        String next() throws InterruptedException {
+            return events.poll(5, TimeUnit.SECONDS);
+        }
+    }
+}
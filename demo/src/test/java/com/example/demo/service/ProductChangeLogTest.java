@@ -0,0 +1,138 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Product;
+import com.example.demo.model.ProductChange;
+import com.example.demo.model.ProductChangeLogEntry;
+import com.example.demo.repository.ProductChangeLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Cursor semantics of the delta-sync log against an in-memory table: ordered pages, tombstones,
+ * and a reload signal for new clients and cursors that fell out of retention.
+ */
+public class ProductChangeLogTest {
+
+    private final TreeMap<Long, ProductChangeLogEntry> table = new TreeMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private ProductChangeLog changeLog;
+
+    @BeforeEach
+    void setUp() {
+        ProductChangeLogRepository repository = mock(ProductChangeLogRepository.class);
+        when(repository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            for (ProductChangeLogEntry entry : invocation.<Iterable<ProductChangeLogEntry>>getArgument(0)) {
+                entry.setId(sequence.incrementAndGet());
+                table.put(entry.getId(), entry);
+            }
+            return invocation.getArgument(0);
+        });
+        when(repository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            int size = invocation.<Pageable>getArgument(1).getPageSize();
+            return table.tailMap(afterId, false).values().stream().limit(size).toList();
+        });
+        when(repository.findMinId()).thenAnswer(invocation -> table.isEmpty() ? null : table.firstKey());
+        when(repository.findMaxId()).thenAnswer(invocation -> table.isEmpty() ? null : table.lastKey());
+        when(repository.deleteOlderThan(any(LocalDateTime.class), anyLong())).thenAnswer(invocation -> {
+            LocalDateTime cutoff = invocation.getArgument(0);
+            long keepFromId = invocation.getArgument(1);
+            List<Long> expired = table.values().stream()
+                    .filter(e -> e.getChangedDate().isBefore(cutoff) && e.getId() < keepFromId)
+                    .map(ProductChangeLogEntry::getId)
+                    .toList();
+            expired.forEach(table::remove);
+            return expired.size();
+        });
+
+        changeLog = new ProductChangeLog(repository);
+        ReflectionTestUtils.setField(changeLog, "batchSize", 500);
+        ReflectionTestUtils.setField(changeLog, "retentionDays", 30);
+    }
+
+    @Test
+    void testNewClientGetsTheCurrentSequenceAndAReloadSignal() {
+        record(1L, 10);
+        record(2L, 20);
+
+        Map<String, Object> first = changeLog.getChangesSince(0, 100);
+
+        assertEquals(true, first.get("resetRequired"));
+        assertEquals(List.of(), first.get("changes"));
+        assertEquals(2L, first.get("nextSince"));
+    }
+
+    @Test
+    void testPagesFollowTheSequenceAndCarryTombstones() {
+        record(1L, 10);
+        long cursor = (long) changeLog.getChangesSince(0, 100).get("nextSince");
+        record(2L, 20);
+        record(1L, 9);
+        changeLog.record(ProductChange.deleted(2L));
+
+        Map<String, Object> page = changeLog.getChangesSince(cursor, 2);
+        List<ProductChange> changes = changes(page);
+        assertEquals(List.of(2L, 1L), changes.stream().map(ProductChange::id).toList());
+        assertEquals(9, changes.get(1).stock());
+        assertEquals(true, page.get("hasMore"));
+
+        page = changeLog.getChangesSince((long) page.get("nextSince"), 2);
+        changes = changes(page);
+        assertEquals(1, changes.size());
+        assertEquals(new ProductChange(2L, null, null, null, null, null, null, true, 4L), changes.get(0));
+        assertEquals(false, page.get("hasMore"));
+        assertEquals(4L, page.get("nextSince"));
+
+        // Caught up: empty page, cursor unchanged
+        page = changeLog.getChangesSince(4L, 2);
+        assertTrue(changes(page).isEmpty());
+        assertEquals(4L, page.get("nextSince"));
+        assertEquals(false, page.get("resetRequired"));
+    }
+
+    @Test
+    void testCursorOlderThanRetainedHistoryMustReload() {
+        record(1L, 10);
+        record(2L, 20);
+        record(3L, 30);
+        table.get(1L).setChangedDate(LocalDateTime.now().minusDays(31));
+        table.get(2L).setChangedDate(LocalDateTime.now().minusDays(31));
+
+        assertEquals(2, changeLog.purgeExpired());
+
+        assertEquals(true, changeLog.getChangesSince(1L, 100).get("resetRequired"));
+        // Exactly at the horizon nothing was lost
+        assertEquals(false, changeLog.getChangesSince(2L, 100).get("resetRequired"));
+    }
+
+    @Test
+    void testPurgeKeepsTheNewestEntry() {
+        record(1L, 10);
+        table.get(1L).setChangedDate(LocalDateTime.now().minusDays(90));
+
+        assertEquals(0, changeLog.purgeExpired());
+        assertEquals(false, changeLog.getChangesSince(1L, 100).get("resetRequired"));
+    }
+
+    private void record(Long productId, int stock) {
+        Product product = new Product("P" + productId, "M", 2.0, stock, "ACTIVE");
+        product.setId(productId);
+        changeLog.record(ProductChange.of(product));
+        changeLog.flush();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<ProductChange> changes(Map<String, Object> page) {
+        return (List<ProductChange>) page.get("changes");
+    }
+}
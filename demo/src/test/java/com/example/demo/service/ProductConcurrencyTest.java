@@ -0,0 +1,259 @@
+package com.example.demo.service;
+
+import com.example.demo.diagnostics.EventLogger;
+import com.example.demo.model.Product;
+import com.example.demo.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.Writer;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Checkouts, replenishments and staff edits hammering one product through a repository that
+ * enforces @Version the way Hibernate's merge does. Every write that reports success must be
+ * reflected in the final stock; everything else must fail loudly.
+ */
+public class ProductConcurrencyTest {
+
+    private static final int INITIAL_STOCK = 5000;
+
+    private VersionedProducts store;
+    private ProductService productService;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        store = new VersionedProducts();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        productService = new ProductService(store.repository(), mock(EmailService.class),
+                new GoogleSheetsService(registry), mock(StockLedgerService.class), mock(StockLocationService.class),
+                mock(BackorderService.class), mock(BackInStockService.class),
+                mock(ProductChangeBus.class), mock(ProductKeyIndex.class), registry,
+                new EventLogger(1024, Map.of(), Writer.nullWriter()));
+        ReflectionTestUtils.setField(productService, "stockThreshold", 10);
+        ReflectionTestUtils.setField(productService, "stockRetryMaxAttempts", 200);
+        ReflectionTestUtils.setField(productService, "stockRetryBaseDelayMs", 1L);
+        ReflectionTestUtils.setField(productService, "stockRetryMaxDelayMs", 5L);
+        productId = store.insert(new Product("Widget", "W-1", 2.5, INITIAL_STOCK, "ACTIVE"));
+    }
+
+    @Test
+    void testNoLostUpdatesUnderMixedLoad() throws Exception {
+        AtomicInteger ordered = new AtomicInteger();
+        AtomicInteger replenished = new AtomicInteger();
+        AtomicInteger staffEdits = new AtomicInteger();
+        AtomicInteger staffConflicts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Worker> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            workers.add(() -> {
+                for (int i = 0; i < 150; i++) {
+                    productService.processOrder("Widget", "W-1", 1);
+                    ordered.incrementAndGet();
+                }
+            });
+        }
+        for (int t = 0; t < 4; t++) {
+            workers.add(() -> {
+                for (int i = 0; i < 60; i++) {
+                    productService.replenishStock(productId, 5);
+                    replenished.addAndGet(5);
+                }
+            });
+        }
+        for (int t = 0; t < 2; t++) {
+            workers.add(() -> {
+                for (int i = 0; i < 50; i++) {
+                    // A staff form always submits the full product, stock included, as it was when loaded
+                    Product seen = productService.getProductById(productId);
+                    Product edit = new Product(seen.getProductName(), seen.getModel(),
+                            seen.getPricePerQuantity() + 0.01, seen.getUnitStockQuantity(), seen.getStatus());
+                    edit.setVersion(seen.getVersion());
+                    try {
+                        productService.updateProduct(productId, edit);
+                        staffEdits.incrementAndGet();
+                    } catch (ProductConflictException e) {
+                        assertTrue(e.getCurrent().getVersion() > seen.getVersion());
+                        staffConflicts.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers.size());
+        List<Future<?>> futures = new ArrayList<>();
+        for (Worker worker : workers) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                worker.call();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Product finalState = productService.getProductById(productId);
+        assertEquals(1200, ordered.get());
+        assertEquals(1200, replenished.get());
+        assertEquals(INITIAL_STOCK - ordered.get() + replenished.get(), finalState.getUnitStockQuantity(),
+                "A stale write overwrote stock");
+        // Every successful write bumped the version exactly once
+        assertEquals(ordered.get() + replenished.get() / 5 + staffEdits.get(), finalState.getVersion());
+        assertEquals(100, staffEdits.get() + staffConflicts.get());
+        assertTrue(store.conflicts.get() > 0, "The load should actually have produced version conflicts");
+    }
+
+    @Test
+    void testStaleStaffEditIsRejectedWithCurrentState() {
+        Product seen = productService.getProductById(productId);
+        productService.processOrder("Widget", "W-1", 3);
+
+        Product edit = new Product("Widget", "W-1", 9.99, seen.getUnitStockQuantity(), "ACTIVE");
+        edit.setVersion(seen.getVersion());
+        ProductConflictException conflict = assertThrows(ProductConflictException.class,
+                () -> productService.updateProduct(productId, edit));
+
+        assertEquals(INITIAL_STOCK - 3, conflict.getCurrent().getUnitStockQuantity());
+        assertEquals(seen.getVersion() + 1, conflict.getCurrent().getVersion());
+        assertEquals(2.5, productService.getProductById(productId).getPricePerQuantity());
+    }
+
+    @Test
+    void testStaffEditRacingAWriteBetweenReadAndSaveIsRejected() {
+        // No version from the client: the write in the read-to-save window is still caught at save time
+        store.beforeNextSave = () -> store.bumpStock(productId, -1);
+        Product edit = new Product("Widget", "W-1", 3.0, INITIAL_STOCK, "ACTIVE");
+
+        ProductConflictException conflict = assertThrows(ProductConflictException.class,
+                () -> productService.updateProduct(productId, edit));
+        assertEquals(INITIAL_STOCK - 1, conflict.getCurrent().getUnitStockQuantity());
+        assertEquals(INITIAL_STOCK - 1, productService.getProductById(productId).getUnitStockQuantity());
+    }
+
+    @Test
+    void testOrderGivesUpAfterMaxAttempts() {
+        ReflectionTestUtils.setField(productService, "stockRetryMaxAttempts", 3);
+        store.alwaysConflict = true;
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> productService.processOrder("Widget", "W-1", 1));
+        assertTrue(error.getMessage().contains("try again"));
+        assertEquals(3, store.conflicts.get());
+        assertEquals(INITIAL_STOCK, productService.getProductById(productId).getUnitStockQuantity());
+    }
+
+    private interface Worker {
+        void call() throws Exception;
+    }
+
+    // Stores detached copies and rejects saves whose version is stale, like a merge of a detached entity
+    private static class VersionedProducts {
+
+        private final Map<Long, Product> rows = new ConcurrentHashMap<>();
+        private final AtomicInteger conflicts = new AtomicInteger();
+        private final Object writeLock = new Object();
+        private long nextId = 1;
+        private volatile boolean alwaysConflict;
+        private volatile Runnable beforeNextSave;
+
+        Long insert(Product product) {
+            synchronized (writeLock) {
+                product.setId(nextId++);
+                product.setVersion(0L);
+                rows.put(product.getId(), copy(product));
+                return product.getId();
+            }
+        }
+
+        void bumpStock(Long id, int delta) {
+            synchronized (writeLock) {
+                Product row = rows.get(id);
+                row.setUnitStockQuantity(row.getUnitStockQuantity() + delta);
+                row.setVersion(row.getVersion() + 1);
+            }
+        }
+
+        Product save(Product product) {
+            Runnable hook = beforeNextSave;
+            if (hook != null) {
+                beforeNextSave = null;
+                hook.run();
+            }
+            synchronized (writeLock) {
+                Product row = rows.get(product.getId());
+                if (alwaysConflict || row == null || !Objects.equals(row.getVersion(), product.getVersion())) {
+                    conflicts.incrementAndGet();
+                    throw new ObjectOptimisticLockingFailureException(Product.class, product.getId());
+                }
+                Product saved = copy(product);
+                saved.setVersion(product.getVersion() + 1);
+                rows.put(saved.getId(), saved);
+                return copy(saved);
+            }
+        }
+
+        Optional<Product> findByNameAndModel(String name, String model) {
+            return rows.values().stream()
+                    .filter(p -> p.getProductName().equals(name) && p.getModel().equals(model))
+                    .findFirst()
+                    .map(VersionedProducts::copy);
+        }
+
+        ProductRepository repository() {
+            return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+                    new Class<?>[]{ProductRepository.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "save":
+                                return save((Product) args[0]);
+                            case "findById":
+                                return Optional.ofNullable(rows.get((Long) args[0])).map(VersionedProducts::copy);
+                            case "findByProductNameAndModel":
+                                return findByNameAndModel((String) args[0], (String) args[1]);
+                            case "existsByProductName":
+                                return rows.values().stream().anyMatch(p -> p.getProductName().equals(args[0]));
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "equals":
+                                return proxy == args[0];
+                            case "toString":
+                                return "VersionedProducts";
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+
+        private static Product copy(Product source) {
+            Product copy = new Product(source.getProductName(), source.getModel(), source.getPricePerQuantity(),
+                    source.getUnitStockQuantity(), source.getStatus());
+            copy.setId(source.getId());
+            copy.setVersion(source.getVersion());
+            copy.setCreatedDate(source.getCreatedDate());
+            copy.setUpdatedDate(source.getUpdatedDate());
+            return copy;
+        }
+    }
+}
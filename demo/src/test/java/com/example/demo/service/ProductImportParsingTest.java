@@ -0,0 +1,47 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductImportParsingTest {
+
+    @Test
+    void testSplitPlainCsvLine() {
+        List<String> fields = ProductImportService.splitCsvLine("Laptop,XPS 13,999.99,50,ACTIVE");
+        assertEquals(List.of("Laptop", "XPS 13", "999.99", "50", "ACTIVE"), fields);
+    }
+
+    @Test
+    void testSplitQuotedCsvLine() {
+        List<String> fields = ProductImportService.splitCsvLine("\"Desk, Standing\",\"M \"\"Pro\"\"\",10.5,3,");
+        assertEquals(List.of("Desk, Standing", "M \"Pro\"", "10.5", "3", ""), fields);
+    }
+
+    @Test
+    void testHeaderAcceptsExportColumnNames() {
+        Map<String, Integer> columns = ProductImportService.parseCsvHeader(
+                "Product Name,Model,Stock Quantity,Price Per Unit,Total Value,Status,Last Updated");
+        assertEquals(0, columns.get("productname"));
+        assertEquals(1, columns.get("model"));
+        assertEquals(2, columns.get("stock"));
+        assertEquals(3, columns.get("price"));
+        assertEquals(5, columns.get("status"));
+    }
+
+    @Test
+    void testHeaderWithoutRequiredColumnsIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ProductImportService.parseCsvHeader("model,status"));
+    }
+
+    @Test
+    void testFormatDetection() {
+        assertEquals(ProductImportService.FORMAT_JSON_LINES, ProductImportService.detectFormat("catalog.jsonl", null));
+        assertEquals(ProductImportService.FORMAT_JSON_LINES, ProductImportService.detectFormat("feed", "application/x-ndjson"));
+        assertEquals(ProductImportService.FORMAT_CSV, ProductImportService.detectFormat("catalog.csv", "text/csv"));
+    }
+}
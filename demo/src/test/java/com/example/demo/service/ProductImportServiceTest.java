@@ -0,0 +1,106 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Product;
+import com.example.demo.model.ProductImportJob;
+import com.example.demo.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Chunk bookkeeping against mocked JDBC writes: one chunk commits, one fails to write, and every
+ * row read ends up counted exactly once as inserted, updated or rejected.
+ */
+public class ProductImportServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<String> written = new ArrayList<>();
+    private boolean failNextGammaWrite = true;
+
+    private ProductImportService importService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllProductNames()).thenReturn(List.of("Beta"));
+
+        // The first write of Gamma fails as a whole chunk would, e.g. on a constraint violation
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    Collection<Product> products = invocation.getArgument(1);
+                    List<String> names = products.stream().map(Product::getProductName).toList();
+                    if (names.contains("Gamma") && failNextGammaWrite) {
+                        failNextGammaWrite = false;
+                        throw new DataIntegrityViolationException("Duplicate entry 'Gamma'");
+                    }
+                    written.addAll(names);
+                    return new int[][] { new int[names.size()] };
+                });
+
+        importService = new ProductImportService(productRepository, mock(StockLocationService.class),
+                mock(BackorderService.class), mock(StockLedgerService.class), mock(ProductChangeBus.class),
+                jdbcTemplate, mock(PlatformTransactionManager.class),
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper());
+        ReflectionTestUtils.setField(importService, "chunkSize", 3);
+    }
+
+    @Test
+    void testFailedChunkRejectsOnlyTheRowsItWasWriting() throws Exception {
+        ProductImportJob job = importFile(
+                "productName,model,price,stock",
+                // Chunk 1 commits: one insert, one upsert of a catalog product, one in-file duplicate
+                "Alpha,M1,1.00,5",
+                "Beta,M1,2.00,6",
+                "Alpha,M1,1.00,5",
+                // Chunk 2 fails to write Gamma; its duplicate and the invalid row were rejected before the write
+                "Gamma,M1,3.00,7",
+                "Gamma,M1,3.00,7",
+                "Delta,M1,0,7",
+                // Chunk 3: Gamma was never written, so it is not a duplicate of the rolled-back row
+                "Gamma,M1,3.00,7");
+
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(7, job.getRowsRead());
+        assertEquals(2, job.getInserted());
+        assertEquals(1, job.getUpdated());
+        assertEquals(4, job.getRejected());
+        assertEquals(job.getRowsRead(), job.getInserted() + job.getUpdated() + job.getRejected());
+        assertEquals(List.of("Alpha", "Beta", "Gamma"), written);
+
+        List<String> errors = job.getErrors();
+        assertEquals(4, errors.size());
+        assertTrue(errors.get(0).startsWith("Row 4: Duplicate product name in file"));
+        assertTrue(errors.stream().anyMatch(e -> e.startsWith("Row 5: Chunk write failed")));
+        assertTrue(errors.stream().anyMatch(e -> e.startsWith("Row 6: Duplicate product name in file")));
+        assertTrue(errors.stream().anyMatch(e -> e.startsWith("Row 7: pricePerQuantity")));
+        assertEquals(4, errors.stream().map(e -> e.substring(0, e.indexOf(':'))).distinct().count(),
+                "A row was reported more than once");
+    }
+
+    private ProductImportJob importFile(String... lines) throws Exception {
+        Path file = Files.writeString(tempDir.resolve("catalog.csv"), String.join("\n", lines));
+        ProductImportJob job = new ProductImportJob(UUID.randomUUID().toString(), "catalog.csv",
+                ProductImportService.FORMAT_CSV, true);
+        importService.runImport(file, job);
+        return job;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Product;
+import com.example.demo.model.ProductChange;
+import com.example.demo.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProductKeyIndexTest {
+
+    private ProductRepository productRepository;
+    private ProductKeyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, "Laptop", "X1"});
+        rows.add(new Object[]{2L, "Laptop", "X2"});
+        rows.add(new Object[]{3L, "Mouse", "M-3"});
+        when(productRepository.findAllNaturalKeys()).thenReturn(rows);
+        index = new ProductKeyIndex(productRepository, new SimpleMeterRegistry());
+        index.load();
+    }
+
+    @Test
+    void testResolvesNaturalKeyCaseInsensitively() {
+        assertEquals(2L, index.lookup("laptop", "x2"));
+        assertEquals(3L, index.lookup("Mouse", "M-3"));
+        assertNull(index.lookup("Mouse", "M-4"));
+    }
+
+    @Test
+    void testRenameMovesTheKeyAndDeleteDropsIt() {
+        index.apply(new ProductChange(1L, "Notebook", "X1", 5, 10.0, "ACTIVE", 2L, null, null));
+        index.apply(ProductChange.deleted(3L));
+
+        assertNull(index.lookup("Laptop", "X1"));
+        assertEquals(1L, index.lookup("Notebook", "X1"));
+        assertNull(index.lookup("Mouse", "M-3"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testChangeThatRacedTheStartupLoadWins() {
+        ProductKeyIndex racing = new ProductKeyIndex(productRepository, new SimpleMeterRegistry());
+        racing.apply(new ProductChange(3L, "Mouse", "M-9", 1, 1.0, "ACTIVE", 4L, null, null));
+
+        racing.load();
+
+        assertEquals(3L, racing.lookup("Mouse", "M-9"));
+        assertNull(racing.lookup("Mouse", "M-3"));
+    }
+
+    @Test
+    void testSameKeyGuardsAgainstStaleHints() {
+        Product product = new Product("Laptop", "X1", 10.0, 5, "ACTIVE");
+
+        assertTrue(ProductKeyIndex.sameKey(product, "LAPTOP", "x1"));
+        assertFalse(ProductKeyIndex.sameKey(product, "Laptop", "X2"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockAllocatorTest {
+
+    // Roughly London, Manchester and Edinburgh
+    private static final StockAllocator.Candidate LONDON = new StockAllocator.Candidate(1L, "LON", 5, 51.5, -0.12);
+    private static final StockAllocator.Candidate MANCHESTER = new StockAllocator.Candidate(2L, "MAN", 40, 53.48, -2.24);
+    private static final StockAllocator.Candidate EDINBURGH = new StockAllocator.Candidate(3L, "EDI", 20, 55.95, -3.19);
+    private static final List<StockAllocator.Candidate> ALL = List.of(LONDON, MANCHESTER, EDINBURGH);
+
+    private static final StockAllocator.Point NEAR_LONDON = new StockAllocator.Point(51.3, 0.1);
+
+    @Test
+    void testNearestLocationThatCoversTheLineShipsAlone() {
+        StockAllocator allocator = new StockAllocator(StockAllocator.Strategy.NEAREST);
+
+        assertEquals(List.of(new StockAllocator.Allocation(1L, "LON", 5)), allocator.allocate(ALL, 5, NEAR_LONDON));
+        // London cannot cover 12, Manchester is the next nearest that can
+        assertEquals(List.of(new StockAllocator.Allocation(2L, "MAN", 12)), allocator.allocate(ALL, 12, NEAR_LONDON));
+    }
+
+    @Test
+    void testLineIsSplitInDistanceOrderWhenNoSingleLocationCovers() {
+        StockAllocator allocator = new StockAllocator(StockAllocator.Strategy.NEAREST);
+
+        assertEquals(List.of(
+                new StockAllocator.Allocation(1L, "LON", 5),
+                new StockAllocator.Allocation(2L, "MAN", 40),
+                new StockAllocator.Allocation(3L, "EDI", 7)), allocator.allocate(ALL, 52, NEAR_LONDON));
+    }
+
+    @Test
+    void testFullestFirstAndFallbackWithoutDeliveryPoint() {
+        StockAllocator fullest = new StockAllocator(StockAllocator.Strategy.FULLEST);
+        StockAllocator nearest = new StockAllocator(StockAllocator.Strategy.NEAREST);
+
+        assertEquals(List.of(new StockAllocator.Allocation(2L, "MAN", 3)), fullest.allocate(ALL, 3, NEAR_LONDON));
+        assertEquals(List.of(new StockAllocator.Allocation(2L, "MAN", 3)), nearest.allocate(ALL, 3, null));
+    }
+
+    @Test
+    void testLocationsWithoutCoordinatesRankLast() {
+        StockAllocator allocator = new StockAllocator(StockAllocator.Strategy.NEAREST);
+        StockAllocator.Candidate unmapped = new StockAllocator.Candidate(4L, "MAIN", 100, null, null);
+
+        assertEquals("LON", allocator.allocate(List.of(unmapped, LONDON), 2, NEAR_LONDON).get(0).warehouseCode());
+        assertEquals("MAIN", allocator.allocate(List.of(unmapped, LONDON), 50, NEAR_LONDON).get(0).warehouseCode());
+    }
+
+    @Test
+    void testInsufficientOrEmptyStockReturnsNull() {
+        StockAllocator allocator = new StockAllocator(StockAllocator.Strategy.NEAREST);
+
+        assertNull(allocator.allocate(ALL, 66, NEAR_LONDON));
+        assertNull(allocator.allocate(List.of(), 1, NEAR_LONDON));
+        assertNull(allocator.allocate(List.of(new StockAllocator.Candidate(5L, "EMPTY", 0, 1.0, 1.0)), 1, null));
+    }
+}
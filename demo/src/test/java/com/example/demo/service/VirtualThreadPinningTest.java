@@ -0,0 +1,99 @@
+package com.example.demo.service;
+
+import com.example.demo.diagnostics.EventLogger;
+import com.example.demo.model.Product;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.support.PinningDetector;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class VirtualThreadPinningTest {
+
+    private static final int ORDERS = 200;
+
+    @RegisterExtension
+    final PinningDetector pinning = new PinningDetector();
+
+    @Test
+    void testConcurrentOrdersOnVirtualThreadsDoNotPin() throws Exception {
+        ProductRepository repository = mock(ProductRepository.class);
+        for (int i = 0; i < ORDERS; i++) {
+            Product product = new Product("Item " + i, "VT", 5.0, 11, "ACTIVE");
+            product.setId((long) i + 1);
+            when(repository.findByProductNameAndModel(eq("Item " + i), eq("VT"))).thenReturn(Optional.of(product));
+        }
+        // Every save and alert blocks like a JDBC/SMTP round trip would
+        when(repository.save(any(Product.class))).thenAnswer(invocation -> {
+            Thread.sleep(5);
+            return invocation.getArgument(0);
+        });
+        EmailService emailService = mock(EmailService.class);
+        doAnswer(invocation -> {
+            Thread.sleep(5);
+            return null;
+        }).when(emailService).sendLowStockAlert(any(Product.class));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ProductService productService = new ProductService(repository, emailService,
+                new GoogleSheetsService(registry), mock(StockLedgerService.class), mock(StockLocationService.class),
+                mock(BackorderService.class), mock(BackInStockService.class),
+                mock(ProductChangeBus.class), mock(ProductKeyIndex.class), registry,
+                new EventLogger(1024, Map.of(), Writer.nullWriter()));
+        ReflectionTestUtils.setField(productService, "stockThreshold", 10);
+
+        List<Future<Product>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < ORDERS; i++) {
+                String name = "Item " + i;
+                results.add(executor.submit(() -> productService.processOrder(name, "VT", 1)));
+            }
+        }
+
+        for (Future<Product> result : results) {
+            assertEquals(10, result.get().getUnitStockQuantity());
+        }
+        // Each product crossed the threshold exactly once, so exactly one alert each
+        verify(emailService, times(ORDERS)).sendLowStockAlert(any(Product.class));
+        assertEquals(ORDERS, productService.getAlertedProductCount());
+    }
+
+    @Test
+    void testDetectorCatchesBlockingInsideSynchronized() throws Exception {
+        // Sanity check on the detector itself; the registered one is paused so this pin does not fail the test
+        pinning.stop();
+        PinningDetector detector = new PinningDetector();
+        detector.start();
+        Object monitor = new Object();
+        Thread thread = Thread.ofVirtual().start(() -> {
+            synchronized (monitor) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        thread.join();
+        List<String> pins = detector.stop();
+        pinning.start();
+
+        assertFalse(pins.isEmpty(), "Sleeping inside synchronized on a virtual thread must be reported");
+        assertTrue(pins.get(0).contains(VirtualThreadPinningTest.class.getName()));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.support;
+
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import javax.sql.DataSource;
+
+/**
+ * Beans for full-context controller tests (profile "test", embedded H2): a DataSource that
+ * reports statements to QueryCounter, and a mail sender that sends nothing.
+ */
+@TestConfiguration
+public class ControllerTestConfig {
+
+    @Bean
+    public static BeanPostProcessor countingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Wrap the pools only; a routing or lazy proxy in front of them would count each statement twice
+                if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)
+                        && !(bean instanceof AbstractRoutingDataSource)) {
+                    return QueryCounter.wrap(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @Primary
+    public JavaMailSender discardingMailSender() {
+        return new JavaMailSenderImpl() {
+            @Override
+            protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+            }
+        };
+    }
+}
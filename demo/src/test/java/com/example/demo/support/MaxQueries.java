@@ -0,0 +1,22 @@
+package com.example.demo.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails the test when its body executes more than value() SQL statements on the test thread.
+ * Setup in @BeforeEach is not counted, so a test that performs one MockMvc request measures
+ * exactly that request. Needs the counting DataSource from ControllerTestConfig. Each run prints
+ * the observed count next to the budget; budgets should be that count plus stated headroom.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryCountExtension.class)
+public @interface MaxQueries {
+
+    int value();
+}
@@ -0,0 +1,90 @@
+package com.example.demo.support;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Fails a test when a virtual thread blocks while pinned to its carrier (parked inside a
+ * synchronized block or a native frame). Listens for jdk.VirtualThreadPinned through an
+ * in-process JFR stream and only reports pins whose stack passes through application code,
+ * so pins inside the JDK or libraries alone do not fail the build.
+ *
+ * Register with {@code @RegisterExtension static PinningDetector pinning = new PinningDetector();}
+ * or drive it by hand with start()/stop().
+ */
+public class PinningDetector implements BeforeEachCallback, AfterEachCallback {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.example.demo.";
+
+    private final Duration threshold;
+    private final List<String> pins = new CopyOnWriteArrayList<>();
+    private RecordingStream stream;
+
+    public PinningDetector() {
+        this(Duration.ofMillis(1));
+    }
+
+    public PinningDetector(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    public void start() {
+        pins.clear();
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    // Flushes outstanding events before returning, so pins from the test body are never missed
+    public List<String> stop() {
+        if (stream != null) {
+            stream.stop();
+            stream.close();
+            stream = null;
+        }
+        return List.copyOf(pins);
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        start();
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        List<String> found = stop();
+        if (!found.isEmpty()) {
+            fail(found.size() + " virtual thread pin(s) in application code during "
+                    + context.getDisplayName() + ":\n" + String.join("\n", found));
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        if (event.getStackTrace() == null) return;
+        List<String> frames = new ArrayList<>();
+        boolean inApplication = false;
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            frames.add("    at " + type + "." + frame.getMethod().getName() + "(line " + frame.getLineNumber() + ")");
+            inApplication |= type.startsWith(APPLICATION_PACKAGE);
+        }
+        if (inApplication) {
+            String thread = event.getThread() != null ? event.getThread().getJavaName() : "unknown thread";
+            pins.add("Pinned for " + event.getDuration().toMillis() + " ms on " + thread + "\n"
+                    + String.join("\n", frames));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.support;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Runs QueryCounter around the test body and enforces @MaxQueries. Every run prints the observed
+// count next to the budget, so a budget can be checked against (and tightened to) what actually ran.
+public class QueryCountExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        QueryCounter.start();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        List<String> executed = QueryCounter.stop();
+        // A test that already failed reports its own error
+        if (context.getExecutionException().isPresent()) return;
+
+        MaxQueries limit = AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), MaxQueries.class)
+                .orElse(null);
+        if (limit == null) return;
+        System.out.println("🔢 " + context.getRequiredTestClass().getSimpleName() + "." +
+                context.getRequiredTestMethod().getName() + ": " + executed.size() + " SQL statements, budget " +
+                limit.value());
+        if (executed.size() > limit.value()) {
+            StringBuilder message = new StringBuilder()
+                    .append("Expected at most ").append(limit.value()).append(" SQL statements but ")
+                    .append(executed.size()).append(" were executed:");
+            for (int i = 0; i < executed.size(); i++) {
+                message.append(System.lineSeparator()).append("  ").append(i + 1).append(". ").append(executed.get(i));
+            }
+            fail(message.toString());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void testBucketsCoverTheWholeRangeInOrder() {
+        long previousBound = -1;
+        for (int bucket = 0; bucket < 488; bucket++) {
+            long bound = LatencyHistogram.upperBoundOf(bucket);
+            assertTrue(bound > previousBound, "bucket " + bucket);
+            assertEquals(bucket, LatencyHistogram.bucketOf(bound));
+            assertEquals(bucket, LatencyHistogram.bucketOf(previousBound + 1));
+            previousBound = bound;
+        }
+        assertEquals(Long.MAX_VALUE, previousBound);
+    }
+
+    @Test
+    void testPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000, histogram.getMax());
+        assertEquals(5000.5, histogram.getMean(), 0.001);
+        long p50 = histogram.getPercentile(50);
+        long p99 = histogram.getPercentile(99);
+        assertTrue(p50 >= 5000 && p50 <= 5000 * 1.125, "p50 " + p50);
+        assertTrue(p99 >= 9900 && p99 <= 10_000, "p99 " + p99);
+        assertEquals(10_000, histogram.getPercentile(100));
+    }
+
+    @Test
+    void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3);
+        histogram.record(3);
+        histogram.record(7);
+
+        assertEquals(3, histogram.getPercentile(50));
+        assertEquals(7, histogram.getPercentile(99));
+    }
+
+    @Test
+    void testConcurrentWritersLoseNoSamples() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(i % 1000);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(400_000, histogram.getCount());
+        assertEquals(999, histogram.getMax());
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+}
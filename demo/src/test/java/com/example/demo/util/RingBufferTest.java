@@ -0,0 +1,75 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RingBufferTest {
+
+    @Test
+    void testCapacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(8, new RingBuffer<String>(5).capacity());
+        assertEquals(1024, new RingBuffer<String>(1024).capacity());
+    }
+
+    @Test
+    void testFifoOrderAndFullBuffer() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(99), "A full buffer must reject instead of blocking");
+        assertEquals(4, buffer.size());
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, buffer.poll());
+        }
+        assertNull(buffer.poll());
+        assertTrue(buffer.offer(5), "Slots are reusable after the consumer drains them");
+    }
+
+    @Test
+    void testConcurrentProducersLoseNothingThatWasAccepted() throws InterruptedException {
+        RingBuffer<Long> buffer = new RingBuffer<>(1024);
+        int producers = 4;
+        int perProducer = 50000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        Set<Long> seen = new HashSet<>();
+        start.countDown();
+        while (seen.size() < producers * perProducer) {
+            Long value = buffer.poll();
+            if (value != null) {
+                assertTrue(seen.add(value), "Duplicate value " + value);
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(buffer.poll());
+    }
+}
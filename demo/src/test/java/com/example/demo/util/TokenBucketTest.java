@@ -0,0 +1,73 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketTest {
+
+    // Sleeping advances the fake clock, so waits are exact and the test takes no wall time
+    private final AtomicLong now = new AtomicLong();
+    private final List<Long> sleeps = new ArrayList<>();
+
+    private TokenBucket bucket(double perSecond, int burst) {
+        return new TokenBucket(perSecond, burst, now::get, nanos -> {
+            sleeps.add(nanos);
+            now.addAndGet(nanos);
+        });
+    }
+
+    @Test
+    void testBurstIsFreeThenCallersPayForTheirPermits() throws InterruptedException {
+        TokenBucket bucket = bucket(10, 5);
+
+        assertEquals(0, bucket.acquire(5));
+        assertTrue(sleeps.isEmpty());
+        // 10 per second: the next 5 permits cost half a second
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), bucket.acquire(5));
+    }
+
+    @Test
+    void testSustainedRateNeverExceedsTheLimit() throws InterruptedException {
+        TokenBucket bucket = bucket(20, 50);
+
+        int sent = 0;
+        for (int i = 0; i < 200; i++) {
+            bucket.acquire(50);
+            sent += 50;
+        }
+        // 10,000 permits at 20/s with a 50 burst take (10,000 - 50) / 20 seconds
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(497_500), now.get(), TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(10_000, sent);
+    }
+
+    @Test
+    void testIdleTimeRefillsOnlyUpToTheBurst() throws InterruptedException {
+        TokenBucket bucket = bucket(10, 5);
+        bucket.acquire(5);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        assertEquals(5.0, bucket.availablePermits(), 1e-9);
+        assertEquals(0, bucket.acquire(5));
+        assertTrue(bucket.acquire(1) > 0);
+    }
+
+    @Test
+    void testRequestLargerThanBurstWaitsInsteadOfFailing() throws InterruptedException {
+        TokenBucket bucket = bucket(10, 5);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1500), bucket.acquire(20));
+        assertEquals(0, bucket.acquire(0));
+    }
+
+    @Test
+    void testInvalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 5));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(10, 0));
+    }
+}
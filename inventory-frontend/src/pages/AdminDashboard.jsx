@@ -162,6 +162,7 @@ const AdminDashboard = () => {
     description: "",
     category: "",
     status: "ACTIVE",
+    version: null,
   });
 
   const [adminForm, setAdminForm] = useState({
@@ -288,6 +289,7 @@ const AdminDashboard = () => {
         description: "",
         category: "",
         status: "ACTIVE",
+        version: null,
       });
       fetchAllData();
       showSuccess("Success", "Product added successfully!");
@@ -327,6 +329,8 @@ const AdminDashboard = () => {
         description: item.description || "",
         category: item.category || "",
         status: item.status,
+        // Sent back on save; the server refuses the edit if the product changed since it was loaded
+        version: item.version,
       });
     } else if (type === "staff") {
       setStaffForm({
@@ -416,6 +420,25 @@ const AdminDashboard = () => {
       );
     } catch (error) {
       console.error("Update error:", error);
+      const current = error.response?.data?.current;
+      if (editingItem.type === "product" && error.response?.status === 409 && current) {
+        // Someone else changed the product (often a checkout taking stock): show what it is now
+        setEditingItem({ ...current, type: "product" });
+        setProductForm({
+          productName: current.productName,
+          model: current.model || "",
+          pricePerQuantity: current.pricePerQuantity,
+          unitStockQuantity: current.unitStockQuantity,
+          description: current.description || "",
+          category: current.category || "",
+          status: current.status,
+          version: current.version,
+        });
+        toast.error(
+          "This product was changed while you were editing it. The form now shows the current values; review them and save again."
+        );
+        return;
+      }
       toast.error(error.response?.data?.message || "Failed to update item");
     }
   };
@@ -664,6 +687,7 @@ const AdminDashboard = () => {
         description: "",
         category: "",
         status: "ACTIVE",
+        version: null,
       });
       
       setAdminForm({
@@ -130,6 +130,50 @@ const StaffDashboard = () => {
     fetchProducts();
   }, []);
 
+  // Keep stock and prices live while the dashboard is open
+  useEffect(() => {
+    const unsubscribe = productService.subscribeChanges({
+      onReset: () => fetchProducts(),
+      onChanges: (changes) =>
+        setProducts((current) => {
+          const byId = new Map(changes.map((change) => [change.id, change]));
+          const updated = current
+            .filter((p) => !byId.get(p.id)?.deleted)
+            .map((p) => {
+              const change = byId.get(p.id);
+              if (!change) return p;
+              byId.delete(p.id);
+              return {
+                ...p,
+                productName: change.productName,
+                model: change.model,
+                unitStockQuantity: change.stock,
+                pricePerQuantity: change.price,
+                totalPrice: change.price * change.stock,
+                status: change.status,
+                version: change.version,
+              };
+            });
+          // Products created since the list was loaded
+          for (const change of byId.values()) {
+            if (change.deleted) continue;
+            updated.push({
+              id: change.id,
+              productName: change.productName,
+              model: change.model,
+              unitStockQuantity: change.stock,
+              pricePerQuantity: change.price,
+              totalPrice: change.price * change.stock,
+              status: change.status,
+              version: change.version,
+            });
+          }
+          return updated;
+        }),
+    });
+    return unsubscribe;
+  }, []);
+
   const fetchProducts = async () => {
     try {
       setLoading(true);
@@ -196,7 +240,15 @@ const StaffDashboard = () => {
         console.error("Error response:", error.response.data);
         
         // Try alternative data structure if first attempt fails
-        if (error.response.status === 400) {
+        if (error.response.status === 409 && error.response.data?.current) {
+          // Stock moved since the form was opened (e.g. a checkout): start again from the current figure
+          const current = error.response.data.current;
+          setSelectedProduct(current);
+          setStockUpdate(current.unitStockQuantity?.toString() || "0");
+          toast.error(
+            `Stock changed to ${current.unitStockQuantity} while you were editing. Check the new figure and save again.`
+          );
+        } else if (error.response.status === 400) {
           toast.error("Invalid data format. Please check the stock quantity.");
         } else if (error.response.status === 404) {
           toast.error("Product not found");
@@ -171,11 +171,72 @@ export const productService = {
   exportToSheets: () => api.post("/products/staff/export-to-sheets"),
   exportSingleToSheets: (id) => api.post(`/products/staff/export-single/${id}`),
   checkSheetsConfig: () => api.get("/products/public/sheets-config"),
+  // Up to a few thousand products in one request, returned in the order asked for
+  batchGet: (ids) => api.post("/products/batch-get", { ids }),
+  // Delta sync: since=0 returns the current sequence with resetRequired=true
+  getChanges: (since, limit = 500) =>
+    api.get("/products/changes", { params: { since, limit } }),
+  // Live stock/catalog changes over Server-Sent Events. EventSource cannot send the
+  // Authorization header, so the stream is read with fetch. Returns an unsubscribe function.
+  subscribeChanges: ({ onChanges, onReset }) => {
+    const controller = new AbortController();
+    let retryDelay = 1000;
+
+    const dispatch = (block) => {
+      let event = "message";
+      let data = "";
+      for (const line of block.split("\n")) {
+        if (line.startsWith("event:")) event = line.slice(6).trim();
+        else if (line.startsWith("data:")) data += line.slice(5);
+      }
+      if (event === "reset") onReset?.();
+      else if (event === "changes" && data) onChanges?.(JSON.parse(data));
+    };
+
+    const connect = async () => {
+      try {
+        const response = await fetch(`${API_BASE_URL}/products/stream`, {
+          headers: {
+            Accept: "text/event-stream",
+            Authorization: `Bearer ${localStorage.getItem("token")}`,
+          },
+          signal: controller.signal,
+        });
+        if (!response.ok || !response.body) throw new Error(`Stream HTTP ${response.status}`);
+        retryDelay = 1000;
+        const reader = response.body.getReader();
+        const decoder = new TextDecoder();
+        let buffer = "";
+        for (;;) {
+          const { value, done } = await reader.read();
+          if (done) break;
+          buffer += decoder.decode(value, { stream: true });
+          let boundary;
+          while ((boundary = buffer.indexOf("\n\n")) >= 0) {
+            dispatch(buffer.slice(0, boundary));
+            buffer = buffer.slice(boundary + 2);
+          }
+        }
+      } catch (error) {
+        if (controller.signal.aborted) return;
+        console.warn("Product stream interrupted:", error.message);
+      }
+      if (controller.signal.aborted) return;
+      // Server closed or dropped us; the reset sent on reconnect resynchronises the list
+      setTimeout(connect, retryDelay);
+      retryDelay = Math.min(retryDelay * 2, 30000);
+    };
+
+    connect();
+    return () => controller.abort();
+  },
 };
  
 // Public Product Service (no authentication required)
 export const publicProductService = {
-  getAll: () => api.get("/products/public/all"),
+  // fields: optional comma-separated column list, e.g. "productName,model,unitStockQuantity"
+  getAll: (fields) =>
+    api.get("/products/public/all", { params: fields ? { fields } : {} }),
   getById: (id) => api.get(`/products/public/${id}`),
   test: (testData) => api.post("/products/public/test", testData),
   debug: (rawData) => api.post("/products/public/debug", rawData),
@@ -0,0 +1,30 @@
+package com.example.demo.loadtest;
+
+// The traffic classes the driver can issue; keys are used in loadtest.mix
+public enum Endpoint {
+
+    CATALOG_ITEM("catalog-item"),
+    CATALOG_ALL("catalog-all"),
+    LOGIN("login"),
+    CHECKOUT("checkout"),
+    STAFF_UPDATE("staff-update");
+
+    private final String key;
+
+    Endpoint(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public static Endpoint fromKey(String key) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.key.equalsIgnoreCase(key.trim())) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint in loadtest.mix: " + key);
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.demo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model traffic generator. A single scheduler thread draws Poisson arrivals at the target
+ * rate and hands each request to its own virtual thread, so a slow server builds a queue
+ * instead of silently lowering the offered load. Latency is measured from the intended start
+ * time, which keeps queueing delay in the percentiles (no coordinated omission).
+ */
+public class LoadDriver {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final URI baseUri;
+    private final LoadTestSettings settings;
+    private final SyntheticCatalog catalog;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+    private final Endpoint[] endpoints;
+    private final int[] cumulativeWeights;
+
+    private ExecutorService executor;
+    private HttpClient client;
+    private List<String> userTokens;
+    private List<String> staffTokens;
+
+    public LoadDriver(URI baseUri, LoadTestSettings settings, SyntheticCatalog catalog) {
+        this.baseUri = baseUri;
+        this.settings = settings;
+        this.catalog = catalog;
+
+        List<Endpoint> active = new ArrayList<>();
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<Endpoint, Integer> entry : settings.mix().entrySet()) {
+            if (entry.getValue() > 0) {
+                total += entry.getValue();
+                active.add(entry.getKey());
+                cumulative.add(total);
+                stats.put(entry.getKey(), new EndpointStats());
+            }
+        }
+        this.endpoints = active.toArray(new Endpoint[0]);
+        this.cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public LoadReport run(String mode) throws InterruptedException {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        client = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        try {
+            openSessions();
+
+            System.out.println("🔥 Warm-up: " + settings.warmup().toSeconds() + " s at " + settings.rate() + " req/s");
+            drive(settings.warmup());
+            stats.values().forEach(EndpointStats::reset);
+
+            System.out.println("📈 Measuring: " + settings.duration().toSeconds() + " s at " + settings.rate() + " req/s");
+            long started = System.nanoTime();
+            drive(settings.duration());
+            long elapsedNanos = System.nanoTime() - started;
+
+            List<LoadReport.EndpointResult> results = new ArrayList<>();
+            for (Endpoint endpoint : endpoints) {
+                results.add(stats.get(endpoint).snapshot(endpoint));
+            }
+            return new LoadReport(mode, settings, results, elapsedNanos);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Pre-authenticate a pool of users and staff so checkouts and staff updates carry real JWTs
+    private void openSessions() throws InterruptedException {
+        int userSessions = Math.min(settings.sessions(), catalog.users());
+        int staffSessions = Math.min(Math.max(1, settings.sessions() / 20), catalog.staff());
+        List<Future<String>> userLogins = new ArrayList<>();
+        List<Future<String>> staffLogins = new ArrayList<>();
+        for (int i = 0; i < userSessions; i++) {
+            String email = SyntheticCatalog.userEmail(i);
+            userLogins.add(executor.submit(() -> login(email)));
+        }
+        for (int i = 0; i < staffSessions; i++) {
+            String email = SyntheticCatalog.staffEmail(i);
+            staffLogins.add(executor.submit(() -> login(email)));
+        }
+        userTokens = collectTokens(userLogins);
+        staffTokens = collectTokens(staffLogins);
+        System.out.println("🔑 Sessions opened: " + userTokens.size() + " users, " + staffTokens.size() + " staff");
+    }
+
+    private List<String> collectTokens(List<Future<String>> logins) throws InterruptedException {
+        List<String> tokens = new ArrayList<>();
+        for (Future<String> login : logins) {
+            try {
+                tokens.add(login.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Session login failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return tokens;
+    }
+
+    private String login(String email) throws Exception {
+        HttpResponse<String> response = client.send(loginRequest(email), HttpResponse.BodyHandlers.ofString());
+        JsonNode token = objectMapper.readTree(response.body()).get("token");
+        if (response.statusCode() != 200 || token == null || token.isNull()) {
+            throw new IllegalStateException(email + " -> HTTP " + response.statusCode());
+        }
+        return token.asText();
+    }
+
+    private void drive(Duration phase) throws InterruptedException {
+        if (phase.isZero() || phase.isNegative()) return;
+
+        Semaphore inFlight = new Semaphore(settings.maxInFlight());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        long start = System.nanoTime();
+        long end = start + phase.toNanos();
+        double next = start;
+
+        while (true) {
+            // Exponential gaps give Poisson arrivals at the configured mean rate
+            next += -Math.log(1.0 - random.nextDouble()) * meanGapNanos;
+            long intended = (long) next;
+            if (intended >= end) break;
+
+            long wait = intended - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+
+            Endpoint endpoint = pick(random);
+            EndpointStats endpointStats = stats.get(endpoint);
+            if (!inFlight.tryAcquire()) {
+                // The client itself is saturated; report it rather than quietly slowing down
+                endpointStats.dropped.increment();
+                continue;
+            }
+            executor.execute(() -> {
+                try {
+                    issue(endpoint, endpointStats, intended);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        // Let the tail of the phase finish before the next one starts
+        if (!inFlight.tryAcquire(settings.maxInFlight(), 2, TimeUnit.MINUTES)) {
+            System.err.println("⚠ Requests still in flight after the phase ended");
+        } else {
+            inFlight.release(settings.maxInFlight());
+        }
+    }
+
+    private Endpoint pick(ThreadLocalRandom random) {
+        int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) return endpoints[i];
+        }
+        return endpoints[endpoints.length - 1];
+    }
+
+    private void issue(Endpoint endpoint, EndpointStats endpointStats, long intendedNanos) {
+        try {
+            HttpResponse<Void> response = client.send(buildRequest(endpoint), HttpResponse.BodyHandlers.discarding());
+            endpointStats.record(intendedNanos, response.statusCode());
+        } catch (Exception e) {
+            endpointStats.record(intendedNanos, -1);
+        }
+    }
+
+    private HttpRequest buildRequest(Endpoint endpoint) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (endpoint) {
+            case CATALOG_ITEM:
+                return get("/api/products/public/" + catalog.productId(random.nextInt(catalog.products())));
+            case CATALOG_ALL:
+                return get("/api/products/public/all");
+            case LOGIN:
+                return loginRequest(SyntheticCatalog.userEmail(random.nextInt(catalog.users())));
+            case CHECKOUT: {
+                List<Map<String, Object>> items = new ArrayList<>();
+                int lines = 1 + random.nextInt(3);
+                for (int i = 0; i < lines; i++) {
+                    int index = random.nextInt(catalog.products());
+                    items.add(Map.of("productName", SyntheticCatalog.productName(index),
+                            "model", SyntheticCatalog.productModel(index),
+                            "quantity", 1 + random.nextInt(2)));
+                }
+                return json("POST", "/api/orders/checkout", Map.of("items", items),
+                        userTokens.get(random.nextInt(userTokens.size())));
+            }
+            case STAFF_UPDATE: {
+                int index = random.nextInt(catalog.products());
+                Map<String, Object> body = new HashMap<>();
+                body.put("productName", SyntheticCatalog.productName(index));
+                body.put("model", SyntheticCatalog.productModel(index));
+                body.put("pricePerQuantity", Math.round((1 + random.nextDouble() * 499) * 100) / 100.0);
+                body.put("unitStockQuantity", 20000 + random.nextInt(80001));
+                body.put("status", "ACTIVE");
+                return json("PUT", "/api/products/staff/update/" + catalog.productId(index), body,
+                        staffTokens.get(random.nextInt(staffTokens.size())));
+            }
+            default:
+                throw new IllegalArgumentException("Unhandled endpoint " + endpoint);
+        }
+    }
+
+    private HttpRequest loginRequest(String email) throws Exception {
+        return json("POST", "/api/auth/login", Map.of("email", email, "password", SyntheticCatalog.PASSWORD), null);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(Duration.ofSeconds(60)).GET().build();
+    }
+
+    private HttpRequest json(String method, String path, Object body, String token) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private static class EndpointStats {
+
+        private final Recorder latency = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final ConcurrentHashMap<Integer, LongAdder> errorsByStatus = new ConcurrentHashMap<>();
+
+        void record(long intendedNanos, int status) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedNanos);
+            latency.recordValue(Math.min(Math.max(micros, 0), HIGHEST_TRACKABLE_MICROS));
+            requests.increment();
+            if (status < 200 || status >= 300) {
+                errors.increment();
+                errorsByStatus.computeIfAbsent(status, s -> new LongAdder()).increment();
+            }
+        }
+
+        void reset() {
+            latency.reset();
+            requests.reset();
+            errors.reset();
+            dropped.reset();
+            errorsByStatus.clear();
+        }
+
+        LoadReport.EndpointResult snapshot(Endpoint endpoint) {
+            Histogram histogram = latency.getIntervalHistogram();
+            Map<Integer, Long> byStatus = new TreeMap<>();
+            errorsByStatus.forEach((status, count) -> byStatus.put(status, count.sum()));
+            return new LoadReport.EndpointResult(endpoint, requests.sum(), errors.sum(), dropped.sum(), byStatus,
+                    histogram);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.demo.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+// Per-endpoint latency percentiles (milliseconds) and error rates for one measured phase
+public class LoadReport {
+
+    public record EndpointResult(Endpoint endpoint, long requests, long errors, long dropped,
+                                 Map<Integer, Long> errorsByStatus, Histogram latencyMicros) {
+    }
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final String mode;
+    private final LoadTestSettings settings;
+    private final List<EndpointResult> results;
+    private final long elapsedNanos;
+
+    public LoadReport(String mode, LoadTestSettings settings, List<EndpointResult> results, long elapsedNanos) {
+        this.mode = mode;
+        this.settings = settings;
+        this.results = results;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public List<EndpointResult> getResults() {
+        return results;
+    }
+
+    public String format() {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("Load test [%s threads]: %d products, %d users, %d staff | target %.0f req/s for %.0f s%n",
+                mode, settings.products(), settings.users(), settings.staff(), settings.rate(), seconds));
+        out.append(String.format("%-14s %9s %9s %8s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "error%", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+
+        Histogram total = null;
+        long totalRequests = 0, totalErrors = 0, totalDropped = 0;
+        for (EndpointResult result : results) {
+            out.append(row(result.endpoint().getKey(), result.requests(), result.errors(), result.dropped(),
+                    result.latencyMicros(), seconds));
+            if (total == null) {
+                total = result.latencyMicros().copy();
+            } else {
+                total.add(result.latencyMicros());
+            }
+            totalRequests += result.requests();
+            totalErrors += result.errors();
+            totalDropped += result.dropped();
+        }
+        if (total != null) {
+            out.append(row("ALL", totalRequests, totalErrors, totalDropped, total, seconds));
+        }
+
+        for (EndpointResult result : results) {
+            if (result.dropped() > 0) {
+                out.append(String.format("  %s: %d requests not sent (client in-flight limit reached)%n",
+                        result.endpoint().getKey(), result.dropped()));
+            }
+            if (!result.errorsByStatus().isEmpty()) {
+                out.append(String.format("  %s errors by status (-1 = I/O failure): %s%n",
+                        result.endpoint().getKey(), result.errorsByStatus()));
+            }
+        }
+        return out.toString();
+    }
+
+    // Dropped requests never reached the server but still count as failed attempts
+    private String row(String name, long requests, long errors, long dropped, Histogram latency, double seconds) {
+        long attempts = requests + dropped;
+        long failed = errors + dropped;
+        StringBuilder row = new StringBuilder(String.format("%-14s %9d %9.1f %8d %7.2f%%",
+                name, requests, requests / seconds, failed, attempts == 0 ? 0.0 : 100.0 * failed / attempts));
+        for (double percentile : PERCENTILES) {
+            row.append(String.format(" %9.1f", latency.getValueAtPercentile(percentile) / 1000.0));
+        }
+        row.append(String.format(" %9.1f%n", latency.getMaxValue() / 1000.0));
+        return row.toString();
+    }
+
+    // Same endpoint side by side for each execution mode that ran
+    public static String compare(List<LoadReport> reports) {
+        StringBuilder out = new StringBuilder("Execution mode comparison\n");
+        out.append(String.format("%-14s %-9s %9s %8s %9s %9s %9s %9s%n",
+                "endpoint", "mode", "req/s", "error%", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (EndpointResult first : reports.get(0).results) {
+            for (LoadReport report : reports) {
+                double seconds = report.elapsedNanos / 1_000_000_000.0;
+                for (EndpointResult result : report.results) {
+                    if (result.endpoint() != first.endpoint()) continue;
+                    long attempts = result.requests() + result.dropped();
+                    long failed = result.errors() + result.dropped();
+                    Histogram latency = result.latencyMicros();
+                    out.append(String.format("%-14s %-9s %9.1f %7.2f%% %9.1f %9.1f %9.1f %9.1f%n",
+                            result.endpoint().getKey(), report.mode, result.requests() / seconds,
+                            attempts == 0 ? 0.0 : 100.0 * failed / attempts,
+                            latency.getValueAtPercentile(50) / 1000.0, latency.getValueAtPercentile(99) / 1000.0,
+                            latency.getValueAtPercentile(99.9) / 1000.0, latency.getMaxValue() / 1000.0));
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    public void print(PrintStream out) {
+        out.println();
+        out.print(format());
+    }
+
+    public static Path write(Path directory, List<LoadReport> reports) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (LoadReport report : reports) {
+            content.append(report.format()).append(System.lineSeparator());
+        }
+        if (reports.size() > 1) {
+            content.append(compare(reports));
+        }
+        Files.createDirectories(directory);
+        Path file = directory.resolve("loadtest-" +
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".txt");
+        Files.writeString(file, content.toString(), StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.loadtest;
+
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Extra beans for the load-test profile: settings, the data generator and a mail sender that
+ * discards messages so low-stock and order e-mails cost nothing and never leave the machine.
+ */
+@Configuration
+public class LoadTestConfiguration {
+
+    @Bean
+    public LoadTestSettings loadTestSettings(Environment environment) {
+        return LoadTestSettings.from(environment);
+    }
+
+    @Bean
+    public SyntheticDataGenerator syntheticDataGenerator(JdbcTemplate jdbcTemplate,
+                                                         PasswordEncoder passwordEncoder,
+                                                         LoadTestSettings loadTestSettings) {
+        return new SyntheticDataGenerator(jdbcTemplate, passwordEncoder, loadTestSettings);
+    }
+
+    @Bean
+    @Primary
+    public DiscardingMailSender discardingMailSender() {
+        return new DiscardingMailSender();
+    }
+
+    public static class DiscardingMailSender extends JavaMailSenderImpl {
+
+        private final AtomicLong discarded = new AtomicLong();
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+            discarded.addAndGet(mimeMessages.length);
+        }
+
+        public long getDiscarded() {
+            return discarded.get();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.TablesApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Boots the application in-process under the "loadtest" profile (embedded H2, discarding mail),
+ * waits for the synthetic data, drives the configured traffic mix over real HTTP and prints
+ * the per-endpoint report. With --loadtest.modes=platform,virtual the whole run is repeated
+ * once per thread mode (fresh context and schema each time) and the modes are compared.
+ */
+public class LoadTestRunner {
+
+    private static final String MODES_ARG = "--loadtest.modes=";
+    private static final List<String> KNOWN_MODES = List.of("platform", "virtual");
+
+    public static void main(String[] args) throws Exception {
+        int exitCode = 0;
+        List<LoadReport> reports = new ArrayList<>();
+        LoadTestSettings settings = null;
+        try {
+            for (String mode : modes(args)) {
+                System.out.println("🧵 Running with " + mode + " threads");
+                List<String> modeArgs = new ArrayList<>(Arrays.asList(args));
+                modeArgs.add("--spring.threads.virtual.enabled=" + mode.equals("virtual"));
+                ConfigurableApplicationContext context = new SpringApplicationBuilder(TablesApplication.class, LoadTestConfiguration.class)
+                        .profiles("loadtest")
+                        .run(modeArgs.toArray(new String[0]));
+                try {
+                    settings = context.getBean(LoadTestSettings.class);
+                    SyntheticCatalog catalog = context.getBean(SyntheticDataGenerator.class).getCatalog();
+                    int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+                    LoadReport report = new LoadDriver(URI.create("http://localhost:" + port), settings, catalog).run(mode);
+                    report.print(System.out);
+                    reports.add(report);
+                    System.out.println("✉ Mails discarded: " +
+                            context.getBean(LoadTestConfiguration.DiscardingMailSender.class).getDiscarded());
+                } finally {
+                    context.close();
+                }
+            }
+
+            if (reports.size() > 1) {
+                System.out.println();
+                System.out.print(LoadReport.compare(reports));
+            }
+            Path written = LoadReport.write(settings.reportDir(), reports);
+            System.out.println("📄 Report written to " + written.toAbsolutePath());
+        } catch (Exception e) {
+            System.err.println("❌ Load test failed: " + e.getMessage());
+            exitCode = 1;
+        }
+        System.exit(exitCode);
+    }
+
+    // Read before any context exists, since each mode needs its own context
+    static List<String> modes(String[] args) {
+        String value = System.getProperty("loadtest.modes", "platform");
+        for (String arg : args) {
+            if (arg.startsWith(MODES_ARG)) {
+                value = arg.substring(MODES_ARG.length());
+            }
+        }
+        List<String> modes = new ArrayList<>();
+        for (String mode : value.split(",")) {
+            String trimmed = mode.trim().toLowerCase();
+            if (trimmed.isEmpty()) continue;
+            if (!KNOWN_MODES.contains(trimmed)) {
+                throw new IllegalArgumentException("loadtest.modes entries must be one of " + KNOWN_MODES + ", got '" + mode + "'");
+            }
+            modes.add(trimmed);
+        }
+        if (modes.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.modes must name at least one mode");
+        }
+        return modes;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.loadtest;
+
+import org.springframework.core.env.Environment;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Everything under loadtest.*; defaults live in application-loadtest.properties and any
+ * value can be overridden on the command line (--loadtest.rate=1000).
+ */
+public record LoadTestSettings(int products,
+                               int users,
+                               int staff,
+                               long seed,
+                               int insertBatchSize,
+                               double rate,
+                               Duration warmup,
+                               Duration duration,
+                               int maxInFlight,
+                               int sessions,
+                               Map<Endpoint, Integer> mix,
+                               Path reportDir) {
+
+    public static LoadTestSettings from(Environment env) {
+        LoadTestSettings settings = new LoadTestSettings(
+                env.getProperty("loadtest.products", Integer.class, 100000),
+                env.getProperty("loadtest.users", Integer.class, 50000),
+                env.getProperty("loadtest.staff", Integer.class, 20),
+                env.getProperty("loadtest.seed", Long.class, 42L),
+                env.getProperty("loadtest.insert-batch-size", Integer.class, 10000),
+                env.getProperty("loadtest.rate", Double.class, 300.0),
+                env.getProperty("loadtest.warmup", Duration.class, Duration.ofSeconds(15)),
+                env.getProperty("loadtest.duration", Duration.class, Duration.ofSeconds(60)),
+                env.getProperty("loadtest.max-in-flight", Integer.class, 5000),
+                env.getProperty("loadtest.sessions", Integer.class, 200),
+                parseMix(env.getProperty("loadtest.mix", "catalog-item:60,login:10,checkout:20,staff-update:10")),
+                Path.of(env.getProperty("loadtest.report-dir", "results")));
+        settings.validate();
+        return settings;
+    }
+
+    static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : mix.split(",")) {
+            if (entry.isBlank()) continue;
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("loadtest.mix entries must look like name:weight, got '" + entry + "'");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("loadtest.mix weight must not be negative: " + entry);
+            }
+            weights.put(Endpoint.fromKey(parts[0]), weight);
+        }
+        return weights;
+    }
+
+    private void validate() {
+        if (products < 1 || users < 1 || staff < 1) {
+            throw new IllegalArgumentException("loadtest.products, loadtest.users and loadtest.staff must be at least 1");
+        }
+        if (rate <= 0) {
+            throw new IllegalArgumentException("loadtest.rate must be positive");
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("loadtest.mix must give at least one endpoint a positive weight");
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.loadtest;
+
+/**
+ * What the generator wrote. Rows are derived from their index, so the driver can address any
+ * product or account without holding millions of rows in memory.
+ */
+public record SyntheticCatalog(long firstProductId, int products, int users, int staff) {
+
+    public static final String PASSWORD = "LoadTest#2024";
+
+    public static String productName(int index) {
+        return String.format("Item %07d", index);
+    }
+
+    public static String productModel(int index) {
+        return String.format("LT-%03d", index % 1000);
+    }
+
+    public static String userEmail(int index) {
+        return "user" + index + "@loadtest.local";
+    }
+
+    public static String staffEmail(int index) {
+        return "staff" + index + "@loadtest.local";
+    }
+
+    public long productId(int index) {
+        return firstProductId + index;
+    }
+}
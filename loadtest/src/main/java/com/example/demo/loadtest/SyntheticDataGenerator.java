@@ -0,0 +1,102 @@
+package com.example.demo.loadtest;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills the embedded database with a deterministic catalog, user base and staff list using
+ * plain JDBC batches. It runs as an ApplicationRunner, i.e. before ApplicationReadyEvent, so
+ * start-up caches such as the email existence filter are built over the generated rows.
+ */
+public class SyntheticDataGenerator implements ApplicationRunner {
+
+    private static final String PRODUCT_SQL =
+            "INSERT INTO products (product_name, model, price_per_quantity, unit_stock_quantity, total_price, " +
+                    "status, created_date, updated_date, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String USER_SQL =
+            "INSERT INTO users (name, email, password, phone_number, rights_privileges, created_date, updated_date, status) " +
+                    "VALUES (?, ?, ?, ?, 'BASIC_USER', ?, ?, 'ACTIVE')";
+    private static final String STAFF_SQL =
+            "INSERT INTO staff (name, email, password, designation, department, phone_number, rights_privileges, " +
+                    "created_date, updated_date, status) VALUES (?, ?, ?, 'Associate', 'Warehouse', ?, 'BASIC_STAFF', ?, ?, 'ACTIVE')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final LoadTestSettings settings;
+
+    private volatile SyntheticCatalog catalog;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder, LoadTestSettings settings) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.settings = settings;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.currentTimeMillis();
+        Random random = new Random(settings.seed());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        insertProducts(random, now);
+        Long firstProductId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM products", Long.class);
+
+        // One BCrypt hash shared by every account; hashing millions of passwords would dominate setup
+        String passwordHash = passwordEncoder.encode(SyntheticCatalog.PASSWORD);
+        insertAccounts(USER_SQL, settings.users(), passwordHash, now, true);
+        insertAccounts(STAFF_SQL, settings.staff(), passwordHash, now, false);
+
+        catalog = new SyntheticCatalog(firstProductId, settings.products(), settings.users(), settings.staff());
+        System.out.println("🧪 Synthetic data ready: " + settings.products() + " products, " + settings.users() +
+                " users, " + settings.staff() + " staff in " + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    public SyntheticCatalog getCatalog() {
+        if (catalog == null) {
+            throw new IllegalStateException("Synthetic data has not been generated yet");
+        }
+        return catalog;
+    }
+
+    private void insertProducts(Random random, Timestamp now) {
+        List<Object[]> batch = new ArrayList<>(settings.insertBatchSize());
+        for (int i = 0; i < settings.products(); i++) {
+            double price = Math.round((1 + random.nextDouble() * 499) * 100) / 100.0;
+            // Deep stock so checkouts rarely exhaust a product during a run
+            int stock = 20000 + random.nextInt(80001);
+            batch.add(new Object[]{SyntheticCatalog.productName(i), SyntheticCatalog.productModel(i), price, stock,
+                    price * stock, "ACTIVE", now, now});
+            if (batch.size() == settings.insertBatchSize()) {
+                jdbcTemplate.batchUpdate(PRODUCT_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(PRODUCT_SQL, batch);
+        }
+    }
+
+    private void insertAccounts(String sql, int count, String passwordHash, Timestamp now, boolean users) {
+        List<Object[]> batch = new ArrayList<>(settings.insertBatchSize());
+        for (int i = 0; i < count; i++) {
+            String email = users ? SyntheticCatalog.userEmail(i) : SyntheticCatalog.staffEmail(i);
+            String name = (users ? "Load User " : "Load Staff ") + i;
+            batch.add(new Object[]{name, email, passwordHash, String.format("555%07d", i), now, now});
+            if (batch.size() == settings.insertBatchSize()) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+}